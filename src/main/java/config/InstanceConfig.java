@@ -91,6 +91,9 @@ public class InstanceConfig {
     private Path durationsPath;
     private Path adjacencyMatrixPath;
     private Path networkNodeInfoPath;
+    private Path successorsPath; // Optional precomputed next-hop matrix
+    private String nodeOrdering; // Optional layout of the travel time matrix ("hilbert" or "z_order")
+    private boolean distancesFileLoaded; // If false, distances (km) are derived from the durations
     private Path requestsPath;
     private String serverUrl;
     private String instanceDescription;
@@ -348,6 +351,15 @@ public class InstanceConfig {
             this.durationsPath = Paths.get(jsonConfig.get("durations_file").toString());
             this.adjacencyMatrixPath = Paths.get(jsonConfig.get("adjacency_matrix_file").toString());
             this.networkNodeInfoPath = Paths.get(jsonConfig.get("network_node_info_file").toString());
+            if (jsonConfig.containsKey("successors_file")) {
+                this.successorsPath = Paths.get(jsonConfig.get("successors_file").toString());
+            }
+            if (jsonConfig.containsKey("load_distances_file")) {
+                this.distancesFileLoaded = Boolean.parseBoolean(jsonConfig.get("load_distances_file").toString());
+            }
+            if (jsonConfig.containsKey("node_ordering")) {
+                this.nodeOrdering = jsonConfig.get("node_ordering").toString();
+            }
             this.serverUrl = jsonConfig.get("server_url").toString();
             this.requestsPath = Paths.get(jsonConfig.get("requests_file").toString());
             this.instanceDescription = jsonConfig.get("instance_description").toString();
@@ -743,8 +755,11 @@ public class InstanceConfig {
         //TODO read max PD sequences
         int pdGeneratorMaxSequences = gson.fromJson(elementPDGeneration.get("max_sequences"), int.class);
 
-        return new MatchingOptimal(maxVehicleCapacityRTV, timeLimit, timeoutVehicle, mipGap, maxEdgesRV, maxEdgesRR,
+        MatchingOptimal m = new MatchingOptimal(maxVehicleCapacityRTV, timeLimit, timeoutVehicle, mipGap, maxEdgesRV, maxEdgesRR,
                 rejectionPenalty, objectives, pdGeneratorMethodStrategyName);
+        m.setTimeoutRoundRTV(readTimeoutRoundRTV(gson, element));
+        m.setAssignmentSolver(readAssignmentSolver(gson, element));
+        return m;
     }
 
     private MatchingSimple readMatchingOptimalLearnParams(Gson gson, JsonObject element) {
@@ -773,6 +788,8 @@ public class InstanceConfig {
                 m =
                 new MatchingSimple(maxVehicleCapacityRTV, timeLimit, timeoutVehicle, mipGap, maxEdgesRV, maxEdgesRR,
                         rejectionPenalty, objectives, pdGeneratorMethodStrategyName);
+        m.setTimeoutRoundRTV(readTimeoutRoundRTV(gson, element));
+        m.setAssignmentSolver(readAssignmentSolver(gson, element));
         return m;
     }
 
@@ -807,8 +824,11 @@ public class InstanceConfig {
         int badServicePenalty = gson.fromJson(element.get("bad_service_penalty"), int.class);
         String[] objectives = gson.fromJson(element.get("objectives"), String[].class);
         String pdGenerationStrategy = gson.fromJson(element.get("pd_generation_strategy"), String.class);
-        return new MatchingOptimalServiceLevel(maxVehicleCapacityRTV, badServicePenalty, timeLimit, timeoutVehicleRTV
+        MatchingOptimalServiceLevel m = new MatchingOptimalServiceLevel(maxVehicleCapacityRTV, badServicePenalty, timeLimit, timeoutVehicleRTV
                 , mipGap, maxEdgesRV, maxEdgesRR, rejectionPenalty, objectives, pdGenerationStrategy);
+        m.setTimeoutRoundRTV(readTimeoutRoundRTV(gson, element));
+        requireGurobiAssignmentSolver(gson, element, Matching.METHOD_OPTIMAL_ENFORCE_SL);
+        return m;
     }
 
     private MatchingOptimalServiceLevelAndHire readMatchingOptimalServiceLevelAndHireParams(Gson gson,
@@ -827,9 +847,63 @@ public class InstanceConfig {
         int hiringPenalty = gson.fromJson(element.get("hiring_penalty"), int.class);
         boolean allowHiring = gson.fromJson(element.get("allow_hiring"), boolean.class);
         String[] objectives = gson.fromJson(element.get("objectives"), String[].class);
-        return new MatchingOptimalServiceLevelAndHire(maxVehicleCapacityRTV, badServicePenalty, hiringPenalty,
+        MatchingOptimalServiceLevelAndHire m = new MatchingOptimalServiceLevelAndHire(maxVehicleCapacityRTV, badServicePenalty, hiringPenalty,
                 timeLimit, timeoutVehicleRTV, mipGap, maxEdgesRV, maxEdgesRR, rejectionPenalty, allowHiring,
                 objectives, pdGenerationStrategy);
+        m.setTimeoutRoundRTV(readTimeoutRoundRTV(gson, element));
+        requireGurobiAssignmentSolver(gson, element, Matching.METHOD_OPTIMAL_ENFORCE_SL_HIRE);
+        return m;
+    }
+
+    /**
+     * Optional time budget (seconds) of the whole RTV graph building in a round ("rtv_round_timeout"). Vehicles still
+     * have their own budget ("rtv_vehicle_timeout").
+     *
+     * @return Round timeout, or 0 (unbounded) if not set
+     */
+    private static double readTimeoutRoundRTV(Gson gson, JsonObject element) {
+        if (!element.has("rtv_round_timeout")) {
+            return 0;
+        }
+        return gson.fromJson(element.get("rtv_round_timeout"), double.class);
+    }
+
+    /**
+     * Optional solver of the RTV assignment ("assignment_solver"): "solver_gurobi" (ILP, requires a Gurobi license),
+     * "solver_column_generation" (ILP over visits priced in from the RTV graph, for very large graphs), or
+     * "solver_local_search" (pure Java, solutions are not proven optimal). The time limit is "mip_time_limit".
+     * Only "method_optimal" and "method_optimal_learn" can use any solver. The service-level methods
+     * ("method_optimal_enforce_sl" and "method_optimal_enforce_sl_and_hire") only support Gurobi (see
+     * {@link #requireGurobiAssignmentSolver(Gson, JsonObject, String)}).
+     *
+     * @return Solver name, or Gurobi if not set
+     * @throws IllegalArgumentException If "assignment_solver" is not one of the solvers above
+     */
+    private static String readAssignmentSolver(Gson gson, JsonObject element) {
+        if (!element.has("assignment_solver")) {
+            return Matching.SOLVER_GUROBI;
+        }
+        String solver = gson.fromJson(element.get("assignment_solver"), String.class);
+        if (!Matching.SOLVER_GUROBI.equals(solver)
+                && !Matching.SOLVER_COLUMN_GENERATION.equals(solver)
+                && !Matching.SOLVER_LOCAL_SEARCH.equals(solver)) {
+            throw new IllegalArgumentException(String.format("Unknown assignment solver '%s' (valid: '%s', '%s', '%s')", solver,
+                    Matching.SOLVER_GUROBI, Matching.SOLVER_COLUMN_GENERATION, Matching.SOLVER_LOCAL_SEARCH));
+        }
+        return solver;
+    }
+
+    /**
+     * The service-level methods build their own Gurobi models (class service-level slacks and hiring), hence they
+     * cannot run on another assignment solver.
+     *
+     * @throws IllegalArgumentException If "assignment_solver" is set to a solver other than Gurobi
+     */
+    private static void requireGurobiAssignmentSolver(Gson gson, JsonObject element, String method) {
+        String solver = readAssignmentSolver(gson, element);
+        if (!Matching.SOLVER_GUROBI.equals(solver)) {
+            throw new IllegalArgumentException(String.format("Assignment solver '%s' is not supported by %s (only '%s')", solver, method, Matching.SOLVER_GUROBI));
+        }
     }
 
     public boolean[] getSortWaitingUsersByClassArray() {
@@ -856,6 +930,21 @@ public class InstanceConfig {
         return requestsPath;
     }
 
+    /**
+     * @return Path of precomputed next-hop matrix, or null if shortest paths are searched in the road graph
+     */
+    public Path getSuccessorsPath() {
+        return successorsPath;
+    }
+
+    public String getNodeOrdering() {
+        return nodeOrdering;
+    }
+
+    public boolean isDistancesFileLoaded() {
+        return distancesFileLoaded;
+    }
+
     @Override
     public String toString() {
         return "################## Instance Config ###################################" +
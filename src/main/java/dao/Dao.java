@@ -1,7 +1,10 @@
 package dao;
 
 
-import com.google.gson.Gson;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 import config.Config;
 import config.InstanceConfig;
 import config.Qos;
@@ -27,10 +30,12 @@ import simulation.Simulation;
 import java.awt.geom.Point2D;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toSet;
@@ -43,7 +48,8 @@ public class Dao {
     public static final Set<Integer> ZONE_ID_SET = new HashSet<>(Arrays.stream(ZONE_IDS).boxed().toList());
     public static final  double SPEED_FACTOR = 0.3;
 
-    public static Map<Date, Map<String, Map<Integer, Map<Integer, List<String>>>>> requestDataMap = new HashMap<>();
+    // Request data of each batch read so far (shared by all episodes and configurations, see RequestBatch.key)
+    public static final Map<String, RequestBatch> requestBatchCache = new ConcurrentHashMap<>();
 
     // Speed of vehicles m/s
     public static final double SPEED = 30;
@@ -81,42 +87,60 @@ public class Dao {
     private static final int AVG_DELAY_BROADCAST_SOLUTION = 0;
     private static final String SHORTEST_PATH_DIJKSTRA = "shortest_path_dijkstra";
     private static final String SHORTEST_PATH_ASTAR = "shortest_path_astar";
+    // Same searches on the compact CSR graph (see RoadGraph)
+    private static final String SHORTEST_PATH_CSR_DIJKSTRA = "shortest_path_csr_dijkstra";
+    private static final String SHORTEST_PATH_CSR_ASTAR = "shortest_path_csr_astar";
+    // Max. number of (origin, destination) shortest paths kept in memory
+    private static final long SHORTEST_PATH_CACHE_MAX_SIZE = 200_000;
+    // Loaded metric distances are truncated to multiples of 10 meters (fits short for networks up to ~300km)
+    private static final int METRIC_DISTANCE_RESOLUTION = 10;
+    // Longer time limits are answered by scanning the travel time matrix (covers usual pickup delays)
+    private static final int REACHABILITY_INDEX_MAX_SECONDS = 600;
     public static int numberOfNodes;
     private static Dao ourInstance = new Dao();
     public final long SEED = 0;
     public Map<Integer, List<Integer>> closestZones;
     public Random rand;
     protected ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
-    protected ArrayList<ArrayList<List<Integer>>> shortestPathsNodeIds;
-    protected ArrayList<ArrayList<List<Integer>>> shortestPathDistances;
+    // Shortest path search used to fill the cache (jgrapht or CSR graph)
+    protected DaoInterface shortestPathSearch;
+    // Shortest paths (node ids, node arrivals) keyed by (origin, destination)
+    protected LoadingCache<Long, ShortestPath> shortestPathCache;
+    // Optional next-hop table (shortest paths are reconstructed without graph search)
+    protected SuccessorMatrix successorMatrix;
     private String pathDistanceMatrix;
     private String pathPrecalculatedPermutations;
     private String pathDurationsMatrix;
     private String pathRequestList;
+    // Trip file currently read (requests file or learning episode file)
+    private String pathCurrentRequests;
     private String pathadjacencyMatrix;
     private String pathNetworkNodeInfo;
     // Geographical data
     private Map<Integer, NodeNetwork> nodeNetworkInfo; // Map of node ids and respective coordinates
     private ServerUtil server;
 
-    public Map<Integer, Set<Integer>> getMapReachableNetworkIdsWithinTimeLimit() {
-        return mapReachableNetworkIdsWithinTimeLimit;
+    public ReachabilityIndex getReachabilityIndex() {
+        return reachabilityIndex;
     }
 
-    public void setMapReachableNetworkIdsWithinTimeLimit(Map<Integer, Set<Integer>> mapReachableNetworkIdsWithinTimeLimit) {
-        this.mapReachableNetworkIdsWithinTimeLimit = mapReachableNetworkIdsWithinTimeLimit;
-    }
-
-    private Map<Integer, Set<Integer>> mapReachableNetworkIdsWithinTimeLimit;
-    private short[][] distMatrix;
-    private double[][] distMatrixMeters;
-    private int[][] adjacencyMatrix;
+    // Nodes sorted by travel time from/to each node (range queries "all nodes within t seconds")
+    private ReachabilityIndex reachabilityIndex;
+    private DistanceMatrix distMatrix;
+    // Optional metric distances (units of METRIC_DISTANCE_RESOLUTION meters), otherwise derived from travel times
+    private DistanceMatrix distMatrixMetric;
+    // successors[i] = nodes reached from node i through an edge
+    private int[][] adjacencyLists;
     private SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> networkGraph;
     private Map<Integer, Map<String, List<Integer>>> canReachClass;
     private int iUserNextRound;
     private User userBuff;
     private List<User> allUsers;
     private Iterable<CSVRecord> records;
+    // Binary request log (replaces records if the trip file was converted, see RequestLog.convert)
+    private RequestLog requestLog;
+    // Next request log row (-1 = seek earliest time on next pull)
+    private int requestLogRow = -1;
     private int earliestTimeRequestBatch = 0;
     private Runtime runTimes;
 
@@ -152,53 +176,105 @@ public class Dao {
 
             // Reading map data ////////////////////////////////////////////////////////////////////////////////////////
 
-            Logging.logger.info("# Reading nodeset data from '{}'...", pathNetworkNodeInfo);
-            nodeNetworkInfo = ParseJsonUtil.getNodeDictionaryFromJsonString(HelperIO.readFileFromPath(pathNetworkNodeInfo));
-            numberOfNodes = nodeNetworkInfo.size();
+            // Independent network files are read concurrently (cold start is bounded by the slowest file)
+            long loadStart = System.currentTimeMillis();
 
-            //distMatrix = getDistanceMatrixFrom(pathDistanceMatrix);
-            distMatrix = getDistanceMatrixFrom(pathDurationsMatrix, false);
-            this.closestZones = this.closestZones(4);
-//            distMatrixMeters = getDistanceMatrixMeters(pathDistanceMatrix);
+            CompletableFuture<Map<Integer, NodeNetwork>> futureNodeInfo = CompletableFuture.supplyAsync(() -> {
+                Logging.logger.info("# Reading nodeset data from '{}'...", pathNetworkNodeInfo);
+                return ParseJsonUtil.getNodeDictionaryFromJsonString(HelperIO.readFileFromPath(pathNetworkNodeInfo));
+            });
 
-            Logging.logger.info("# Reading precalculated PUDO data from '{}'...", pathPrecalculatedPermutations);
-            loadPrecalculatedPermutationsPUDO(pathPrecalculatedPermutations);
+            // Precompiled matrix (see DistanceMatrix.convert) is mapped instead of parsed
+            CompletableFuture<DistanceMatrix> futureDistMatrix = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return DistanceMatrix.load(pathDurationsMatrix, SPEED_FACTOR);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
 
+            // Successor lists (edge list or adjacency matrix file)
+            CompletableFuture<int[][]> futureAdjacency = CompletableFuture.supplyAsync(
+                    () -> FileUtil.readAdjacencyLists(pathadjacencyMatrix));
 
-            adjacencyMatrix = getAdjacencyMatrix(pathadjacencyMatrix);
+            // Metric distances are only read if they cannot be derived from the travel times
+            CompletableFuture<DistanceMatrix> futureDistMatrixMetric = CompletableFuture.supplyAsync(() -> {
+                if (!InstanceConfig.getInstance().isDistancesFileLoaded()) {
+                    return null;
+                }
+                try {
+                    return DistanceMatrix.load(pathDistanceMatrix, 1.0 / METRIC_DISTANCE_RESOLUTION);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
 
-            // networkGraph = getWeightedGraphFromAdjacencyMatrix(adjacencyMatrix, distMatrixMeters);
-            networkGraph = getWeightedGraphFromAdjacencyMatrix(adjacencyMatrix, distMatrix);
+            CompletableFuture<Void> futurePUDO = CompletableFuture.runAsync(() -> {
+                Logging.logger.info("# Reading precalculated PUDO data from '{}'...", pathPrecalculatedPermutations);
+                loadPrecalculatedPermutationsPUDO(pathPrecalculatedPermutations);
+            });
 
-            if (Config.getInstance().getSpAlgorithm().equals(SHORTEST_PATH_DIJKSTRA)) {
-                this.shortestPath = new DijkstraShortestPath(networkGraph);
-            } else if (Config.getInstance().getSpAlgorithm().equals(SHORTEST_PATH_ASTAR)) {
-                this.shortestPath = new AStarShortestPath<Integer, DefaultWeightedEdge>(
-                        networkGraph,
-                        new AStarAdmissibleHeuristic<Integer>() {
-                            @Override
-                            public double getCostEstimate(Integer i, Integer j) {
-                                return distMatrix[i][j];
-                            }
-                        });
+            nodeNetworkInfo = futureNodeInfo.join();
+            numberOfNodes = nodeNetworkInfo.size();
+
+            //distMatrix = getDistanceMatrixFrom(pathDistanceMatrix);
+            distMatrix = futureDistMatrix.join();
+            String nodeOrdering = InstanceConfig.getInstance().getNodeOrdering();
+            if (nodeOrdering != null) {
+                // Nearby nodes are stored next to each other (node ids are unchanged)
+                Logging.logger.info("# Ordering travel time matrix along '{}' curve...", nodeOrdering);
+                distMatrix = distMatrix.reorder(NodeOrdering.getOrder(nodeNetworkInfo, distMatrix.size(), nodeOrdering));
             }
+            distMatrixMetric = futureDistMatrixMetric.join();
+            reachabilityIndex = ReachabilityIndex.build(distMatrix, REACHABILITY_INDEX_MAX_SECONDS);
+            this.closestZones = this.closestZones(4);
 
-            // Shortest path info (node ids, node arrivals)
-            shortestPathsNodeIds = new ArrayList<>();
-            shortestPathDistances = new ArrayList<>();
+            adjacencyLists = futureAdjacency.join();
+            futurePUDO.join();
+            Logging.logger.info("# Network data loaded in {} ms.", System.currentTimeMillis() - loadStart);
 
-            for (int i = 0; i < numberOfNodes; i++) {
-                shortestPathsNodeIds.add(i, new ArrayList<>());
-                shortestPathDistances.add(i, new ArrayList<>());
+            String spAlgorithm = Config.getInstance().getSpAlgorithm();
 
-                for (int j = 0; j < numberOfNodes; j++) {
-                    shortestPathsNodeIds.get(i).add(j, null);
-                    shortestPathDistances.get(i).add(j, null);
+            if (SHORTEST_PATH_CSR_DIJKSTRA.equals(spAlgorithm) || SHORTEST_PATH_CSR_ASTAR.equals(spAlgorithm)) {
+                this.shortestPathSearch = RoadGraph.fromAdjacencyLists(
+                        adjacencyLists,
+                        distMatrix,
+                        SHORTEST_PATH_CSR_ASTAR.equals(spAlgorithm));
+            } else {
+                networkGraph = getWeightedGraphFromAdjacencyLists(adjacencyLists, distMatrix);
+
+                if (SHORTEST_PATH_DIJKSTRA.equals(spAlgorithm)) {
+                    this.shortestPath = new DijkstraShortestPath(networkGraph);
+                } else if (SHORTEST_PATH_ASTAR.equals(spAlgorithm)) {
+                    this.shortestPath = new AStarShortestPath<Integer, DefaultWeightedEdge>(
+                            networkGraph,
+                            new AStarAdmissibleHeuristic<Integer>() {
+                                @Override
+                                public double getCostEstimate(Integer i, Integer j) {
+                                    return distMatrix.get(i, j);
+                                }
+                            });
                 }
+                this.shortestPathSearch = (o, d) -> shortestPath.getPath(o, d).getVertexList();
             }
+            Logging.logger.info("# Shortest path method: {}", spAlgorithm);
 
-            Logging.logger.info("# Reading all records from '{}'...", pathRequestList);
-            records = CSVParser.parse(new FileReader(pathRequestList), CSVFormat.RFC4180.withFirstRecordAsHeader());
+            if (InstanceConfig.getInstance().getSuccessorsPath() != null) {
+                successorMatrix = SuccessorMatrix.map(InstanceConfig.getInstance().getSuccessorsPath().toString());
+            }
+
+            // Shortest path info (node ids, node arrivals)
+            shortestPathCache = CacheBuilder.newBuilder()
+                    .maximumSize(SHORTEST_PATH_CACHE_MAX_SIZE)
+                    .recordStats()
+                    .build(new CacheLoader<>() {
+                        @Override
+                        public ShortestPath load(Long od) {
+                            return computeShortestPath((int) (od >>> 32), (int) (long) od);
+                        }
+                    });
+
+            setRecords(pathRequestList);
 
 
             // TODO Read nodes from server
@@ -272,55 +348,23 @@ public class Dao {
      * Weighted directed graph is used in conjunction with shortest path method to determine where each vehicle is
      * at each time.
      *
-     * @param adjacencyMatrix
-     * @param distMatrixMeters
-     * @return
-     */
-    private SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> getWeightedGraphFromAdjacencyMatrix(
-            int[][] adjacencyMatrix, double[][] distMatrixMeters) {
-
-        SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
-
-        for (int i = 0; i < distMatrixMeters.length; i++) {
-            graph.addVertex(i);
-        }
-
-        for (int i = 0; i < distMatrixMeters.length; i++) {
-            for (int j = 0; j < distMatrixMeters.length; j++) {
-
-                if (adjacencyMatrix[i][j] != 0) {
-                    DefaultWeightedEdge edge = graph.addEdge(i, j);
-                    graph.setEdgeWeight(edge, distMatrixMeters[i][j]);
-                }
-            }
-        }
-
-        return graph;
-    }
-
-    /**
-     * Weighted directed graph is used in conjunction with shortest path method to determine where each vehicle is
-     * at each time.
-     *
+     * @param adjacencyLists
      * @param distMatrixSec
      * @return
      */
-    private SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> getWeightedGraphFromAdjacencyMatrix(
-            int[][] adjacencyMatrix, short[][] distMatrixSec) {
+    private SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> getWeightedGraphFromAdjacencyLists(
+            int[][] adjacencyLists, DistanceMatrix distMatrixSec) {
 
         SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
 
-        for (int i = 0; i < distMatrixSec.length; i++) {
+        for (int i = 0; i < distMatrixSec.size(); i++) {
             graph.addVertex(i);
         }
 
-        for (int i = 0; i < distMatrixSec.length; i++) {
-            for (int j = 0; j < distMatrixSec.length; j++) {
-
-                if (adjacencyMatrix[i][j] != 0) {
-                    DefaultWeightedEdge edge = graph.addEdge(i, j);
-                    graph.setEdgeWeight(edge, distMatrixSec[i][j]);
-                }
+        for (int i = 0; i < Math.min(distMatrixSec.size(), adjacencyLists.length); i++) {
+            for (int j : adjacencyLists[i]) {
+                DefaultWeightedEdge edge = graph.addEdge(i, j);
+                graph.setEdgeWeight(edge, distMatrixSec.get(i, j));
             }
         }
 
@@ -418,22 +462,42 @@ public class Dao {
      * @return List of node ids
      */
     public List<Integer> getShortestPathBetween(int o, int d) {
+        return getShortestPath(o, d).getNodeIds();
+    }
 
-            List<Integer> sp = shortestPath.getPath(o, d).getVertexList();
-//        if (shortestPathsNodeIds.get(o).get(d) == null) {
-//            //Instant a = Instant.now();
-////            Instant b = Instant.now();
-////            List<Integer> sp2 = aStarShortestPath.getPath(o, d).getVertexList();
-////            Instant c = Instant.now();
-////            Duration d1 = Duration.between(a, b);
-////            Duration d2 = Duration.between(b, c);
-//
-////            Logging.logger.info(sp + "-" + d1.toMillis());
-////            Logging.logger.info(sp2 + "-" + d2.toMinutes());
-//            //Logging.logger.info("{}", String.format("%d -> %d\n s%\n %s \n\n", o, d, String.valueOf(sp), String.valueOf(sp2)));
-//            shortestPathsNodeIds.get(o).set(d, sp);
-        //}
-        return sp;
+    /**
+     * Get shortest path (node ids and cumulative arrivals) between origin o and destination d. Paths are computed
+     * once and kept in a bounded cache shared by all threads.
+     *
+     * @param o Shortest path origin
+     * @param d Shortest path destination
+     * @return Shortest path
+     */
+    public ShortestPath getShortestPath(int o, int d) {
+        return shortestPathCache.getUnchecked(((long) o << 32) | d);
+    }
+
+    private ShortestPath computeShortestPath(int o, int d) {
+        if (successorMatrix != null) {
+            int[] nodeIds = successorMatrix.getPath(o, d);
+            if (nodeIds == null) {
+                throw new IllegalStateException(String.format("No path between %d and %d", o, d));
+            }
+            return new ShortestPath(nodeIds, getSpNodeArrivals(nodeIds));
+        }
+
+        int[] nodeIds = shortestPathSearch.getPathNodeIds(o, d);
+        if (nodeIds == null) {
+            throw new IllegalStateException(String.format("No path between %d and %d", o, d));
+        }
+        return new ShortestPath(nodeIds, getSpNodeArrivals(nodeIds));
+    }
+
+    /**
+     * @return Hit, miss, and eviction counts of the shortest path cache
+     */
+    public CacheStats getShortestPathCacheStats() {
+        return shortestPathCache.stats();
     }
 
     /**
@@ -448,6 +512,11 @@ public class Dao {
         // Timers are cleaned for next simulation
         runTimes = new Runtime();
 
+        CacheStats spStats = getShortestPathCacheStats();
+        Logging.logger.info("# Shortest path cache: {} paths, {} hits, {} misses ({} hit rate), {} evictions",
+                shortestPathCache.size(), spStats.hitCount(), spStats.missCount(),
+                String.format("%.2f", spStats.hitRate()), spStats.evictionCount());
+
         // Reset system current for next test set
         earliestTimeRequestBatch = 0;
 
@@ -460,6 +529,9 @@ public class Dao {
         // Buffer that saves previous is reset
         userBuff = null;
 
+        // Request log is read again from the earliest time
+        requestLogRow = -1;
+
 //
 //        } catch (FileNotFoundException e) {
 //            e.printStackTrace();
@@ -473,28 +545,6 @@ public class Dao {
         return canReachClass;
     }
 
-    private double[][] getDistanceMatrixMeters(String filePath) {
-        double[][] dist_matrix = new double[numberOfNodes][numberOfNodes];
-
-        try {
-            Logging.logger.info("{}", String.format("# Reading distance matrix from \"%s\"...", filePath));
-            Reader in = new FileReader(filePath);
-            int row = 0;
-            Iterable<CSVRecord> records = CSVFormat.DEFAULT.parse(in);
-            for (CSVRecord record : records) {
-                int col = 0;
-                for (String r : record) {
-                    dist_matrix[row][col] = Float.parseFloat(r);
-                    col++;
-                }
-                row++;
-            }
-        } catch (java.io.IOException e) {
-            e.printStackTrace();
-        }
-        return dist_matrix;
-    }
-
     public Set<User> getListTripsClassed(Date earliestTime, int timeSpanSec, int maxPassengerCount, int maxNumber) {
 
         List<User> trips = getListTripsClassed(earliestTime, timeSpanSec, maxPassengerCount);
@@ -511,7 +561,7 @@ public class Dao {
 
     public Set<User> getListTripsClassedShuffled(Date earliestTime, int timeSpanSec, int maxPassengerCount, int maxNumber, Random rand) {
 
-        List<User> trips = getUsers(earliestTimeRequestBatch, earliestTime, timeSpanSec, maxPassengerCount);
+        List<User> trips = getListTripsClassed(earliestTime, timeSpanSec, maxPassengerCount);
 
         Collections.shuffle(trips, rand);
 
@@ -519,42 +569,11 @@ public class Dao {
 
     }
 
-    private List<User> getUsers(int earliestTimeRequestBatch, Date earliestTime, int timeSpanSec, int maxPassengerCount) {
-        List<User> trips = new ArrayList<>();
-        if (requestDataMap.containsKey(earliestTime)) {
-            if (requestDataMap.get(earliestTime).containsKey(this.pathRequestList)) {
-                if (requestDataMap.get(earliestTime).get(this.pathRequestList).containsKey(earliestTimeRequestBatch)) {
-                    if (requestDataMap.get(earliestTime).get(this.pathRequestList).get(earliestTimeRequestBatch).containsKey(maxPassengerCount)) {
-                        trips = requestDataMap.get(earliestTime).get(this.pathRequestList).get(earliestTimeRequestBatch).get(maxPassengerCount).stream().map(userStr -> {
-                            Gson u = new Gson();
-                            User n = u.fromJson(userStr, User.class);
-                            return n;
-                        }).collect(Collectors.toList());
-                    }
-                }
-            }
-        } else {
-            trips = getListTripsClassed(earliestTime, timeSpanSec, maxPassengerCount);
-            Map<String, Map<Integer, Map<Integer, List<String>>>> timeSpanPercentage1 = new HashMap<>();
-            Map<Integer, Map<Integer, List<String>>> timeSpanPercentage = new HashMap<>();
-            Map<Integer, List<String>> percentageUsers = new HashMap<>();
-            percentageUsers.put(maxPassengerCount, trips.stream().map(user -> {
-                Gson a = new Gson();
-                String s = a.toJson(user);
-                return s;
-            }).collect(Collectors.toList()));
-            timeSpanPercentage.put(earliestTimeRequestBatch, percentageUsers);
-            timeSpanPercentage1.put(this.pathRequestList, timeSpanPercentage);
-            requestDataMap.put(earliestTime, timeSpanPercentage1);
-        }
-        return trips;
-    }
-
     public Set<User> getListTripsClassedShuffled(Date earliestTime, int timeSpanSec, int maxPassengerCount, double percentage, Random rand) {
 
         List<User> trips = getListTripsClassed(earliestTime, timeSpanSec, maxPassengerCount);
 //
-//        List<User> trips = getUsers(earliestTimeRequestBatch, earliestTime, timeSpanSec, maxPassengerCount);
+//        List<User> trips = getListTripsClassed(earliestTime, timeSpanSec, maxPassengerCount);
 //        trips.forEach(user -> User.mapOfUsers.put(user.getId(), user));
 
         Collections.shuffle(trips, rand);
@@ -627,111 +646,78 @@ public class Dao {
         return listUser;
     }
 
-    /***
-     * Read .csv distance matrix. Assumes KxK acessibility.
-     * @param filePath
-     * @param useSpeed If True, distance data is converted to seconds, otherwise distance data is already in seconds
-     * @return double[][]
-     */
-    private short[][] getDistanceMatrixFrom(String filePath, boolean useSpeed) {
-        distMatrixMeters = new double[numberOfNodes][numberOfNodes];
-        mapReachableNetworkIdsWithinTimeLimit = new HashMap<>();
-
-        short[][] dist_matrix = new short[numberOfNodes][numberOfNodes];
-
-        try {
-            Logging.logger.info("# Reading distance matrix from '{}'...", filePath);
-            Reader in = new FileReader(filePath);
-
-            int row = 0;
+    public static Map<Integer, CSVRecord> recordsFiltered = new HashMap<>();
 
-            Iterable<CSVRecord> records = CSVFormat.DEFAULT.parse(in);
-            for (CSVRecord record : records) {
+    /**
+     * Get list of users, attributing classes A, B, and C to them (according to shares defined in config)
+     *
+     * @param timeSpanSec       Time span of pooling
+     * @param maxPassengerCount Maximum passenger count (<= max. vehicle capacity)
+     * @return
+     */
+    public List<User> getListTripsClassed(Date earliestTime, int timeSpanSec, int maxPassengerCount) {
+        Logging.logger.info("Getting users...");
 
-                mapReachableNetworkIdsWithinTimeLimit.put(row, new HashSet<>());
+        int batchStart = earliestTimeRequestBatch;
+        int latestTimeRequestBatch = earliestTimeRequestBatch + timeSpanSec;
+        assert latestTimeRequestBatch == Simulation.rightTW : String.format("%s - %s", latestTimeRequestBatch, Simulation.rightTW);
 
-                int col = 0;
+        // Batches read before (e.g., in previous episodes) are not read again
+        String batchKey = RequestBatch.key(pathCurrentRequests, earliestTime, batchStart, timeSpanSec, maxPassengerCount);
+        RequestBatch batch = requestBatchCache.get(batchKey);
 
-                for (String r : record) {
-                    if (useSpeed) {
-                        double meters = Double.valueOf(r);
-                        short sec = (short) (3.6 * meters / SPEED + 0.5);
-                        dist_matrix[row][col] = sec;
-                        distMatrixMeters[row][col] = meters;
-                    } else {
-                        dist_matrix[row][col] = (short) (Double.parseDouble(r) * SPEED_FACTOR);
-                        if (dist_matrix[row][col]==0 && row!= col){
-                            dist_matrix[row][col] = 1;
-                            //System.out.printf("%s-%s (%s) %s%n", row, col, r,dist_matrix[row][col] );
-                        }
-                    }
-                    // TODO Reachable within 300s
-                    int maxPickupDelay = 300;
-                    if (dist_matrix[row][col] < maxPickupDelay) { //Config.getInstance().qosDic.get("B").pkDelay
-                        mapReachableNetworkIdsWithinTimeLimit.get(row).add(col);
-                    }
+        List<User> listUser;
+        if (batch != null) {
+            listUser = batch.toUsers(earliestTime);
+            skipRequestBatch(latestTimeRequestBatch, batch.isClosed());
+        } else {
+            listUser = readRequestBatch(earliestTime, batchStart, latestTimeRequestBatch, maxPassengerCount);
+            boolean closed = earliestTimeRequestBatch == latestTimeRequestBatch;
+            requestBatchCache.put(batchKey, RequestBatch.of(listUser, closed));
+        }
 
+        LinkedList<Entry<String, Qos>> qosClasses = new LinkedList<>(Config.getInstance().qosDic.entrySet());
 
-                    col++;
-                }
-                row++;
-            }
-        } catch (java.io.IOException e) {
-            e.printStackTrace();
+        for (User user : listUser) {
+            user.updatePerformanceClass(getRandomClassRoulleteWheel(qosClasses));
         }
-        return dist_matrix;
-    }
+        Logging.logger.info("Read {}", listUser.size());
 
+        return listUser;
+    }
 
-    /***
-     * Read .csv distance matrix. Assumes KxK accessibility.
-     * @param file_path
-     * @return double[][]
+    /**
+     * Move past a batch pulled from the cache. The request log is positioned again at the next batch read, and trip
+     * records before the next batch are skipped.
+     *
+     * @param latestTimeRequestBatch End of the batch (seconds from earliest time)
+     * @param closed                 True, if there are requests after the batch
      */
-    private int[][] getAdjacencyMatrix(String file_path) {
-        int[][] adjacencyMatrix = new int[numberOfNodes][numberOfNodes];
-
-        try {
-            Logging.logger.info("{}", String.format("# Reading adjacency data from \"%s\"...", file_path));
-            Reader in = new FileReader(file_path);
-
-            int row = 0;
-
-            Iterable<CSVRecord> records = CSVFormat.DEFAULT.parse(in);
-            for (CSVRecord record : records) {
-                int col = 0;
-
-                for (String r : record) {
-                    int v = Integer.valueOf(r);
-                    adjacencyMatrix[row][col] = v;
-                    col++;
-                }
-                row++;
-            }
-        } catch (java.io.IOException e) {
-            e.printStackTrace();
+    private void skipRequestBatch(int latestTimeRequestBatch, boolean closed) {
+        if (closed) {
+            earliestTimeRequestBatch = latestTimeRequestBatch;
+        }
+        requestLogRow = -1;
+        if (userBuff != null && userBuff.getReqTime() < latestTimeRequestBatch) {
+            userBuff = null;
         }
-        return adjacencyMatrix;
     }
 
-    public static Map<Integer, CSVRecord> recordsFiltered = new HashMap<>();
-
     /**
-     * Get list of users, attributing classes A, B, and C to them (according to shares defined in config)
+     * Read users of a batch from the trip records (or request log).
      *
-     * @param timeSpanSec       Time span of pooling
-     * @param maxPassengerCount Maximum passenger count (<= max. vehicle capacity)
-     * @return
+     * @param earliestTime           Earliest time of the simulation
+     * @param batchStart             Start of the batch (seconds from earliest time)
+     * @param latestTimeRequestBatch End of the batch (seconds from earliest time)
+     * @param maxPassengerCount      Maximum passenger count (<= max. vehicle capacity)
+     * @return Users in batch (performance class not set)
      */
-    public List<User> getListTripsClassed(Date earliestTime, int timeSpanSec, int maxPassengerCount) {
-        Logging.logger.info("Getting users...");
+    private List<User> readRequestBatch(Date earliestTime, int batchStart, int latestTimeRequestBatch, int maxPassengerCount) {
 
         // Start list of users with buffer from last iteration (users read, but not in time span)
         List<User> listUser = new ArrayList<>();
 
-        int latestTimeRequestBatch = earliestTimeRequestBatch + timeSpanSec;
-        assert latestTimeRequestBatch == Simulation.rightTW : String.format("%s - %s", latestTimeRequestBatch, Simulation.rightTW);
-        if (userBuff != null) {
+        if (userBuff != null && userBuff.getReqTime() >= batchStart) {
             if (userBuff.getReqTime() < latestTimeRequestBatch) {
                 listUser.add(userBuff);
             } else {
@@ -740,11 +726,18 @@ public class Dao {
             }
         }
 
+        if (requestLog != null) {
+            listUser.addAll(getUsersFromRequestLog(earliestTime, batchStart, latestTimeRequestBatch, maxPassengerCount));
+        }
+
+        // Requests before the batch were read in previous batches (or skipped if batch was cached)
+        Date batchStartTime = Config.getInstance().seconds2Date(earliestTime, batchStart);
+
         // Continue reading records
         for (CSVRecord record : records) {
 
             // Filter requests before earliest configured time
-            if (getPickupDateTime(record).before(earliestTime)) {
+            if (getPickupDateTime(record).before(batchStartTime)) {
                 continue;
             }
             // Skip passenger record with high passenger count
@@ -767,13 +760,49 @@ public class Dao {
             listUser.add(user);
         }
 
-        LinkedList<Entry<String, Qos>> qosClasses = new LinkedList<>(Config.getInstance().qosDic.entrySet());
+        return listUser;
+    }
 
-        for (User user : listUser) {
-            user.updatePerformanceClass(getRandomClassRoulleteWheel(qosClasses));
+    /**
+     * Read requests from the request log up to the end of the batch. On the first pull (or after cached batches), the
+     * log is positioned at the start of the batch.
+     *
+     * @param earliestTime           Earliest time of the simulation
+     * @param batchStart             Start of the batch (seconds from earliest time)
+     * @param latestTimeRequestBatch End of the batch (seconds from earliest time)
+     * @param maxPassengerCount      Maximum passenger count (<= max. vehicle capacity)
+     * @return Users in batch
+     */
+    private List<User> getUsersFromRequestLog(Date earliestTime, int batchStart, int latestTimeRequestBatch, int maxPassengerCount) {
+        List<User> listUser = new ArrayList<>();
+
+        long earliestEpochSecond = earliestTime.getTime() / 1000;
+        if (requestLogRow < 0) {
+            requestLogRow = requestLog.seek(earliestEpochSecond + batchStart);
         }
-        Logging.logger.info("Read {}", listUser.size());
 
+        for (; requestLogRow < requestLog.size(); requestLogRow++) {
+
+            int reqTime = (int) (requestLog.getPickupEpochSecond(requestLogRow) - earliestEpochSecond);
+
+            // Stop reading if request is out of time span
+            if (reqTime >= latestTimeRequestBatch) {
+                earliestTimeRequestBatch = latestTimeRequestBatch;
+                break;
+            }
+
+            // Skip passenger record with high passenger count
+            if (requestLog.getPassengerCount(requestLogRow) > maxPassengerCount) {
+                continue;
+            }
+
+            listUser.add(new User(
+                    reqTime,
+                    requestLog.getPassengerCount(requestLogRow),
+                    requestLog.getPickupNodeId(requestLogRow),
+                    requestLog.getDropoffNodeId(requestLogRow),
+                    earliestTime));
+        }
         return listUser;
     }
 
@@ -906,7 +935,7 @@ public class Dao {
      * @return distance in meters
      */
     public double getDist(int from, int to) {
-        return distMatrix[from][to];
+        return distMatrix.get(from, to);
     }
 
     /**
@@ -917,7 +946,7 @@ public class Dao {
      * @return distance in seconds
      */
     public int getDistSecOld(int from, int to) {
-        return (int) (3.6 * distMatrix[from][to] / SPEED);
+        return (int) (3.6 * distMatrix.get(from, to) / SPEED);
     }
 
     public double getLon(int networkId) {
@@ -929,14 +958,19 @@ public class Dao {
     }
 
     /**
-     * Get distance in km
+     * Get distance in km. If the distance matrix is not loaded (see {@link InstanceConfig#isDistancesFileLoaded()}),
+     * the distance is derived from the travel time (i.e., the original duration at SPEED km/h, before applying
+     * SPEED_FACTOR).
      *
      * @param from node id
      * @param to   node id
      * @return distance in km
      */
     public double getDistKm(int from, int to) {
-        return distMatrixMeters[from][to];
+        if (distMatrixMetric != null) {
+            return distMatrixMetric.get(from, to) * METRIC_DISTANCE_RESOLUTION / 1000.0;
+        }
+        return distMatrix.get(from, to) / SPEED_FACTOR * SPEED / 3600;
     }
 
     /**
@@ -969,7 +1003,7 @@ public class Dao {
 
         distMatrixDerivedFromSP[from][to] = (short) distPath;
         return distMatrixDerivedFromSP[from][to];*/
-        return distMatrix[from][to];
+        return distMatrix.get(from, to);
     }
 
     /**
@@ -980,7 +1014,7 @@ public class Dao {
      * @return distance in seconds
      */
     public int getDistSecOld(Node from, Node to) {
-        return (int) (3.6 * distMatrix[from.getNetworkId()][to.getNetworkId()] / SPEED);
+        return (int) (3.6 * distMatrix.get(from.getNetworkId(), to.getNetworkId()) / SPEED);
     }
 
     /**
@@ -1051,24 +1085,18 @@ public class Dao {
     }
 
     public void pullShortestPathInfo(int o, int d) {
-        List<Integer> sp = getShortestPathBetween(o, d);
-        ArrayList<Integer> spArrivals = getSpNodeArrivals(sp);
+        ShortestPath sp = getShortestPath(o, d);
         Logging.logger.info(o + " -> " + d);
-
-        shortestPathDistances.get(o).set(d, spArrivals);
-        shortestPathsNodeIds.get(o).set(d, sp);
-
-        Logging.logger.info((shortestPathsNodeIds.get(o).size()) + "--" + sp);
-        Logging.logger.info((shortestPathDistances.get(o).size()) + "--" + spArrivals);
+        Logging.logger.info(sp.size() + "--" + sp);
     }
 
     public Map<Integer, List<Integer>> closestZones(int maxNumberClosestZones) {
         Map<Integer, List<Pair<Integer, Integer>>> dists = new HashMap<>();
-        for (int z0 = 0; z0 <this.distMatrix.length; z0++) {
+        for (int z0 = 0; z0 <this.distMatrix.size(); z0++) {
             dists.put(z0, new ArrayList<>());
             for (int z1 : ZONE_IDS) {
                 if (z0 != z1) {
-                    int dist = this.distMatrix[z0][z1];
+                    int dist = this.distMatrix.get(z0, z1);
                     dists.get(z0).add(new Pair<>(z1, dist));
                 }
             }
@@ -1099,26 +1127,16 @@ public class Dao {
             return o;
         }
 
-        List<Integer> sp = getShortestPathBetween(o, d);
-        assert sp != null && !sp.isEmpty() : String.format("NULL" + o + " - " + d);
+        ShortestPath sp = getShortestPath(o, d);
+        assert sp != null && sp.size() > 0 : String.format("NULL" + o + " - " + d);
 
-        List<Integer> spArrivals = getSpNodeArrivals(sp);
-//        if (shortestPathDistances.get(o).get(d) == null) {
-//            List<Integer> spArrivals = getSpNodeArrivals(sp);
-//            shortestPathDistances.get(o).set(d, spArrivals);
-//        }
-
-        List<Integer> intermediateArrivalsList = spArrivals;
-        assert !intermediateArrivalsList.isEmpty();
-
-        int insertionPoint = getInsertionPoint(elapsedTime, intermediateArrivalsList);
+        int insertionPoint = sp.getInsertionPoint(elapsedTime);
 
         if (insertionPoint == sp.size()) {
             return d;
         }
-//        System.out.println(intermediateArrivalsList + "--" + insertionPoint + "");
 
-        return sp.get(insertionPoint);
+        return sp.getNodeId(insertionPoint);
     }
 
     public int getInsertionPoint(int elapsedTime, List<Integer> intermediateArrivalsList) {
@@ -1158,10 +1176,33 @@ public class Dao {
         return cumulativeDistancesKm;
     }
 
-    public short[][] getDistMatrix() {
+    /**
+     * Build cumulative distance array from distances between nodes in sequence (see {@link #getSpNodeArrivals(List)}).
+     *
+     * @param sequenceNodeIds
+     * @return cumulative arrivals (seconds)
+     */
+    private int[] getSpNodeArrivals(int[] sequenceNodeIds) {
+        int[] arrivals = new int[sequenceNodeIds.length];
+        for (int i = 1; i < sequenceNodeIds.length; i++) {
+            arrivals[i] = arrivals[i - 1] + getDistSec(sequenceNodeIds[i - 1], sequenceNodeIds[i]);
+        }
+        return arrivals;
+    }
+
+    public DistanceMatrix getDistMatrix() {
         return distMatrix;
     }
 
+    /**
+     * Replace the travel times (seconds) between network nodes, e.g., to route on a synthetic network.
+     *
+     * @param distMatrix Travel times
+     */
+    public void setDistMatrix(DistanceMatrix distMatrix) {
+        this.distMatrix = distMatrix;
+    }
+
     public Map<Integer, NodeNetwork> getNodeNetworkInfo() {
         return nodeNetworkInfo;
     }
@@ -1196,7 +1237,16 @@ public class Dao {
 
     public void setRecords(String filePathTrainingData) {
         try {
-            records = CSVParser.parse(new FileReader(filePathTrainingData), CSVFormat.RFC4180.withFirstRecordAsHeader());
+            requestLogRow = -1;
+            pathCurrentRequests = filePathTrainingData;
+            if (RequestLog.isBinary(filePathTrainingData)) {
+                requestLog = RequestLog.map(filePathTrainingData);
+                records = Collections.emptyList();
+            } else {
+                Logging.logger.info("# Reading all records from '{}'...", filePathTrainingData);
+                requestLog = null;
+                records = CSVParser.parse(new FileReader(filePathTrainingData), CSVFormat.RFC4180.withFirstRecordAsHeader());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
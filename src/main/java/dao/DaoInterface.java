@@ -7,4 +7,22 @@ public interface DaoInterface {
 
     List<Integer> getShortestPathBetween(int o, int d);
 
+    /**
+     * Shortest path as primitive array (implementations searching primitive graphs should override).
+     *
+     * @param o Origin node id
+     * @param d Destination node id
+     * @return Node ids from o to d (both included), or null if d cannot be reached
+     */
+    default int[] getPathNodeIds(int o, int d) {
+        List<Integer> path = getShortestPathBetween(o, d);
+        if (path == null) {
+            return null;
+        }
+        int[] nodeIds = new int[path.size()];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = path.get(i);
+        }
+        return nodeIds;
+    }
 }
@@ -0,0 +1,333 @@
+package dao;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Square travel time matrix (seconds) between network nodes.
+ * <p>
+ * The matrix is either held on the heap (when read from the original .csv file) or memory-mapped read-only from a
+ * precompiled binary file. The binary file is created once with {@link #convert(String, String, double)} and can be
+ * shared by every JVM running on the same machine (pages are shared through the OS page cache).
+ * <p>
+ * Binary layout (little-endian):
+ * <pre>
+ * int   magic   ("SLDM")
+ * int   version
+ * int   n       (number of nodes)
+ * int   reserved
+ * short[n * n] row-major travel times in seconds
+ * </pre>
+ */
+public class DistanceMatrix {
+
+    public static final int MAGIC = 0x534C444D;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+
+    // A single mapped region cannot exceed Integer.MAX_VALUE bytes, hence rows are mapped in blocks
+    private static final long MAX_BLOCK_BYTES = 1L << 30;
+
+    private final int n;
+    private final short[][] rows;
+    private final ShortBuffer[] blocks;
+    private final int rowsPerBlock;
+    // Row/column of each node id when nodes are stored out of id order (null = id order)
+    private final int[] rank;
+
+    public DistanceMatrix(short[][] rows) {
+        this(rows, null);
+    }
+
+    private DistanceMatrix(short[][] rows, int[] rank) {
+        this.n = rows.length;
+        this.rows = rows;
+        this.blocks = null;
+        this.rowsPerBlock = 0;
+        this.rank = rank;
+    }
+
+    private DistanceMatrix(int n, ShortBuffer[] blocks, int rowsPerBlock) {
+        this.n = n;
+        this.rows = null;
+        this.blocks = blocks;
+        this.rowsPerBlock = rowsPerBlock;
+        this.rank = null;
+    }
+
+    /**
+     * Travel time between two nodes.
+     *
+     * @param from node id
+     * @param to   node id
+     * @return travel time in seconds
+     */
+    public int get(int from, int to) {
+        if (rank != null) {
+            from = rank[from];
+            to = rank[to];
+        }
+        if (rows != null) {
+            return rows[from][to];
+        }
+        return blocks[from / rowsPerBlock].get((from % rowsPerBlock) * n + to);
+    }
+
+    /**
+     * @return Number of nodes (rows) in the matrix
+     */
+    public int size() {
+        return n;
+    }
+
+    public boolean isMapped() {
+        return blocks != null;
+    }
+
+    /**
+     * Copy matrix to the heap storing rows and columns in the given node order (e.g., along a space-filling curve, see
+     * {@link NodeOrdering}). Node ids are translated on access, hence callers are not affected.
+     *
+     * @param order order[position] = node id
+     * @return Heap-backed matrix with the same travel times
+     */
+    public DistanceMatrix reorder(int[] order) {
+        int[] newRank = NodeOrdering.getRank(order);
+        short[][] newRows = new short[n][n];
+        IntStream.range(0, n).parallel().forEach(p -> {
+            for (int q = 0; q < n; q++) {
+                newRows[p][q] = (short) get(order[p], order[q]);
+            }
+        });
+        return new DistanceMatrix(newRows, newRank);
+    }
+
+    /**
+     * Check whether file starts with the binary matrix header.
+     *
+     * @param filePath Path of matrix file (.csv or binary)
+     * @return True, if file is a precompiled binary matrix
+     */
+    public static boolean isBinary(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return Integer.reverseBytes(in.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Memory-map a precompiled binary matrix (read-only).
+     *
+     * @param filePath Binary matrix created with {@link #convert(String, String, double)}
+     * @return Matrix backed by the mapped file
+     * @throws IOException If file cannot be mapped or header is invalid
+     */
+    public static DistanceMatrix map(String filePath) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+
+            int magic = header.getInt();
+            int version = header.getInt();
+            int n = header.getInt();
+
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException(String.format("Invalid binary matrix header in '%s' (magic=%x, version=%d)",
+                        filePath, magic, version));
+            }
+
+            long expectedBytes = HEADER_BYTES + 2L * n * n;
+            if (channel.size() < expectedBytes) {
+                throw new IOException(String.format("Binary matrix '%s' is truncated (%d < %d bytes)",
+                        filePath, channel.size(), expectedBytes));
+            }
+
+            int rowsPerBlock = rowsPerBlock(n);
+            ShortBuffer[] blocks = mapBlocks(channel, n, rowsPerBlock);
+
+            Logging.logger.info("# Mapped {}x{} distance matrix from '{}' ({} block(s)).", n, n, filePath, blocks.length);
+            return new DistanceMatrix(n, blocks, rowsPerBlock);
+        }
+    }
+
+    /**
+     * Read matrix from file. Binary files are memory-mapped, .csv files are parsed into the heap.
+     *
+     * @param filePath    Binary or .csv matrix
+     * @param speedFactor Factor applied to .csv entries (see {@link #toSeconds(double, double, int, int)})
+     * @return Travel time matrix
+     * @throws IOException If file cannot be read
+     */
+    public static DistanceMatrix load(String filePath, double speedFactor) throws IOException {
+        if (isBinary(filePath)) {
+            return map(filePath);
+        }
+        return new DistanceMatrix(readCsv(filePath, speedFactor));
+    }
+
+    /***
+     * Read .csv duration matrix. Assumes KxK accessibility.
+     * @param filePath    Path of .csv matrix
+     * @param speedFactor Factor applied to each entry
+     * @return short[][] travel times in seconds
+     */
+    public static short[][] readCsv(String filePath, double speedFactor) throws IOException {
+
+        Logging.logger.info("# Reading distance matrix from '{}'...", filePath);
+
+        List<short[]> rows = new ArrayList<>();
+        try (Reader in = new FileReader(filePath)) {
+            int row = 0;
+            for (CSVRecord record : CSVFormat.DEFAULT.parse(in)) {
+                short[] values = new short[record.size()];
+                for (int col = 0; col < values.length; col++) {
+                    values[col] = toSeconds(Double.parseDouble(record.get(col)), speedFactor, row, col);
+                }
+                rows.add(values);
+                row++;
+            }
+        }
+        return rows.toArray(new short[0][]);
+    }
+
+    static int rowsPerBlock(int n) {
+        return (int) Math.max(1, Math.min(n, MAX_BLOCK_BYTES / (2L * n)));
+    }
+
+    /**
+     * Map n rows of n shorts (following a header) in blocks of at most {@link #MAX_BLOCK_BYTES}.
+     */
+    static ShortBuffer[] mapBlocks(FileChannel channel, int n, int rowsPerBlock) throws IOException {
+        long rowBytes = 2L * n;
+        int nBlocks = (n + rowsPerBlock - 1) / rowsPerBlock;
+        ShortBuffer[] blocks = new ShortBuffer[nBlocks];
+
+        for (int b = 0; b < nBlocks; b++) {
+            int firstRow = b * rowsPerBlock;
+            int nRows = Math.min(rowsPerBlock, n - firstRow);
+            blocks[b] = channel
+                    .map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstRow * rowBytes, nRows * rowBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asShortBuffer();
+        }
+        return blocks;
+    }
+
+    /**
+     * Convert .csv duration entry into travel time in seconds. Distinct nodes never have zero travel time.
+     *
+     * @param value       Raw value read from file
+     * @param speedFactor Factor applied to raw value
+     * @param row         Origin node id
+     * @param col         Destination node id
+     * @return Travel time in seconds
+     */
+    public static short toSeconds(double value, double speedFactor, int row, int col) {
+        short sec = (short) (value * speedFactor);
+        if (sec == 0 && row != col) {
+            return 1;
+        }
+        return sec;
+    }
+
+    /**
+     * One-time conversion of a .csv duration matrix into the binary format read by {@link #map(String)}.
+     * Rows are streamed to disk, so the full matrix is never held in memory.
+     *
+     * @param csvPath     Source .csv matrix (one row per origin node)
+     * @param binaryPath  Target binary file
+     * @param speedFactor Factor applied to each entry (see {@link Dao#SPEED_FACTOR})
+     * @throws IOException If source cannot be read or target cannot be written
+     */
+    public static void convert(String csvPath, String binaryPath, double speedFactor) throws IOException {
+
+        Logging.logger.info("# Converting distance matrix '{}' into '{}'...", csvPath, binaryPath);
+        Path target = Paths.get(binaryPath);
+
+        try (Reader in = new FileReader(csvPath);
+             FileChannel channel = FileChannel.open(target,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            int n = -1;
+            int row = 0;
+            ByteBuffer rowBuffer = null;
+
+            for (CSVRecord record : CSVFormat.DEFAULT.parse(in)) {
+
+                if (n < 0) {
+                    n = record.size();
+                    rowBuffer = ByteBuffer.allocate(2 * n).order(ByteOrder.LITTLE_ENDIAN);
+                    channel.write(header(n));
+                }
+
+                if (record.size() != n) {
+                    throw new IOException(String.format("Row %d has %d columns (expected %d)", row, record.size(), n));
+                }
+
+                rowBuffer.clear();
+                for (int col = 0; col < n; col++) {
+                    rowBuffer.putShort(toSeconds(Double.parseDouble(record.get(col)), speedFactor, row, col));
+                }
+                rowBuffer.flip();
+                while (rowBuffer.hasRemaining()) {
+                    channel.write(rowBuffer);
+                }
+                row++;
+            }
+
+            if (row != n) {
+                throw new IOException(String.format("Matrix is not square (%d rows, %d columns)", row, n));
+            }
+
+            Logging.logger.info("# {}x{} matrix written to '{}'.", n, n, binaryPath);
+        }
+    }
+
+    private static ByteBuffer header(int n) {
+        return header(MAGIC, n);
+    }
+
+    static ByteBuffer header(int magic, int n) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(magic);
+        header.putInt(VERSION);
+        header.putInt(n);
+        header.putInt(0);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Usage: DistanceMatrix &lt;durations.csv&gt; &lt;durations.bin&gt; [speed_factor]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            Logging.logger.info("Usage: DistanceMatrix <durations.csv> <durations.bin> [speed_factor]");
+            return;
+        }
+        double speedFactor = args.length > 2 ? Double.parseDouble(args[2]) : Dao.SPEED_FACTOR;
+        convert(args[0], args[1], speedFactor);
+    }
+}
@@ -2,10 +2,16 @@ package dao;
 
 import com.google.gson.Gson;
 import config.ConfigInstance;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class FileUtil {
 
@@ -55,4 +61,122 @@ public class FileUtil {
             e.printStackTrace();
         }
     }
+
+    /***
+     * Read adjacency data as successor lists (memory proportional to the number of edges). Two layouts are accepted:
+     * <ul>
+     *     <li>Edge list: one "origin,destination" pair per line (optional header);</li>
+     *     <li>Adjacency matrix: KxK values, non-zero entries are edges.</li>
+     * </ul>
+     * Files whose first line has two columns are read as edge lists.
+     * @param filePath Path of .csv adjacency file
+     * @return int[][] successors[i] = ids of nodes reached from node i through an edge
+     */
+    public static int[][] readAdjacencyLists(String filePath) {
+
+        int[][] successors = new int[0][];
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath))) {
+            Logging.logger.info("{}", String.format("# Reading adjacency data from \"%s\"...", filePath));
+
+            String line = reader.readLine();
+            if (line == null) {
+                return successors;
+            }
+
+            if (line.split(",").length == 2) {
+                successors = readEdgeList(line, reader);
+            } else {
+                successors = readDenseAdjacency(line, reader);
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return successors;
+    }
+
+    private static int[][] readEdgeList(String firstLine, BufferedReader reader) throws IOException {
+        int[] origins = new int[1024];
+        int[] destinations = new int[1024];
+        int nEdges = 0;
+        int nNodes = 0;
+
+        // Header is skipped
+        String line = Character.isDigit(firstLine.trim().charAt(0)) ? firstLine : reader.readLine();
+        for (; line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int comma = line.indexOf(',');
+            int o = Integer.parseInt(line.substring(0, comma).trim());
+            int d = Integer.parseInt(line.substring(comma + 1).trim());
+            if (nEdges == origins.length) {
+                origins = Arrays.copyOf(origins, 2 * nEdges);
+                destinations = Arrays.copyOf(destinations, 2 * nEdges);
+            }
+            origins[nEdges] = o;
+            destinations[nEdges] = d;
+            nEdges++;
+            nNodes = Math.max(nNodes, Math.max(o, d) + 1);
+        }
+
+        int[] degree = new int[nNodes];
+        for (int e = 0; e < nEdges; e++) {
+            degree[origins[e]]++;
+        }
+        int[][] successors = new int[nNodes][];
+        for (int i = 0; i < nNodes; i++) {
+            successors[i] = new int[degree[i]];
+            degree[i] = 0;
+        }
+        for (int e = 0; e < nEdges; e++) {
+            successors[origins[e]][degree[origins[e]]++] = destinations[e];
+        }
+        for (int[] s : successors) {
+            Arrays.sort(s);
+        }
+        return successors;
+    }
+
+    private static int[][] readDenseAdjacency(String firstLine, BufferedReader reader) throws IOException {
+        List<int[]> successors = new ArrayList<>();
+        int[] buffer = new int[0];
+        for (String line = firstLine; line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] values = line.split(",");
+            if (buffer.length < values.length) {
+                buffer = new int[values.length];
+            }
+            int degree = 0;
+            for (int col = 0; col < values.length; col++) {
+                if (Integer.parseInt(values[col].trim()) != 0) {
+                    buffer[degree++] = col;
+                }
+            }
+            successors.add(Arrays.copyOf(buffer, degree));
+        }
+        return successors.toArray(new int[0][]);
+    }
+
+    /***
+     * Save successor lists as an edge list file (see {@link #readAdjacencyLists(String)}).
+     * @param successors successors[i] = ids of nodes reached from node i
+     * @param filePath   Target .csv file
+     * @throws IOException If file cannot be written
+     */
+    public static void writeEdgeList(int[][] successors, String filePath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            writer.write("o,d");
+            writer.newLine();
+            for (int o = 0; o < successors.length; o++) {
+                for (int d : successors[o]) {
+                    writer.write(o + "," + d);
+                    writer.newLine();
+                }
+            }
+        }
+    }
 }
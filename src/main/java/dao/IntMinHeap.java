@@ -0,0 +1,116 @@
+package dao;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of node ids (0..capacity-1) prioritized by int keys. Supports decrease-key and is meant to
+ * be reused across searches (one instance per thread), so no objects are allocated per query.
+ */
+class IntMinHeap {
+
+    private final int[] heap;     // heap position -> node id
+    private final int[] position; // node id -> heap position (-1 if not in heap)
+    private final int[] key;      // node id -> priority
+    private int size;
+
+    IntMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.key = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    int getKey(int node) {
+        return key[node];
+    }
+
+    /**
+     * Insert node or decrease its key (keys are never increased).
+     */
+    void insertOrDecrease(int node, int priority) {
+        int pos = position[node];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = node;
+            position[node] = pos;
+            key[node] = priority;
+            siftUp(pos);
+        } else if (priority < key[node]) {
+            key[node] = priority;
+            siftUp(pos);
+        }
+    }
+
+    /**
+     * @return Node with smallest key (removed from heap)
+     */
+    int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Remove all nodes still in the heap (cost proportional to heap size, not capacity).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int node = heap[pos];
+        int k = key[node];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (key[parentNode] <= k) {
+                break;
+            }
+            heap[pos] = parentNode;
+            position[parentNode] = pos;
+            pos = parent;
+        }
+        heap[pos] = node;
+        position[node] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int node = heap[pos];
+        int k = key[node];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[heap[child]]) {
+                child = right;
+            }
+            int childNode = heap[child];
+            if (k <= key[childNode]) {
+                break;
+            }
+            heap[pos] = childNode;
+            position[childNode] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        position[node] = pos;
+    }
+}
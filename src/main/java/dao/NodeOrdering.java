@@ -0,0 +1,121 @@
+package dao;
+
+import model.node.NodeNetwork;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Order network nodes along a space-filling curve (Hilbert or Z-order) over their coordinates, such that nodes close
+ * in space are also close in the order. Used to lay out the travel time matrix (see
+ * {@link DistanceMatrix#reorder(int[])}) so lookups between nearby nodes hit nearby memory.
+ */
+public class NodeOrdering {
+
+    public static final String HILBERT = "hilbert";
+    public static final String Z_ORDER = "z_order";
+
+    // Coordinates are quantized into a 2^BITS x 2^BITS grid
+    private static final int BITS = 16;
+
+    /**
+     * @param nodes Node coordinates by network id
+     * @param n     Number of nodes (ids 0..n-1). Ids without coordinates are placed at the end.
+     * @param curve {@link #HILBERT} or {@link #Z_ORDER}
+     * @return order[position] = network id
+     */
+    public static int[] getOrder(Map<Integer, NodeNetwork> nodes, int n, String curve) {
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (NodeNetwork node : nodes.values()) {
+            Point2D p = node.getPoint();
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+
+        int cells = (1 << BITS) - 1;
+        double scaleX = maxX > minX ? cells / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? cells / (maxY - minY) : 0;
+
+        long[] keys = new long[n];
+        for (int id = 0; id < n; id++) {
+            NodeNetwork node = nodes.get(id);
+            if (node == null) {
+                keys[id] = Long.MAX_VALUE;
+                continue;
+            }
+            int x = (int) Math.round((node.getPoint().getX() - minX) * scaleX);
+            int y = (int) Math.round((node.getPoint().getY() - minY) * scaleY);
+            if (HILBERT.equals(curve)) {
+                keys[id] = hilbertIndex(x, y);
+            } else if (Z_ORDER.equals(curve)) {
+                keys[id] = zOrderIndex(x, y);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown node ordering '%s'", curve));
+            }
+        }
+
+        return IntStream.range(0, n)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(id -> keys[id]).thenComparingInt(id -> id))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * @param order order[position] = network id
+     * @return rank[network id] = position
+     */
+    public static int[] getRank(int[] order) {
+        int[] rank = new int[order.length];
+        Arrays.fill(rank, -1);
+        for (int position = 0; position < order.length; position++) {
+            if (rank[order[position]] >= 0) {
+                throw new IllegalArgumentException(String.format("Node %d appears twice in order", order[position]));
+            }
+            rank[order[position]] = position;
+        }
+        return rank;
+    }
+
+    /**
+     * Distance of cell (x, y) along the Hilbert curve filling the 2^BITS x 2^BITS grid.
+     */
+    static long hilbertIndex(int x, int y) {
+        long d = 0;
+        for (int s = 1 << (BITS - 1); s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = (1 << BITS) - 1 - x;
+                    y = (1 << BITS) - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Interleave the bits of x and y (Morton code).
+     */
+    static long zOrderIndex(int x, int y) {
+        long d = 0;
+        for (int bit = 0; bit < BITS; bit++) {
+            d |= ((long) (x >> bit) & 1) << (2 * bit);
+            d |= ((long) (y >> bit) & 1) << (2 * bit + 1);
+        }
+        return d;
+    }
+}
@@ -0,0 +1,160 @@
+package dao;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Nodes reachable from (forward) and reaching (reverse) each node within a time horizon, sorted by travel time.
+ * <p>
+ * "All nodes within t seconds of x" is the prefix of x's sorted array found with a binary search, hence any t up to
+ * the horizon is answered without scanning the travel time matrix. Node ids and travel times are stored in primitive
+ * arrays (6 bytes per entry). Queries beyond the horizon fall back to scanning the travel time matrix.
+ */
+public class ReachabilityIndex {
+
+    private final DistanceMatrix distMatrix;
+    private final int maxSeconds;
+    // Node ids sorted by travel time from node i (forward) and to node i (reverse)
+    private final int[][] forwardIds;
+    private final short[][] forwardTimes;
+    private final int[][] reverseIds;
+    private final short[][] reverseTimes;
+
+    private ReachabilityIndex(DistanceMatrix distMatrix, int maxSeconds) {
+        int n = distMatrix.size();
+        this.distMatrix = distMatrix;
+        this.maxSeconds = maxSeconds;
+        this.forwardIds = new int[n][];
+        this.forwardTimes = new short[n][];
+        this.reverseIds = new int[n][];
+        this.reverseTimes = new short[n][];
+    }
+
+    /**
+     * Sort the neighbors of every node (in parallel).
+     *
+     * @param distMatrix Travel time matrix (seconds)
+     * @param maxSeconds Horizon (seconds) of the index
+     * @return Index of all pairs whose travel time is at most maxSeconds
+     */
+    public static ReachabilityIndex build(DistanceMatrix distMatrix, int maxSeconds) {
+        ReachabilityIndex index = new ReachabilityIndex(distMatrix, maxSeconds);
+        int n = distMatrix.size();
+        ThreadLocal<long[]> buffers = ThreadLocal.withInitial(() -> new long[n]);
+
+        IntStream.range(0, n).parallel().forEach(node -> {
+            long[] buffer = buffers.get();
+
+            int size = index.sortWithin(node, maxSeconds, true, buffer);
+            index.forwardIds[node] = ids(buffer, size);
+            index.forwardTimes[node] = times(buffer, size);
+
+            size = index.sortWithin(node, maxSeconds, false, buffer);
+            index.reverseIds[node] = ids(buffer, size);
+            index.reverseTimes[node] = times(buffer, size);
+        });
+
+        long entries = Arrays.stream(index.forwardIds).mapToLong(ids -> ids.length).sum()
+                + Arrays.stream(index.reverseIds).mapToLong(ids -> ids.length).sum();
+        Logging.logger.info("# Reachability index (<= {}s): {} entries ({} MB).",
+                maxSeconds, entries, entries * (Integer.BYTES + Short.BYTES) / (1024 * 1024));
+        return index;
+    }
+
+    /**
+     * Fill buffer with (travel time, node id) keys of all nodes within the time limit and sort them.
+     *
+     * @return Number of keys in buffer
+     */
+    private int sortWithin(int node, int seconds, boolean forward, long[] buffer) {
+        int size = 0;
+        for (int other = 0; other < distMatrix.size(); other++) {
+            int time = forward ? distMatrix.get(node, other) : distMatrix.get(other, node);
+            if (time <= seconds) {
+                buffer[size++] = ((long) time << 32) | other;
+            }
+        }
+        Arrays.sort(buffer, 0, size);
+        return size;
+    }
+
+    private static int[] ids(long[] keys, int size) {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return ids;
+    }
+
+    private static short[] times(long[] keys, int size) {
+        short[] times = new short[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = (short) (keys[i] >>> 32);
+        }
+        return times;
+    }
+
+    /**
+     * @return Number of leading entries whose travel time is at most seconds
+     */
+    private static int upperBound(short[] times, int seconds) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= seconds) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] within(int node, int seconds, boolean forward) {
+        if (seconds > maxSeconds) {
+            long[] buffer = new long[distMatrix.size()];
+            return ids(buffer, sortWithin(node, seconds, forward, buffer));
+        }
+        int[] ids = forward ? forwardIds[node] : reverseIds[node];
+        short[] times = forward ? forwardTimes[node] : reverseTimes[node];
+        return Arrays.copyOf(ids, upperBound(times, seconds));
+    }
+
+    private int countWithin(int node, int seconds, boolean forward) {
+        if (seconds > maxSeconds) {
+            return within(node, seconds, forward).length;
+        }
+        return upperBound(forward ? forwardTimes[node] : reverseTimes[node], seconds);
+    }
+
+    /**
+     * @param node    Origin node id
+     * @param seconds Time limit
+     * @return Ids of nodes d such that travel time (node, d) is at most seconds, sorted by travel time (node included)
+     */
+    public int[] getReachableWithin(int node, int seconds) {
+        return within(node, seconds, true);
+    }
+
+    /**
+     * @param node    Destination node id
+     * @param seconds Time limit
+     * @return Ids of nodes o such that travel time (o, node) is at most seconds, sorted by travel time (node included)
+     */
+    public int[] getReachingWithin(int node, int seconds) {
+        return within(node, seconds, false);
+    }
+
+    public int countReachableWithin(int node, int seconds) {
+        return countWithin(node, seconds, true);
+    }
+
+    public int countReachingWithin(int node, int seconds) {
+        return countWithin(node, seconds, false);
+    }
+
+    public int getMaxSeconds() {
+        return maxSeconds;
+    }
+}
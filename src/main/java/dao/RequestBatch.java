@@ -0,0 +1,82 @@
+package dao;
+
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable request data of a batch (request times, passenger counts, pickup and dropoff network ids) kept in
+ * primitive arrays. Batches are cached by {@link Dao} and shared by all episodes and configurations reading the same
+ * requests; {@link User} objects are only created when a batch is pulled.
+ */
+public class RequestBatch {
+
+    private final int[] reqTime;
+    private final byte[] numPassengers;
+    private final int[] originId;
+    private final int[] destinationId;
+    // True, if reading stopped at a request after the batch (i.e., there are more requests to read)
+    private final boolean closed;
+
+    private RequestBatch(int size, boolean closed) {
+        this.reqTime = new int[size];
+        this.numPassengers = new byte[size];
+        this.originId = new int[size];
+        this.destinationId = new int[size];
+        this.closed = closed;
+    }
+
+    /**
+     * @param users  Users read in batch (request order is kept)
+     * @param closed True, if reading stopped at a request after the batch
+     * @return Batch with the request data of the users
+     */
+    public static RequestBatch of(List<User> users, boolean closed) {
+        RequestBatch batch = new RequestBatch(users.size(), closed);
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            batch.reqTime[i] = user.getReqTime();
+            batch.numPassengers[i] = (byte) user.getNumPassengers();
+            batch.originId[i] = user.getOriginId();
+            batch.destinationId[i] = user.getDestinationId();
+        }
+        return batch;
+    }
+
+    /**
+     * @param requestsPath Trip file
+     * @param earliestTime Earliest time of the simulation
+     * @param batchStart   Start of the batch (seconds from earliest time)
+     * @param timeSpanSec  Duration of the batch
+     * @param maxPassengerCount Maximum passenger count
+     * @return Cache key of the batch
+     */
+    public static String key(String requestsPath, Date earliestTime, int batchStart, int timeSpanSec, int maxPassengerCount) {
+        return String.format("%s|%d|%d|%d|%d",
+                requestsPath, earliestTime.getTime(), batchStart, timeSpanSec, maxPassengerCount);
+    }
+
+    /**
+     * Create new users (with new ids) for the requests in the batch.
+     *
+     * @param earliestTime Earliest time of the simulation
+     * @return Users in request order
+     */
+    public List<User> toUsers(Date earliestTime) {
+        List<User> users = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            users.add(new User(reqTime[i], numPassengers[i], originId[i], destinationId[i], earliestTime));
+        }
+        return users;
+    }
+
+    public int size() {
+        return reqTime.length;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
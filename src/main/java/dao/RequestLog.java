@@ -0,0 +1,274 @@
+package dao;
+
+import config.Config;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Trip requests stored column by column (pickup time, pickup and dropoff network ids, passenger count) sorted by
+ * pickup time, with an index of the first request in each time step. A simulation seeks directly to its earliest time
+ * and reads batches without parsing strings.
+ * <p>
+ * The log is created once from the trip .csv file with {@link #convert(String, String, int)} and memory-mapped
+ * read-only. Binary layout (little-endian):
+ * <pre>
+ * int   magic        ("SLRL")
+ * int   version
+ * int   n            (number of requests)
+ * int   index step   (seconds)
+ * long  first pickup (epoch seconds)
+ * int   index size   (k)
+ * int   reserved
+ * int[k] index       (first request whose pickup is at least first pickup + i * index step)
+ * int[n] pickup      (seconds after first pickup)
+ * int[n] pickup node id
+ * int[n] dropoff node id
+ * byte[n] passenger count
+ * </pre>
+ * Pickup times are converted with the default time zone (the same used to parse the simulation's earliest time).
+ */
+public class RequestLog {
+
+    public static final int MAGIC = 0x534C524C;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    public static final int DEFAULT_INDEX_STEP = 60;
+
+    private final int n;
+    private final int indexStep;
+    private final long firstPickup;
+    private final IntBuffer index;
+    private final IntBuffer pickup;
+    private final IntBuffer pickupNodeId;
+    private final IntBuffer dropoffNodeId;
+    private final ByteBuffer passengerCount;
+
+    private RequestLog(MappedByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int magic = buffer.getInt(0);
+        int version = buffer.getInt(4);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException(String.format("Invalid request log header (magic=%x, version=%d)", magic, version));
+        }
+        this.n = buffer.getInt(8);
+        this.indexStep = buffer.getInt(12);
+        this.firstPickup = buffer.getLong(16);
+        int indexSize = buffer.getInt(24);
+
+        long expectedBytes = HEADER_BYTES + 4L * indexSize + 13L * n;
+        if (buffer.capacity() < expectedBytes) {
+            throw new IOException(String.format("Request log is truncated (%d < %d bytes)", buffer.capacity(), expectedBytes));
+        }
+
+        int offset = HEADER_BYTES;
+        this.index = column(buffer, offset, indexSize);
+        offset += 4 * indexSize;
+        this.pickup = column(buffer, offset, n);
+        offset += 4 * n;
+        this.pickupNodeId = column(buffer, offset, n);
+        offset += 4 * n;
+        this.dropoffNodeId = column(buffer, offset, n);
+        offset += 4 * n;
+        this.passengerCount = buffer.duplicate().position(offset).limit(offset + n).slice();
+    }
+
+    private static IntBuffer column(ByteBuffer buffer, int offset, int size) {
+        return buffer.duplicate()
+                .position(offset)
+                .limit(offset + 4 * size)
+                .slice()
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    /**
+     * @return Number of requests
+     */
+    public int size() {
+        return n;
+    }
+
+    public long getPickupEpochSecond(int row) {
+        return firstPickup + pickup.get(row);
+    }
+
+    public int getPickupNodeId(int row) {
+        return pickupNodeId.get(row);
+    }
+
+    public int getDropoffNodeId(int row) {
+        return dropoffNodeId.get(row);
+    }
+
+    public int getPassengerCount(int row) {
+        return passengerCount.get(row);
+    }
+
+    /**
+     * @param epochSecond Time (epoch seconds)
+     * @return First row whose pickup time is at least epochSecond (size() if there is none)
+     */
+    public int seek(long epochSecond) {
+        if (epochSecond <= firstPickup) {
+            return 0;
+        }
+        long step = (epochSecond - firstPickup) / indexStep;
+        if (step >= index.capacity()) {
+            return n;
+        }
+        int row = index.get((int) step);
+        while (row < n && getPickupEpochSecond(row) < epochSecond) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Check whether file starts with the request log header.
+     *
+     * @param filePath Path of trip file (.csv or binary)
+     * @return True, if file is a request log
+     */
+    public static boolean isBinary(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return Integer.reverseBytes(in.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Memory-map a request log created with {@link #convert(String, String, int)} (read-only).
+     *
+     * @param filePath Request log
+     * @return Log backed by the mapped file
+     * @throws IOException If file cannot be mapped or header is invalid
+     */
+    public static RequestLog map(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            RequestLog log = new RequestLog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            Logging.logger.info("# Mapped {} requests from '{}'.", log.size(), filePath);
+            return log;
+        }
+    }
+
+    /**
+     * One-time conversion of a trip .csv file (columns pickup_datetime, passenger_count, pickup_node_id, and
+     * dropoff_node_id) into a request log. Requests are sorted by pickup time (ties keep file order).
+     *
+     * @param csvPath    Source trip file
+     * @param binaryPath Target request log
+     * @param indexStep  Time step (seconds) of the index
+     * @throws IOException If source cannot be read or target cannot be written
+     */
+    public static void convert(String csvPath, String binaryPath, int indexStep) throws IOException {
+
+        Logging.logger.info("# Converting requests '{}' into '{}'...", csvPath, binaryPath);
+
+        // Private copy (shared formatter is not thread-safe)
+        DateFormat formatter = (DateFormat) Config.formatter_date_time.clone();
+
+        long[] pickups = new long[1024];
+        int[] origins = new int[1024];
+        int[] destinations = new int[1024];
+        byte[] passengers = new byte[1024];
+        int size = 0;
+
+        try (Reader in = new FileReader(csvPath)) {
+            for (CSVRecord record : CSVFormat.RFC4180.withFirstRecordAsHeader().parse(in)) {
+                if (size == pickups.length) {
+                    pickups = Arrays.copyOf(pickups, 2 * size);
+                    origins = Arrays.copyOf(origins, 2 * size);
+                    destinations = Arrays.copyOf(destinations, 2 * size);
+                    passengers = Arrays.copyOf(passengers, 2 * size);
+                }
+                try {
+                    pickups[size] = formatter.parse(record.get(Dao.PICKUP_DATETIME)).getTime() / 1000;
+                } catch (ParseException e) {
+                    throw new IOException(String.format("Invalid pickup time in line %d", record.getRecordNumber()), e);
+                }
+                origins[size] = Integer.parseInt(record.get(Dao.PICKUP_NODE_ID));
+                destinations[size] = Integer.parseInt(record.get(Dao.DROPOFF_NODE_ID));
+                passengers[size] = (byte) Integer.parseInt(record.get(Dao.PASSENGER_COUNT));
+                size++;
+            }
+        }
+
+        long[] times = pickups;
+        int[] order = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparingLong(row -> times[row]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        long firstPickup = size > 0 ? pickups[order[0]] : 0;
+        long lastPickup = size > 0 ? pickups[order[size - 1]] : 0;
+        int indexSize = (int) ((lastPickup - firstPickup) / indexStep) + 1;
+
+        ByteBuffer buffer = ByteBuffer
+                .allocate(HEADER_BYTES + 4 * indexSize + 13 * size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(indexStep);
+        buffer.putLong(firstPickup).putInt(indexSize).putInt(0);
+
+        for (int step = 0, row = 0; step < indexSize; step++) {
+            while (row < size && pickups[order[row]] < firstPickup + (long) step * indexStep) {
+                row++;
+            }
+            buffer.putInt(row);
+        }
+        for (int row : order) {
+            buffer.putInt((int) (pickups[row] - firstPickup));
+        }
+        for (int row : order) {
+            buffer.putInt(origins[row]);
+        }
+        for (int row : order) {
+            buffer.putInt(destinations[row]);
+        }
+        for (int row : order) {
+            buffer.put(passengers[row]);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(binaryPath),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Logging.logger.info("# {} requests written to '{}'.", size, binaryPath);
+    }
+
+    /**
+     * Usage: RequestLog &lt;trips.csv&gt; &lt;trips.bin&gt; [index step (s)]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            Logging.logger.info("Usage: RequestLog <trips.csv> <trips.bin> [index step (s)]");
+            return;
+        }
+        int indexStep = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_INDEX_STEP;
+        convert(args[0], args[1], indexStep);
+    }
+}
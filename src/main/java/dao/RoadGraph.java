@@ -0,0 +1,231 @@
+package dao;
+
+import com.google.common.primitives.Ints;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Directed road graph in compressed sparse row (CSR) form with int node ids and int edge weights (seconds).
+ * <p>
+ * Shortest paths are searched with Dijkstra or A* (heuristic = travel time matrix) using a primitive binary heap.
+ * Search buffers are kept per thread and reset lazily (generation stamps), hence a query allocates only the
+ * resulting path.
+ */
+public class RoadGraph implements DaoInterface {
+
+    final int n;
+    // Edges leaving node i are at positions edgeStart[i]..edgeStart[i+1]-1
+    final int[] edgeStart;
+    final int[] edgeTarget;
+    final int[] edgeWeight;
+
+    private final DistanceMatrix heuristic;
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * Per-thread search buffers.
+     */
+    private static class Search {
+        final IntMinHeap heap;
+        final int[] dist;
+        final int[] parent;
+        final int[] stamp;
+        int generation;
+
+        Search(int n) {
+            heap = new IntMinHeap(n);
+            dist = new int[n];
+            parent = new int[n];
+            stamp = new int[n];
+        }
+
+        void start() {
+            heap.clear();
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+
+        int dist(int node) {
+            return stamp[node] == generation ? dist[node] : Integer.MAX_VALUE;
+        }
+
+        void set(int node, int d, int p) {
+            stamp[node] = generation;
+            dist[node] = d;
+            parent[node] = p;
+        }
+    }
+
+    RoadGraph(int n, int[] edgeStart, int[] edgeTarget, int[] edgeWeight, DistanceMatrix heuristic) {
+        this.n = n;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+        this.heuristic = heuristic;
+        this.searches = ThreadLocal.withInitial(() -> new Search(n));
+    }
+
+    /**
+     * Create graph from successor lists (see {@link FileUtil#readAdjacencyLists(String)}). Edge weights are read from
+     * the travel time matrix.
+     *
+     * @param successors successors[i] = ids of nodes reached from node i (missing rows have no edges)
+     * @param distMatrix Travel time matrix (seconds)
+     * @param useAStar   If True, distMatrix is used as A* heuristic, otherwise Dijkstra is used
+     * @return CSR graph
+     */
+    public static RoadGraph fromAdjacencyLists(int[][] successors, DistanceMatrix distMatrix, boolean useAStar) {
+        int n = distMatrix.size();
+        int[] edgeStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            edgeStart[i + 1] = edgeStart[i] + (i < successors.length ? successors[i].length : 0);
+        }
+
+        int[] edgeTarget = new int[edgeStart[n]];
+        int[] edgeWeight = new int[edgeStart[n]];
+        for (int i = 0, e = 0; i < Math.min(n, successors.length); i++) {
+            for (int j : successors[i]) {
+                edgeTarget[e] = j;
+                edgeWeight[e] = distMatrix.get(i, j);
+                e++;
+            }
+        }
+        return new RoadGraph(n, edgeStart, edgeTarget, edgeWeight, useAStar ? distMatrix : null);
+    }
+
+    /**
+     * Create graph from adjacency matrix. Edge weights are read from the travel time matrix.
+     *
+     * @param adjacencyMatrix Non-zero entries are edges
+     * @param distMatrix      Travel time matrix (seconds)
+     * @param useAStar        If True, distMatrix is used as A* heuristic, otherwise Dijkstra is used
+     * @return CSR graph
+     */
+    public static RoadGraph fromAdjacencyMatrix(int[][] adjacencyMatrix, DistanceMatrix distMatrix, boolean useAStar) {
+        int[][] successors = new int[adjacencyMatrix.length][];
+        for (int i = 0; i < adjacencyMatrix.length; i++) {
+            int[] row = adjacencyMatrix[i];
+            successors[i] = IntStream.range(0, row.length).filter(j -> row[j] != 0).toArray();
+        }
+        return fromAdjacencyLists(successors, distMatrix, useAStar);
+    }
+
+    /**
+     * @return Graph with all edges reversed (no heuristic)
+     */
+    public RoadGraph reverse() {
+        int[] inStart = new int[n + 1];
+        for (int e = 0; e < edgeTarget.length; e++) {
+            inStart[edgeTarget[e] + 1]++;
+        }
+        for (int j = 0; j < n; j++) {
+            inStart[j + 1] += inStart[j];
+        }
+        int[] inSource = new int[edgeTarget.length];
+        int[] inWeight = new int[edgeTarget.length];
+        int[] fill = Arrays.copyOf(inStart, n);
+        for (int i = 0; i < n; i++) {
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                int j = edgeTarget[e];
+                inSource[fill[j]] = i;
+                inWeight[fill[j]] = edgeWeight[e];
+                fill[j]++;
+            }
+        }
+        return new RoadGraph(n, inStart, inSource, inWeight, null);
+    }
+
+    public int getNumberOfNodes() {
+        return n;
+    }
+
+    public int getNumberOfEdges() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Shortest path between origin and destination.
+     *
+     * @param o Origin node id
+     * @param d Destination node id
+     * @return Node ids from o to d (both included), or null if d cannot be reached
+     */
+    public int[] getPath(int o, int d) {
+        if (o == d) {
+            return new int[]{o};
+        }
+
+        Search s = searches.get();
+        s.start();
+        s.set(o, 0, -1);
+        s.heap.insertOrDecrease(o, estimate(o, d));
+
+        while (!s.heap.isEmpty()) {
+            int u = s.heap.poll();
+            if (u == d) {
+                return unwind(s, d);
+            }
+            int du = s.dist(u);
+            for (int e = edgeStart[u]; e < edgeStart[u + 1]; e++) {
+                int v = edgeTarget[e];
+                int candidate = du + edgeWeight[e];
+                if (candidate < s.dist(v)) {
+                    s.set(v, candidate, u);
+                    // Nodes are reinserted if reached again with lower cost (heuristic may be inconsistent)
+                    s.heap.insertOrDecrease(v, candidate + estimate(v, d));
+                }
+            }
+        }
+        return null;
+    }
+
+    private int estimate(int node, int d) {
+        return heuristic == null ? 0 : heuristic.get(node, d);
+    }
+
+    private static int[] unwind(Search s, int d) {
+        int length = 0;
+        for (int v = d; v >= 0; v = s.parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = d, i = length - 1; v >= 0; v = s.parent[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    @Override
+    public int[] getPathNodeIds(int o, int d) {
+        return getPath(o, d);
+    }
+
+    @Override
+    public List<Integer> getShortestPathBetween(int o, int d) {
+        int[] path = getPath(o, d);
+        return path == null ? null : Collections.unmodifiableList(Ints.asList(path));
+    }
+
+    /**
+     * Convert adjacency file (matrix or edge list) into an edge list file.
+     * <p>
+     * Usage: RoadGraph &lt;adjacency_matrix.csv&gt; &lt;edges.csv&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            Logging.logger.info("Usage: RoadGraph <adjacency_matrix.csv> <edges.csv>");
+            return;
+        }
+        int[][] successors = FileUtil.readAdjacencyLists(args[0]);
+        FileUtil.writeEdgeList(successors, args[1]);
+        int nEdges = Arrays.stream(successors).mapToInt(s -> s.length).sum();
+        Logging.logger.info("# {} edges written to '{}'.", nEdges, args[1]);
+    }
+}
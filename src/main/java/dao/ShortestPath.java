@@ -0,0 +1,74 @@
+package dao;
+
+import com.google.common.primitives.Ints;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable shortest path between two network nodes with the cumulative arrival time at each node.
+ * <p>
+ * e.g.,  Node ids [o,      1,               2,                        d]
+ * Arrivals [0, d(o,1), d(o,1) + d(1,2), d(o,1) + d(1,2) + d(2,d)]
+ */
+public class ShortestPath {
+
+    private final int[] nodeIds;
+    private final int[] arrivals;
+    private final List<Integer> nodeIdList;
+
+    public ShortestPath(int[] nodeIds, int[] arrivals) {
+        assert nodeIds.length == arrivals.length;
+        this.nodeIds = nodeIds;
+        this.arrivals = arrivals;
+        this.nodeIdList = Collections.unmodifiableList(Ints.asList(nodeIds));
+    }
+
+    /**
+     * @return Read-only view of node ids (origin and destination included)
+     */
+    public List<Integer> getNodeIds() {
+        return nodeIdList;
+    }
+
+    public int getNodeId(int i) {
+        return nodeIds[i];
+    }
+
+    /**
+     * @param i Position in path
+     * @return Travel time (seconds) from origin to the i-th node
+     */
+    public int getArrival(int i) {
+        return arrivals[i];
+    }
+
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return Total travel time (seconds) between origin and destination
+     */
+    public int getDuration() {
+        return arrivals[arrivals.length - 1];
+    }
+
+    /**
+     * Position of the first node reached at or after the elapsed time (i.e., insertion point of elapsed time in the
+     * arrival array). Returns {@link #size()} if the destination is reached before the elapsed time.
+     *
+     * @param elapsedTime Time since leaving the origin
+     * @return Position in path
+     */
+    public int getInsertionPoint(int elapsedTime) {
+        int insertionPoint = Arrays.binarySearch(arrivals, elapsedTime);
+        return insertionPoint >= 0 ? insertionPoint : -1 - insertionPoint;
+    }
+
+    @Override
+    public String toString() {
+        return nodeIdList.toString();
+    }
+}
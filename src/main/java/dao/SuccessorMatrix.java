@@ -0,0 +1,229 @@
+package dao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs next-hop table of the road network. Entry (o, d) holds the node that follows o in the shortest path from
+ * o to d, so paths are reconstructed by walking the table in O(path length) instead of running a graph search.
+ * <p>
+ * The table is built once offline with {@link #build(RoadGraph)} (one reverse Dijkstra per destination
+ * using the same edge weights as the road graph in {@link Dao}) and stored in the binary layout of
+ * {@link DistanceMatrix} (magic "SLSM"), with node ids saved as unsigned shorts ({@link #NONE} if unreachable).
+ */
+public class SuccessorMatrix {
+
+    public static final int MAGIC = 0x534C534D;
+    public static final int NONE = 0xFFFF;
+    // Largest number of nodes whose ids fit in an unsigned short (NONE excluded)
+    public static final int MAX_NODES = NONE;
+
+    private final int n;
+    private final short[][] rows;
+    private final ShortBuffer[] blocks;
+    private final int rowsPerBlock;
+
+    private SuccessorMatrix(short[][] rows) {
+        this.n = rows.length;
+        this.rows = rows;
+        this.blocks = null;
+        this.rowsPerBlock = 0;
+    }
+
+    private SuccessorMatrix(int n, ShortBuffer[] blocks, int rowsPerBlock) {
+        this.n = n;
+        this.rows = null;
+        this.blocks = blocks;
+        this.rowsPerBlock = rowsPerBlock;
+    }
+
+    /**
+     * @param o Origin node id
+     * @param d Destination node id
+     * @return Node following o in the shortest path to d, or -1 if d cannot be reached
+     */
+    public int next(int o, int d) {
+        int next;
+        if (rows != null) {
+            next = rows[o][d] & 0xFFFF;
+        } else {
+            next = blocks[o / rowsPerBlock].get((o % rowsPerBlock) * n + d) & 0xFFFF;
+        }
+        return next == NONE ? -1 : next;
+    }
+
+    /**
+     * Reconstruct shortest path by walking the table.
+     *
+     * @param o Origin node id
+     * @param d Destination node id
+     * @return Node ids from o to d (both included), or null if d cannot be reached
+     */
+    public int[] getPath(int o, int d) {
+        if (o == d) {
+            return new int[]{o};
+        }
+
+        int length = 1;
+        for (int current = o; current != d; length++) {
+            current = next(current, d);
+            if (current < 0 || length > n) {
+                return null;
+            }
+        }
+
+        int[] path = new int[length];
+        path[0] = o;
+        for (int i = 1; i < length; i++) {
+            path[i] = next(path[i - 1], d);
+        }
+        return path;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Build next-hop table running one Dijkstra per destination over the reversed road graph.
+     *
+     * @param graph Road graph (edge weights in seconds)
+     * @return Heap-backed table
+     */
+    public static SuccessorMatrix build(RoadGraph graph) {
+
+        int n = graph.getNumberOfNodes();
+        if (n > MAX_NODES) {
+            throw new IllegalArgumentException(String.format("Network has %d nodes (max. %d)", n, MAX_NODES));
+        }
+
+        // Edges arriving at each node
+        RoadGraph reversed = graph.reverse();
+        int[] inStart = reversed.edgeStart;
+        int[] inFrom = reversed.edgeTarget;
+        int[] inWeight = reversed.edgeWeight;
+
+        short[][] next = new short[n][n];
+        for (short[] row : next) {
+            Arrays.fill(row, (short) NONE);
+        }
+
+        ThreadLocal<IntMinHeap> heaps = ThreadLocal.withInitial(() -> new IntMinHeap(n));
+        ThreadLocal<int[]> arrivals = ThreadLocal.withInitial(() -> new int[n]);
+
+        IntStream.range(0, n).parallel().forEach(d -> {
+            IntMinHeap heap = heaps.get();
+            int[] dist = arrivals.get();
+            Arrays.fill(dist, Integer.MAX_VALUE);
+
+            dist[d] = 0;
+            next[d][d] = (short) d;
+            heap.insertOrDecrease(d, 0);
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                for (int e = inStart[u]; e < inStart[u + 1]; e++) {
+                    int v = inFrom[e];
+                    int candidate = dist[u] + inWeight[e];
+                    if (candidate < dist[v]) {
+                        dist[v] = candidate;
+                        next[v][d] = (short) u;
+                        heap.insertOrDecrease(v, candidate);
+                    }
+                }
+            }
+        });
+
+        return new SuccessorMatrix(next);
+    }
+
+    /**
+     * Save table in binary format.
+     *
+     * @param filePath Target file
+     * @throws IOException If file cannot be written
+     */
+    public void write(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            channel.write(DistanceMatrix.header(MAGIC, n));
+
+            ByteBuffer rowBuffer = ByteBuffer.allocate(2 * n).order(ByteOrder.LITTLE_ENDIAN);
+            for (int o = 0; o < n; o++) {
+                rowBuffer.clear();
+                for (int d = 0; d < n; d++) {
+                    int next = next(o, d);
+                    rowBuffer.putShort((short) (next < 0 ? NONE : next));
+                }
+                rowBuffer.flip();
+                while (rowBuffer.hasRemaining()) {
+                    channel.write(rowBuffer);
+                }
+            }
+        }
+        Logging.logger.info("# {}x{} successor matrix written to '{}'.", n, n, filePath);
+    }
+
+    /**
+     * Memory-map a table saved with {@link #write(String)} (read-only).
+     *
+     * @param filePath Binary successor matrix
+     * @return Table backed by the mapped file
+     * @throws IOException If file cannot be mapped or header is invalid
+     */
+    public static SuccessorMatrix map(String filePath) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(DistanceMatrix.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+
+            int magic = header.getInt();
+            int version = header.getInt();
+            int n = header.getInt();
+
+            if (magic != MAGIC || version != DistanceMatrix.VERSION) {
+                throw new IOException(String.format("Invalid successor matrix header in '%s' (magic=%x, version=%d)",
+                        filePath, magic, version));
+            }
+
+            long expectedBytes = DistanceMatrix.HEADER_BYTES + 2L * n * n;
+            if (channel.size() < expectedBytes) {
+                throw new IOException(String.format("Successor matrix '%s' is truncated (%d < %d bytes)",
+                        filePath, channel.size(), expectedBytes));
+            }
+
+            int rowsPerBlock = DistanceMatrix.rowsPerBlock(n);
+            ShortBuffer[] blocks = DistanceMatrix.mapBlocks(channel, n, rowsPerBlock);
+
+            Logging.logger.info("# Mapped {}x{} successor matrix from '{}'.", n, n, filePath);
+            return new SuccessorMatrix(n, blocks, rowsPerBlock);
+        }
+    }
+
+    /**
+     * Usage: SuccessorMatrix &lt;adjacency (matrix or edge list .csv)&gt; &lt;durations (.csv or .bin)&gt; &lt;successors.bin&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            Logging.logger.info("Usage: SuccessorMatrix <adjacency.csv> <durations> <successors.bin>");
+            return;
+        }
+        DistanceMatrix distMatrix = DistanceMatrix.load(args[1], Dao.SPEED_FACTOR);
+        int[][] successors = FileUtil.readAdjacencyLists(args[0]);
+
+        Logging.logger.info("# Building successor matrix for {} nodes...", distMatrix.size());
+        build(RoadGraph.fromAdjacencyLists(successors, distMatrix, false)).write(args[2]);
+    }
+}
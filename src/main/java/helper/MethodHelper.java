@@ -19,7 +19,7 @@ public class MethodHelper {
      * @return Vehicle at random position
      */
     public static Vehicle createVehicleAtRandomPosition(int capacity, int currentTime, int numberOfContractedRounds) {
-        short randomOrigin = (short) (Dao.getInstance().rand.nextDouble() * Dao.getInstance().getDistMatrix().length);
+        short randomOrigin = (short) (Dao.getInstance().rand.nextDouble() * Dao.getInstance().getDistMatrix().size());
         return new Vehicle(capacity, randomOrigin, currentTime, true, numberOfContractedRounds);
     }
 
@@ -51,7 +51,7 @@ public class MethodHelper {
             //
             short randomOrigin = (short) (seed.nextDouble() * Dao.ZONE_IDS.length);
 
-            //Logging.logger.info("Vehicles:" + randomOrigin + "-" + Dao.getInstance().getDistMatrix().length);
+            //Logging.logger.info("Vehicles:" + randomOrigin + "-" + Dao.getInstance().getDistMatrix().size());
             //Logging.logger.info(randomOrigin);
             listVehicle.add(new Vehicle(vSize, Dao.ZONE_IDS[randomOrigin], currentTime));
         }
@@ -67,7 +67,7 @@ public class MethodHelper {
 
         for (Map.Entry<Integer, Integer> e : vPerCapacity.entrySet()) {
             for (int i = 0; i < e.getValue(); i++) {
-                short randomOrigin = (short) (Math.random() * Dao.getInstance().getDistMatrix().length);
+                short randomOrigin = (short) (Math.random() * Dao.getInstance().getDistMatrix().size());
                 listVehicle.add(new Vehicle(e.getKey(), randomOrigin, 2.3, 3.4));
             }
         }
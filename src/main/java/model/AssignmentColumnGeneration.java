@@ -0,0 +1,374 @@
+package model;
+
+import config.Config;
+import config.Qos;
+import dao.Logging;
+import gurobi.*;
+import simulation.matching.Objective;
+import simulation.matching.ResultAssignment;
+
+import java.util.*;
+
+/**
+ * Column generation mode of {@link AssignmentILP} for very large RTV graphs. Instead of adding a variable for every
+ * visit, a restricted master LP starts from each vehicle's current plan and the visits servicing at most one request.
+ * The remaining visits of the RTV enumeration are priced with the master's dual values and only visits with negative
+ * reduced cost are added. Hierarchical objectives are priced level by level: once a level converges, its optimal value
+ * is fixed with a constraint whose dual enters the reduced costs of the next levels.
+ * <p>
+ * The integer assignment is solved by {@link AssignmentILP} over the generated visits only (price-and-branch), hence
+ * solutions are not proven optimal for the whole RTV graph. If the restricted model has no solution (e.g., previously
+ * assigned requests cannot be serviced by the generated visits), the whole RTV graph is solved.
+ */
+public class AssignmentColumnGeneration {
+
+    // Pricing rounds per objective level
+    private static final int MAX_PRICING_ROUNDS = 50;
+    // Visits added per vehicle and pricing round (most negative reduced cost first)
+    private static final int MAX_COLUMNS_PER_VEHICLE = 5;
+    private static final double EPSILON = 1e-6;
+    private final int rejectionPenalty = 1;
+    private final int currentTime;
+    private final Map<Vehicle, Set<VisitObj>> vehicleVisitsMap;
+    private final Set<User> requestSet;
+    private final boolean guaranteePreviouslyAssignedAreNotDisplaced;
+    // Solver threads (0 = solver default)
+    private int threads = 0;
+
+    // RTV enumeration (all candidate visits), visits of a vehicle are contiguous
+    private List<Vehicle> vehicles;
+    private List<User> requests;
+    private Map<User, Integer> requestIndex;
+    private List<VisitObj> visits;
+    private int[] vehicleFirstVisit;
+    private int[] visitVehicle;
+    private int[][] visitRequests;
+    // Cost levels (minimized in order) of visits and rejected requests
+    private double[][] visitCost;
+    private double[][] rejectionCost;
+    private int nOfLevels;
+
+    // Restricted master LP
+    private GRBModel model;
+    private GRBConstr[] vehicleConstrs;
+    private GRBConstr[] requestConstrs;
+    private GRBVar[] varRequestRejected;
+    private final List<GRBConstr> levelConstrs = new ArrayList<>();
+    private final List<GRBVar> varColumns = new ArrayList<>();
+    private final List<Integer> columnVisit = new ArrayList<>();
+    private boolean[] inMaster;
+    private int nOfPricingRounds;
+
+    public AssignmentColumnGeneration(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Set<User> requests, boolean guaranteePreviouslyAssignedAreNotDisplaced) {
+        this.currentTime = currentTime;
+        this.vehicleVisitsMap = vehicleVisitsMap;
+        this.requestSet = requests;
+        this.guaranteePreviouslyAssignedAreNotDisplaced = guaranteePreviouslyAssignedAreNotDisplaced;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public ResultAssignment run(String[] orderedListOfObjectiveLabels) {
+
+        long generationTime = System.nanoTime();
+        Map<Vehicle, Set<VisitObj>> generatedVisitsMap = null;
+        try {
+            generatedVisitsMap = generateColumns(orderedListOfObjectiveLabels);
+        } catch (GRBException e) {
+            Logging.logger.info("# Matching - Column generation - Gurobi error code: {}", e.getErrorCode() + ". " + e.getMessage());
+        } finally {
+            if (model != null) {
+                model.dispose();
+            }
+        }
+        generationTime = System.nanoTime() - generationTime;
+
+        if (generatedVisitsMap != null) {
+            Logging.logger.info("# Matching - Column generation - Visits = {}/{} - Pricing rounds = {} - Time = {}",
+                    varColumns.size(),
+                    visits.size(),
+                    nOfPricingRounds,
+                    generationTime / 1000000000.0);
+
+            AssignmentILP assignment = new AssignmentILP(currentTime, generatedVisitsMap, requestSet, guaranteePreviouslyAssignedAreNotDisplaced);
+            assignment.setThreads(threads);
+            ResultAssignment result = assignment.run(orderedListOfObjectiveLabels);
+            if (assignment.isSolved()) {
+                return result;
+            }
+            Logging.logger.info("# Matching - Column generation - No solution with generated visits, solving all visits");
+        }
+
+        AssignmentILP assignment = new AssignmentILP(currentTime, vehicleVisitsMap, requestSet, guaranteePreviouslyAssignedAreNotDisplaced);
+        assignment.setThreads(threads);
+        return assignment.run(orderedListOfObjectiveLabels);
+    }
+
+    /**
+     * @return Visits of the restricted master per vehicle, or null if the master LP could not be solved
+     */
+    private Map<Vehicle, Set<VisitObj>> generateColumns(String[] orderedListOfObjectiveLabels) throws GRBException {
+        indexVisits(orderedListOfObjectiveLabels);
+        createMaster();
+
+        for (int level = 0; level < nOfLevels; level++) {
+            setObjectiveLevel(level);
+            for (int round = 0; round < MAX_PRICING_ROUNDS; round++) {
+                model.optimize();
+                if (model.get(GRB.IntAttr.Status) != GRB.Status.OPTIMAL) {
+                    Logging.logger.info("# Matching - Column generation - Master LP not optimal (status {})", model.get(GRB.IntAttr.Status));
+                    return null;
+                }
+                nOfPricingRounds++;
+                if (addColumnsWithNegativeReducedCost(level) == 0) {
+                    break;
+                }
+            }
+            fixObjectiveLevel(level);
+        }
+
+        Map<Vehicle, Set<VisitObj>> generatedVisitsMap = new LinkedHashMap<>();
+        vehicles.forEach(vehicle -> generatedVisitsMap.put(vehicle, new HashSet<>()));
+        for (int v : columnVisit) {
+            generatedVisitsMap.get(vehicles.get(visitVehicle[v])).add(visits.get(v));
+        }
+        return generatedVisitsMap;
+    }
+
+    /**
+     * Index vehicles, requests, and visits, and compute the cost levels of each visit and rejected request.
+     */
+    private void indexVisits(String[] orderedListOfObjectiveLabels) {
+        vehicles = new ArrayList<>(vehicleVisitsMap.keySet());
+        requests = new ArrayList<>(requestSet);
+        requestIndex = new HashMap<>();
+        for (int r = 0; r < requests.size(); r++) {
+            requestIndex.put(requests.get(r), r);
+        }
+
+        visits = new ArrayList<>();
+        vehicleFirstVisit = new int[vehicles.size() + 1];
+        List<Integer> vehicleOfVisit = new ArrayList<>();
+        for (int u = 0; u < vehicles.size(); u++) {
+            vehicleFirstVisit[u] = visits.size();
+            for (VisitObj visit : vehicleVisitsMap.get(vehicles.get(u))) {
+                visits.add(visit);
+                vehicleOfVisit.add(u);
+            }
+        }
+        vehicleFirstVisit[vehicles.size()] = visits.size();
+        visitVehicle = vehicleOfVisit.stream().mapToInt(Integer::intValue).toArray();
+
+        visitRequests = new int[visits.size()][];
+        for (int v = 0; v < visits.size(); v++) {
+            visitRequests[v] = visits.get(v).getRequests().stream()
+                    .filter(requestIndex::containsKey)
+                    .mapToInt(requestIndex::get)
+                    .toArray();
+        }
+
+        List<double[]> visitLevels = new ArrayList<>();
+        List<double[]> rejectionLevels = new ArrayList<>();
+
+        // Previously assigned requests are rejected only if no generated visit can service them
+        if (guaranteePreviouslyAssignedAreNotDisplaced && requests.stream().anyMatch(User::isPreviouslyAssigned)) {
+            visitLevels.add(new double[visits.size()]);
+            rejectionLevels.add(requests.stream().mapToDouble(request -> request.isPreviouslyAssigned() ? 1 : 0).toArray());
+        }
+
+        for (String objective : orderedListOfObjectiveLabels) {
+            switch (objective) {
+                case Objective.HIERARCHICAL_REJECTION -> {
+                    for (Qos qos : Config.getInstance().getSortedQosList()) {
+                        visitLevels.add(new double[visits.size()]);
+                        rejectionLevels.add(requests.stream().mapToDouble(request -> request.qos == qos ? 1 : 0).toArray());
+                    }
+                }
+                case Objective.TOTAL_WAITING_AND_REJECTION -> {
+                    visitLevels.add(visits.stream().mapToDouble(VisitObj::getDelay).toArray());
+                    rejectionLevels.add(requests.stream().mapToDouble(request -> rejectionPenalty).toArray());
+                }
+                case Objective.TOTAL_REJECTION, Objective.TOTAL_REQUESTS -> {
+                    visitLevels.add(new double[visits.size()]);
+                    rejectionLevels.add(requests.stream().mapToDouble(request -> 1).toArray());
+                }
+                case Objective.TOTAL_REQUESTS_PLUS_VFS -> {
+                    visitLevels.add(visits.stream().mapToDouble(visit -> -visit.getVF()).toArray());
+                    rejectionLevels.add(requests.stream().mapToDouble(request -> 1).toArray());
+                }
+                case Objective.TOTAL_WAITING -> {
+                    visitLevels.add(visits.stream().mapToDouble(VisitObj::getDelay).toArray());
+                    rejectionLevels.add(new double[requests.size()]);
+                }
+            }
+        }
+
+        nOfLevels = visitLevels.size();
+        visitCost = new double[visits.size()][nOfLevels];
+        rejectionCost = new double[requests.size()][nOfLevels];
+        for (int k = 0; k < nOfLevels; k++) {
+            for (int v = 0; v < visits.size(); v++) {
+                visitCost[v][k] = visitLevels.get(k)[v];
+            }
+            for (int r = 0; r < requests.size(); r++) {
+                rejectionCost[r][k] = rejectionLevels.get(k)[r];
+            }
+        }
+    }
+
+    /**
+     * Master LP with every request rejectable and, for each vehicle, the visit keeping its current plan and the visits
+     * servicing at most one request (at least the vehicle's lowest-delay visit, so every vehicle has a column).
+     */
+    private void createMaster() throws GRBException {
+        model = new GRBModel(AssignmentILP.initGurobiEnv());
+        model.set(GRB.StringAttr.ModelName, "assignment_rtv_master");
+        if (threads > 0) {
+            model.set(GRB.IntParam.Threads, threads);
+        }
+
+        varRequestRejected = new GRBVar[requests.size()];
+        requestConstrs = new GRBConstr[requests.size()];
+        for (int r = 0; r < requests.size(); r++) {
+            varRequestRejected[r] = model.addVar(0, 1, 0, GRB.CONTINUOUS, String.format("x_rejected_%d", r));
+            GRBLinExpr constrRequestConservation = new GRBLinExpr();
+            constrRequestConservation.addTerm(1, varRequestRejected[r]);
+            requestConstrs[r] = model.addConstr(constrRequestConservation, GRB.EQUAL, 1, String.format("request_visit_conservation_%d", r));
+        }
+
+        vehicleConstrs = new GRBConstr[vehicles.size()];
+        for (int u = 0; u < vehicles.size(); u++) {
+            vehicleConstrs[u] = model.addConstr(new GRBLinExpr(), GRB.EQUAL, 1, String.format("conservation_%d", u));
+        }
+
+        inMaster = new boolean[visits.size()];
+        for (int u = 0; u < vehicles.size(); u++) {
+            Vehicle vehicle = vehicles.get(u);
+            VisitObj current = AssignmentILP.getVisitKeepingCurrentPlan(vehicle, vehicleVisitsMap.get(vehicle));
+            int lowestDelay = -1;
+            for (int v = vehicleFirstVisit[u]; v < vehicleFirstVisit[u + 1]; v++) {
+                if (visitRequests[v].length <= 1 || visits.get(v) == current) {
+                    addColumn(v, 0);
+                } else if (lowestDelay < 0 || visits.get(v).getDelay() < visits.get(lowestDelay).getDelay()) {
+                    lowestDelay = v;
+                }
+            }
+            if (lowestDelay >= 0 && !hasColumn(u)) {
+                addColumn(lowestDelay, 0);
+            }
+        }
+    }
+
+    private boolean hasColumn(int u) {
+        for (int v = vehicleFirstVisit[u]; v < vehicleFirstVisit[u + 1]; v++) {
+            if (inMaster[v]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the visit variable to the vehicle and request rows, and to the rows fixing the previous objective levels.
+     */
+    private void addColumn(int v, int level) throws GRBException {
+        GRBColumn column = new GRBColumn();
+        column.addTerm(1, vehicleConstrs[visitVehicle[v]]);
+        for (int r : visitRequests[v]) {
+            column.addTerm(1, requestConstrs[r]);
+        }
+        for (int k = 0; k < levelConstrs.size(); k++) {
+            if (visitCost[v][k] != 0) {
+                column.addTerm(visitCost[v][k], levelConstrs.get(k));
+            }
+        }
+        varColumns.add(model.addVar(0, 1, visitCost[v][level], GRB.CONTINUOUS, column, String.format("x_visit_%d", v)));
+        columnVisit.add(v);
+        inMaster[v] = true;
+    }
+
+    private void setObjectiveLevel(int level) throws GRBException {
+        double[] coeffs = new double[varColumns.size()];
+        for (int c = 0; c < coeffs.length; c++) {
+            coeffs[c] = visitCost[columnVisit.get(c)][level];
+        }
+        model.set(GRB.DoubleAttr.Obj, varColumns.toArray(new GRBVar[0]), coeffs);
+
+        double[] coeffsRejected = new double[requests.size()];
+        for (int r = 0; r < requests.size(); r++) {
+            coeffsRejected[r] = rejectionCost[r][level];
+        }
+        model.set(GRB.DoubleAttr.Obj, varRequestRejected, coeffsRejected);
+    }
+
+    /**
+     * Constrain the level to its optimal value, so the next levels are optimized among the level's optima.
+     */
+    private void fixObjectiveLevel(int level) throws GRBException {
+        double optimum = model.get(GRB.DoubleAttr.ObjVal);
+        GRBLinExpr objectiveLevel = new GRBLinExpr();
+        for (int c = 0; c < varColumns.size(); c++) {
+            double cost = visitCost[columnVisit.get(c)][level];
+            if (cost != 0) {
+                objectiveLevel.addTerm(cost, varColumns.get(c));
+            }
+        }
+        for (int r = 0; r < requests.size(); r++) {
+            if (rejectionCost[r][level] != 0) {
+                objectiveLevel.addTerm(rejectionCost[r][level], varRequestRejected[r]);
+            }
+        }
+        double tolerance = EPSILON * Math.max(1, Math.abs(optimum));
+        levelConstrs.add(model.addConstr(objectiveLevel, GRB.LESS_EQUAL, optimum + tolerance, String.format("objective_level_%d", level)));
+    }
+
+    /**
+     * Price every visit not in the master: reduced cost = cost - vehicle dual - request duals - fixed level duals.
+     *
+     * @return Number of visits added
+     */
+    private int addColumnsWithNegativeReducedCost(int level) throws GRBException {
+        double[] vehicleDuals = model.get(GRB.DoubleAttr.Pi, vehicleConstrs);
+        double[] requestDuals = model.get(GRB.DoubleAttr.Pi, requestConstrs);
+        double[] levelDuals = model.get(GRB.DoubleAttr.Pi, levelConstrs.toArray(new GRBConstr[0]));
+
+        List<Integer> columns = new ArrayList<>();
+        for (int u = 0; u < vehicles.size(); u++) {
+            List<Integer> candidates = new ArrayList<>();
+            double[] reducedCost = new double[vehicleFirstVisit[u + 1] - vehicleFirstVisit[u]];
+            for (int v = vehicleFirstVisit[u]; v < vehicleFirstVisit[u + 1]; v++) {
+                if (inMaster[v]) {
+                    continue;
+                }
+                double rc = visitCost[v][level] - vehicleDuals[u];
+                for (int r : visitRequests[v]) {
+                    rc -= requestDuals[r];
+                }
+                for (int k = 0; k < levelDuals.length; k++) {
+                    rc -= levelDuals[k] * visitCost[v][k];
+                }
+                if (rc < -EPSILON) {
+                    reducedCost[v - vehicleFirstVisit[u]] = rc;
+                    candidates.add(v);
+                }
+            }
+            int first = vehicleFirstVisit[u];
+            candidates.stream()
+                    .sorted(Comparator.comparingDouble(v -> reducedCost[v - first]))
+                    .limit(MAX_COLUMNS_PER_VEHICLE)
+                    .forEach(columns::add);
+        }
+
+        for (int v : columns) {
+            addColumn(v, level);
+        }
+        return columns.size();
+    }
+
+    @Override
+    public String toString() {
+        return "_COLUMN-GENERATION";
+    }
+}
@@ -0,0 +1,163 @@
+package model;
+
+import dao.Logging;
+import simulation.matching.ResultAssignment;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Split the RTV assignment into independent subproblems solved concurrently. Vehicles are connected if their visits
+ * share a request, hence vehicles in different connected components never compete for requests. Objectives and
+ * constraints are sums over vehicles and requests, so each objective (also hierarchical) of the whole assignment is
+ * the sum of the components' optima.
+ * <p>
+ * Components are packed into one subproblem per worker of the common fork-join pool (largest components first, into
+ * the subproblem with fewest visits), so many small components do not create many small models.
+ */
+public class AssignmentDecomposition {
+
+    private final int currentTime;
+    private final Map<Vehicle, Set<VisitObj>> vehicleVisitsMap;
+    private final Set<User> requests;
+
+    /**
+     * Solves the assignment of a subproblem.
+     */
+    public interface SubproblemSolver {
+        /**
+         * @param vehicleVisitsMap Visits of the subproblem's vehicles
+         * @param requests         Requests of the subproblem
+         * @param threads          Solver threads available to the subproblem
+         * @return Assignment of the subproblem
+         */
+        ResultAssignment solve(Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Set<User> requests, int threads);
+    }
+
+    public AssignmentDecomposition(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Set<User> requests) {
+        this.currentTime = currentTime;
+        this.vehicleVisitsMap = vehicleVisitsMap;
+        this.requests = requests;
+    }
+
+    public ResultAssignment run(SubproblemSolver solver) {
+        long startTime = System.nanoTime();
+        List<Subproblem> components = getComponents();
+        List<Subproblem> subproblems = pack(components, ForkJoinPool.getCommonPoolParallelism());
+        if (subproblems.isEmpty()) {
+            return new ResultAssignment(currentTime);
+        }
+        int threads = Math.max(1, java.lang.Runtime.getRuntime().availableProcessors() / subproblems.size());
+
+        Logging.logger.info("# Matching - Decomposition - {} components ({} vehicles in largest) in {} subproblems",
+                components.size(),
+                components.isEmpty() ? 0 : components.get(0).vehicleVisitsMap.size(),
+                subproblems.size());
+
+        // A single subproblem uses all solver threads
+        List<ResultAssignment> results = subproblems.size() == 1 ?
+                List.of(solver.solve(subproblems.get(0).vehicleVisitsMap, subproblems.get(0).requests, 0)) :
+                subproblems.parallelStream()
+                        .map(subproblem -> solver.solve(subproblem.vehicleVisitsMap, subproblem.requests, threads))
+                        .toList();
+
+        ResultAssignment result = new ResultAssignment(currentTime);
+        results.forEach(result::merge);
+        Logging.logger.info("# Matching - Decomposition - Total time = {}", (System.nanoTime() - startTime) / 1000000000.0);
+        return result;
+    }
+
+    /**
+     * Connected components of vehicles and requests (union-find). Requests without visits are grouped in a single
+     * component without vehicles.
+     *
+     * @return Components sorted by number of visits (largest first)
+     */
+    private List<Subproblem> getComponents() {
+        List<Vehicle> vehicles = new ArrayList<>(vehicleVisitsMap.keySet());
+        Map<User, Integer> requestIndex = new HashMap<>();
+        for (User request : requests) {
+            requestIndex.put(request, vehicles.size() + requestIndex.size());
+        }
+
+        int[] parent = new int[vehicles.size() + requestIndex.size()];
+        Arrays.setAll(parent, i -> i);
+        for (int u = 0; u < vehicles.size(); u++) {
+            for (VisitObj visit : vehicleVisitsMap.get(vehicles.get(u))) {
+                for (User request : visit.getRequests()) {
+                    Integer r = requestIndex.get(request);
+                    if (r != null) {
+                        parent[find(parent, r)] = find(parent, u);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, Subproblem> componentOfRoot = new HashMap<>();
+        for (int u = 0; u < vehicles.size(); u++) {
+            Vehicle vehicle = vehicles.get(u);
+            componentOfRoot.computeIfAbsent(find(parent, u), root -> new Subproblem()).add(vehicle, vehicleVisitsMap.get(vehicle));
+        }
+        Subproblem requestsWithoutVisits = new Subproblem();
+        for (Map.Entry<User, Integer> e : requestIndex.entrySet()) {
+            Subproblem component = componentOfRoot.get(find(parent, e.getValue()));
+            (component != null ? component : requestsWithoutVisits).requests.add(e.getKey());
+        }
+
+        List<Subproblem> components = new ArrayList<>(componentOfRoot.values());
+        if (!requestsWithoutVisits.requests.isEmpty()) {
+            components.add(requestsWithoutVisits);
+        }
+        components.sort(Comparator.comparingInt((Subproblem component) -> component.nOfVisits).reversed());
+        return components;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Pack components (largest first) into the subproblem with fewest visits.
+     */
+    private static List<Subproblem> pack(List<Subproblem> components, int maxSubproblems) {
+        int nOfSubproblems = Math.max(1, Math.min(maxSubproblems, components.size()));
+        PriorityQueue<Subproblem> subproblems = new PriorityQueue<>(Comparator.comparingInt((Subproblem subproblem) -> subproblem.nOfVisits));
+        for (int i = 0; i < nOfSubproblems; i++) {
+            subproblems.add(new Subproblem());
+        }
+        for (Subproblem component : components) {
+            Subproblem smallest = subproblems.poll();
+            smallest.addAll(component);
+            subproblems.add(smallest);
+        }
+        return subproblems.stream().filter(subproblem -> !subproblem.isEmpty()).toList();
+    }
+
+    /**
+     * Vehicles (with their visits) and requests of a component or of a group of components.
+     */
+    private static class Subproblem {
+        private final Map<Vehicle, Set<VisitObj>> vehicleVisitsMap = new HashMap<>();
+        private final Set<User> requests = new HashSet<>();
+        private int nOfVisits;
+
+        private void add(Vehicle vehicle, Set<VisitObj> visits) {
+            vehicleVisitsMap.put(vehicle, visits);
+            nOfVisits += visits.size();
+        }
+
+        private boolean isEmpty() {
+            return vehicleVisitsMap.isEmpty() && requests.isEmpty();
+        }
+
+        private void addAll(Subproblem other) {
+            vehicleVisitsMap.putAll(other.vehicleVisitsMap);
+            requests.addAll(other.requests);
+            nOfVisits += other.nOfVisits;
+        }
+    }
+}
@@ -2,10 +2,8 @@ package model;
 
 import config.Config;
 import config.Qos;
-import dao.Dao;
 import dao.Logging;
 import gurobi.*;
-import helper.Runtime;
 import simulation.matching.Objective;
 import simulation.matching.ResultAssignment;
 
@@ -25,7 +23,8 @@ public class AssignmentILP {
     public double objValTotalServiced;
     public double objValueTotalWaiting;
     public double objValTotalServicedPlusVFs;
-    public static GRBEnv env = null;
+    // One environment per thread (environments are not thread-safe and subproblems are solved concurrently)
+    private static final ThreadLocal<GRBEnv> env = new ThreadLocal<>();
     protected GRBModel model;
     protected Set<VisitObj> visits;
     protected Set<User> requests;
@@ -34,6 +33,11 @@ public class AssignmentILP {
     protected Set<Integer> vehicleIds;
     protected Map<VisitObj, Integer> visitIndex;
     protected Map<User, Integer> requestIndex;
+    // Visits and requests by variable index
+    protected VisitObj[] indexedVisits;
+    protected User[] indexedRequests;
+    // Request indices of every visit (requests outside the assignment are skipped)
+    protected int[][] visitRequestIndices;
     // Assignment variables: x[r][v] == 1 if request r is assigned to trip v
     protected GRBVar[] varVisitSelected;
     protected GRBVar[] varRequestRejected;
@@ -43,6 +47,12 @@ public class AssignmentILP {
     protected boolean guaranteePreviouslyAssignedAreNotDisplaced;
     ResultAssignment result;
     private String[] orderedListOfObjectiveLabels;
+    // Solver times (seconds) of the round, NaN if not reached
+    private double timeToFirstIncumbent = Double.NaN;
+    private double timeToGap = Double.NaN;
+    // Solver threads (0 = solver default)
+    private int threads = 0;
+    private boolean solved;
     private final int varVisitId = 0;
 
     public AssignmentILP(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Map<User, Set<VisitObj>> userVisitsMap, boolean guaranteePreviouslyAssignedAreNotDisplaced) {
@@ -59,21 +69,25 @@ public class AssignmentILP {
         this.guaranteePreviouslyAssignedAreNotDisplaced = guaranteePreviouslyAssignedAreNotDisplaced;
     }
 
-    private void initGurobiEnv() {
-        if (env == null) {
+    /**
+     * @return Gurobi environment of the current thread (created on first use)
+     */
+    static GRBEnv initGurobiEnv() {
+        if (env.get() == null) {
             // Model
             try {
-                env = new GRBEnv();
+                env.set(new GRBEnv());
                 if (Config.showRoundMIPInfo()) {
-                    env.set(GRB.IntParam.OutputFlag, 1);
+                    env.get().set(GRB.IntParam.OutputFlag, 1);
                 } else {
                     // Turn off logging
-                    env.set(GRB.IntParam.OutputFlag, 0);
+                    env.get().set(GRB.IntParam.OutputFlag, 0);
                 }
             } catch (GRBException e) {
                 e.printStackTrace();
             }
         }
+        return env.get();
     }
 
     //    public AssignmentILP(int currentTime, Map<Integer, Set<VisitObj>> vehicleVisitsMap, Map<User, Set<VisitObj>> userVisitsMap) {
@@ -133,9 +147,77 @@ public class AssignmentILP {
         return String.valueOf(visit.hashCode());
     }
 
+    /**
+     * Vehicle and request conservation rows, built in one pass over the visits and added in a single batch. Previously
+     * assigned requests (if guaranteed) have no rejection variable, hence their conservation row forces them to be
+     * serviced.
+     */
     protected void addConstraintsStandardAssignment() throws GRBException {
-        oneVisitForEveryVehicle();
-        eachRequestToOneVehicle();
+        int nOfVehicles = vehicles.size();
+        int nOfRequests = indexedRequests.length;
+
+        // Rows: vehicles first, then requests
+        int[] rowSize = new int[nOfVehicles + nOfRequests];
+        Map<Vehicle, Integer> vehicleIndex = new HashMap<>();
+        int[] visitVehicle = new int[indexedVisits.length];
+        for (Vehicle vehicle : vehicles) {
+            int u = vehicleIndex.size();
+            vehicleIndex.put(vehicle, u);
+            for (VisitObj visit : getListOfVisitsFromVehicle(vehicle)) {
+                visitVehicle[visitIndex.get(visit)] = u;
+            }
+        }
+        for (int v = 0; v < indexedVisits.length; v++) {
+            rowSize[visitVehicle[v]]++;
+            for (int r : visitRequestIndices[v]) {
+                rowSize[nOfVehicles + r]++;
+            }
+        }
+
+        GRBVar[][] rowVars = new GRBVar[rowSize.length][];
+        int[] rowFill = new int[rowSize.length];
+        for (int row = 0; row < rowSize.length; row++) {
+            boolean rejectable = row >= nOfVehicles && isRejectable(indexedRequests[row - nOfVehicles]);
+            rowVars[row] = new GRBVar[rowSize[row] + (rejectable ? 1 : 0)];
+            if (rejectable) {
+                rowVars[row][rowFill[row]++] = varRequestRejected[row - nOfVehicles];
+            }
+        }
+        for (int v = 0; v < indexedVisits.length; v++) {
+            rowVars[visitVehicle[v]][rowFill[visitVehicle[v]]++] = varVisitSelected[v];
+            for (int r : visitRequestIndices[v]) {
+                rowVars[nOfVehicles + r][rowFill[nOfVehicles + r]++] = varVisitSelected[v];
+            }
+        }
+
+        GRBLinExpr[] rows = new GRBLinExpr[rowSize.length];
+        String[] labels = new String[rowSize.length];
+        for (int row = 0; row < rowSize.length; row++) {
+            double[] ones = new double[rowVars[row].length];
+            Arrays.fill(ones, 1);
+            rows[row] = new GRBLinExpr();
+            rows[row].addTerms(ones, rowVars[row]);
+        }
+        for (Map.Entry<Vehicle, Integer> e : vehicleIndex.entrySet()) {
+            labels[e.getValue()] = "conservation_" + e.getKey().toString().replace(" ", "_").trim();
+        }
+        for (int r = 0; r < nOfRequests; r++) {
+            labels[nOfVehicles + r] = "request_visit_conservation_" + r;
+        }
+
+        char[] senses = new char[rows.length];
+        Arrays.fill(senses, GRB.EQUAL);
+        double[] rhs = new double[rows.length];
+        Arrays.fill(rhs, 1);
+        model.addConstrs(rows, senses, rhs, labels);
+    }
+
+    /**
+     * v1 + v2 + v3 + r1 = 1 // Request can be rejected because it was not previously assigned
+     * v1 + v2 + v3 = 1 // Cannot reject request!
+     */
+    private boolean isRejectable(User request) {
+        return !guaranteePreviouslyAssignedAreNotDisplaced || !request.isPreviouslyAssigned();
     }
 
     protected void saveModel(int currentTime) {
@@ -198,25 +280,31 @@ public class AssignmentILP {
         try {
             ////////////////////////////////////////////////////////////////////////////////////////////////////////////
             // Building the model //////////////////////////////////////////////////////////////////////////////////////
-            Dao.getInstance().getRunTimes().startTimerFor(Runtime.TIME_ILP_BUILDING);
+            // Timed locally (not with the shared run times) since subproblems are solved concurrently
+            long buildingTime = System.nanoTime();
             createGurobiModelAndEnvironment();
             initVarsStandardAssignment();
             addConstraintsStandardAssignment();
-            // TODO do not consider request objects but indices & block specific request ids
-            if (guaranteePreviouslyAssignedAreNotDisplaced) {
-                previouslyAssignedMustBeServiced();
-            }
             setupObjectives();
-            Dao.getInstance().getRunTimes().endTimerFor(Runtime.TIME_ILP_BUILDING);
+            int nOfVehiclesStarted = setStartFromPreviousAssignment();
+            buildingTime = System.nanoTime() - buildingTime;
 
             ////////////////////////////////////////////////////////////////////////////////////////////////////////////
             // Building the model //////////////////////////////////////////////////////////////////////////////////////
-            Dao.getInstance().getRunTimes().startTimerFor(Runtime.TIME_ILP_SOLVING);
+            long solvingTime = System.nanoTime();
+            IncumbentTimer incumbentTimer = new IncumbentTimer();
+            model.setCallback(incumbentTimer);
             model.optimize();
-            Dao.getInstance().getRunTimes().endTimerFor(Runtime.TIME_ILP_SOLVING);
+            solvingTime = System.nanoTime() - solvingTime;
+            timeToFirstIncumbent = incumbentTimer.timeToFirstIncumbent;
+            if (isModelOptimal()) {
+                timeToGap = model.get(GRB.DoubleAttr.Runtime);
+            }
 
-            Logging.logger.info("# Matching - ILP - Building time = {}", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_ILP_BUILDING));
-            Logging.logger.info("# Matching - ILP - Opt. time     = {}", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_ILP_SOLVING));
+            Logging.logger.info("# Matching - ILP - Building time = {}", buildingTime / 1000000000.0);
+            Logging.logger.info("# Matching - ILP - Opt. time     = {}", solvingTime / 1000000000.0);
+            Logging.logger.info("# Matching - ILP - Warm start    = {}/{} vehicles keep their plan", nOfVehiclesStarted, vehicles.size());
+            Logging.logger.info("# Matching - ILP - First incumbent time = {} - Time to gap ({}) = {}", timeToFirstIncumbent, mipGap, timeToGap);
             if (isModelOptimal() || isTimeLimitReached()) {
 
                 if (isTimeLimitReached()) {
@@ -225,6 +313,7 @@ public class AssignmentILP {
 
                 extractResult();
                 extractObj();
+                solved = true;
 
                 assert (int) result.getTotalDelay() == (int) (objValueTotalWaiting + 0.5) : String.format("Delay: %s, Obj. Delay: %s", result.getTotalDelay(), objValueTotalWaiting);
                 assert this.result.getRequestsOK().size() == (int) this.objValTotalServiced;
@@ -260,6 +349,84 @@ public class AssignmentILP {
         return result;
     }
 
+    /**
+     * MIP start and variable hints from the previous round's assignment. Each vehicle keeps the visit servicing the same
+     * requests as its current visit (the current visit itself, if it is a candidate), provided the RTV graph still has
+     * such a visit. Variables of vehicles whose plan is no longer valid are left undefined, so the solver completes the
+     * partial start.
+     *
+     * @return Number of vehicles whose visit was set
+     */
+    protected int setStartFromPreviousAssignment() throws GRBException {
+        double[] start = new double[varVisitSelected.length];
+        Arrays.fill(start, GRB.UNDEFINED);
+        double[] startRejected = new double[varRequestRejected.length];
+        Arrays.fill(startRejected, GRB.UNDEFINED);
+
+        Set<User> serviced = new HashSet<>();
+        int nOfVehiclesStarted = 0;
+        for (Vehicle vehicle : vehicles) {
+            VisitObj previous = getVisitKeepingCurrentPlan(vehicle, getListOfVisitsFromVehicle(vehicle));
+
+            // Requests cannot be serviced twice in the start (e.g., outdated current visit)
+            if (previous == null || previous.getRequests().stream().anyMatch(serviced::contains)) {
+                continue;
+            }
+
+            for (VisitObj visit : getListOfVisitsFromVehicle(vehicle)) {
+                start[visitIndex.get(visit)] = visit == previous ? 1 : 0;
+            }
+            for (User request : previous.getRequests()) {
+                serviced.add(request);
+                if (requestIndex.containsKey(request)) {
+                    startRejected[requestIndex.get(request)] = 0;
+                }
+            }
+            nOfVehiclesStarted++;
+        }
+
+        model.set(GRB.DoubleAttr.Start, varVisitSelected, start);
+        model.set(GRB.DoubleAttr.VarHintVal, varVisitSelected, start);
+        model.set(GRB.DoubleAttr.Start, varRequestRejected, startRejected);
+        return nOfVehiclesStarted;
+    }
+
+    /**
+     * @return Candidate visit servicing the same requests as the vehicle's current visit (lowest delay), or null if
+     * the current plan is no longer valid
+     */
+    static VisitObj getVisitKeepingCurrentPlan(Vehicle vehicle, Set<VisitObj> candidates) {
+        VisitObj current = vehicle.getVisit();
+        if (current != null && candidates.contains(current)) {
+            return current;
+        }
+
+        Set<User> currentRequests = current == null ? Collections.emptySet() : current.getRequests();
+        return candidates.stream()
+                .filter(visit -> visit.getRequests().equals(currentRequests))
+                .min(Comparator.comparing(VisitObj::getDelay))
+                .orElse(null);
+    }
+
+    /**
+     * @return True, if a solution was extracted (optimal or at time limit)
+     */
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public double getTimeToFirstIncumbent() {
+        return timeToFirstIncumbent;
+    }
+
+    public double getTimeToGap() {
+        return timeToGap;
+    }
+
     public void printObj() {
         Logging.logger.info("## INPUT");
         Logging.logger.info("User count: {}", this.userVisitsMap.keySet().size());
@@ -469,14 +636,8 @@ public class AssignmentILP {
 
         String label = "TOT_WAIT_REJ";
         penObjectives.put(label, new ObjectiveFunction(label, new GRBLinExpr(), GRB.MINIMIZE));
-
-        for (VisitObj visit : visits) {
-            penObjectives.get(label).linExpr.addTerm(visit.getDelay(), varVisitSelected(visit));
-        }
-
-        for (User request : requests) {
-            penObjectives.get(label).linExpr.addTerm(rejectionPenalty, varRequestRejected(request));
-        }
+        penObjectives.get(label).linExpr.addTerms(getVisitDelays(), varVisitSelected);
+        penObjectives.get(label).linExpr.addTerms(filled(indexedRequests.length, rejectionPenalty), varRequestRejected);
     }
 
     protected void objHierarchicalRejection() {
@@ -489,8 +650,8 @@ public class AssignmentILP {
             penObjectives.put(label + qos.id, new ObjectiveFunction(label + qos.id, new GRBLinExpr(), GRB.MINIMIZE));
         }
 
-        for (User request : requests) {
-            penObjectives.get(label + request.qos.id).linExpr.addTerm(1, varRequestRejected(request));
+        for (int r = 0; r < indexedRequests.length; r++) {
+            penObjectives.get(label + indexedRequests[r].qos.id).linExpr.addTerm(1, varRequestRejected[r]);
         }
     }
 
@@ -498,43 +659,40 @@ public class AssignmentILP {
         // Violation penalty
         String label = "TOT_REJ";
         penObjectives.put(label, new ObjectiveFunction(label, new GRBLinExpr(), GRB.MINIMIZE));
-
-        for (User request : requests) {
-            penObjectives.get(label).linExpr.addTerm(1, varRequestRejected(request));
-        }
+        penObjectives.get(label).linExpr.addTerms(filled(indexedRequests.length, 1), varRequestRejected);
     }
 
     protected void objRequests() {
         // Violation penalty
         String label = "TOT_REQ";
         penObjectives.put(label, new ObjectiveFunction(label, new GRBLinExpr(), GRB.MAXIMIZE));
-
-        for (User request : requests) {
-            penObjectives.get(label).linExpr.addTerm(-1, varRequestRejected(request));
-            penObjectives.get(label).linExpr.addConstant(1);
-        }
+        penObjectives.get(label).linExpr.addTerms(filled(indexedRequests.length, -1), varRequestRejected);
+        penObjectives.get(label).linExpr.addConstant(indexedRequests.length);
     }
 
     protected void objRequestsPlusVfs() {
         // Violation penalty
         String label = "TOT_REQS_VFS";
         penObjectives.put(label, new ObjectiveFunction(label, new GRBLinExpr(), GRB.MAXIMIZE));
-
-        for (User request : requests) {
-            penObjectives.get(label).linExpr.addTerm(-1, varRequestRejected(request));
-            penObjectives.get(label).linExpr.addConstant(1);
-        }
-        for (VisitObj visit : visits) {
-            penObjectives.get(label).linExpr.addTerm(visit.getVF(), varVisitSelected(visit));
-        }
+        penObjectives.get(label).linExpr.addTerms(filled(indexedRequests.length, -1), varRequestRejected);
+        penObjectives.get(label).linExpr.addConstant(indexedRequests.length);
+        penObjectives.get(label).linExpr.addTerms(Arrays.stream(indexedVisits).mapToDouble(VisitObj::getVF).toArray(), varVisitSelected);
     }
 
     protected void objTotalWaitingTime() {
         String label = "TOT_WAIT";
         penObjectives.put(label, new ObjectiveFunction(label, new GRBLinExpr(), GRB.MINIMIZE));
-        for (VisitObj visit : visits) {
-            penObjectives.get(label).linExpr.addTerm(visit.getDelay(), varVisitSelected(visit));
-        }
+        penObjectives.get(label).linExpr.addTerms(getVisitDelays(), varVisitSelected);
+    }
+
+    private double[] getVisitDelays() {
+        return Arrays.stream(indexedVisits).mapToDouble(VisitObj::getDelay).toArray();
+    }
+
+    private static double[] filled(int length, double value) {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
     }
 
     Set<VisitObj> getListOfVisitsFromUser(User u) {
@@ -599,56 +757,57 @@ public class AssignmentILP {
         return varVisitSelected[visitIndex.get(visit)];
     }
 
-    protected void addIsRejectedVar(User request) throws GRBException {
-//        String label = String.format("x_rejected_%s", request.toString().replace(" ", "_").trim());
-        Integer idxRequest = requestIndex.get(request);
-        String label = String.format("x_rejected_%d", idxRequest);
-        varRequestRejected[idxRequest] = model.addVar(0, 1, 1, GRB.BINARY, label);
-    }
-
-    protected void addIsVisitChosenVar(VisitObj visit) throws GRBException {
-//        String label = String.format("x_visit_%s", getVarVisit(visit).replace(" ", "_").trim());
-        Integer idxVisit = visitIndex.get(visit);
-        String label = String.format("x_visit_%d", idxVisit);
-        varVisitSelected[idxVisit] = model.addVar(0, 1, visit.getDelay(), GRB.BINARY, label);
+    /**
+     * Add binary variables in a single batch.
+     */
+    private GRBVar[] addBinaryVars(double[] obj, String labelPrefix) throws GRBException {
+        char[] types = new char[obj.length];
+        Arrays.fill(types, GRB.BINARY);
+        String[] labels = new String[obj.length];
+        for (int i = 0; i < obj.length; i++) {
+            labels[i] = labelPrefix + i;
+        }
+        return model.addVars(new double[obj.length], filled(obj.length, 1), obj, types, labels);
     }
 
     protected void createGurobiModelAndEnvironment() throws GRBException {
 
 
-        model = new GRBModel(env);
+        model = new GRBModel(env.get());
         model.set(GRB.StringAttr.ModelName, "assignment_rtv");
         model.set(GRB.DoubleParam.TimeLimit, mipTimeLimit);
         model.set(GRB.DoubleParam.MIPGap, mipGap);
+        if (threads > 0) {
+            model.set(GRB.IntParam.Threads, threads);
+        }
 
     }
 
     protected void initVarsStandardAssignment() throws GRBException {
-        visitIndex = new HashMap<>();
-        int i = 0;
-        for (VisitObj v : visits) {
-            visitIndex.put(v, i);
-            i++;
+        indexedVisits = visits.toArray(new VisitObj[0]);
+        visitIndex = new HashMap<>(2 * indexedVisits.length);
+        for (int v = 0; v < indexedVisits.length; v++) {
+            visitIndex.put(indexedVisits[v], v);
         }
 
-        requestIndex = new HashMap<>();
-        int j = 0;
-        for (User request : requests) {
-            requestIndex.put(request, j);
-            j++;
+        indexedRequests = requests.toArray(new User[0]);
+        requestIndex = new HashMap<>(2 * indexedRequests.length);
+        for (int r = 0; r < indexedRequests.length; r++) {
+            requestIndex.put(indexedRequests[r], r);
         }
 
-        // Assignment variables: x[r][v] == 1 if request r is assigned to trip v
-        varVisitSelected = new GRBVar[visits.size()];
-        varRequestRejected = new GRBVar[requests.size()];
-
-        for (User request : requests) {
-            addIsRejectedVar(request);
+        visitRequestIndices = new int[indexedVisits.length][];
+        for (int v = 0; v < indexedVisits.length; v++) {
+            visitRequestIndices[v] = indexedVisits[v].getRequests().stream()
+                    .map(requestIndex::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
         }
 
-        for (VisitObj visit : visits) {
-            addIsVisitChosenVar(visit);
-        }
+        // Assignment variables: x[r][v] == 1 if request r is assigned to trip v
+        varRequestRejected = addBinaryVars(filled(indexedRequests.length, 1), "x_rejected_");
+        varVisitSelected = addBinaryVars(getVisitDelays(), "x_visit_");
     }
 
     protected Set<VisitObj> getListOfVisitsFromRequest(User request) {
@@ -664,21 +823,6 @@ public class AssignmentILP {
         return this.vehicleVisitsMap.get(vehicle);
     }
 
-    protected void oneVisitForEveryVehicle() throws GRBException {
-        for (Vehicle vehicle : this.vehicles) {
-
-            GRBLinExpr constrVehicleConservation = new GRBLinExpr();
-
-            for (VisitObj visit : this.getListOfVisitsFromVehicle(vehicle)) {
-                constrVehicleConservation.addTerm(1, varVisitSelected(visit));
-            }
-            // A target can be visited by at most one vehicle
-
-            String label = String.format("conservation_%s", vehicle.toString().replace(" ", "_").trim());
-            model.addConstr(constrVehicleConservation, GRB.EQUAL, 1, label);
-        }
-    }
-
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // CONSTRAINTS /////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -698,67 +842,19 @@ public class AssignmentILP {
         }
     }
 
-    protected void eachRequestToOneVehicle() throws GRBException {
-        // Requests are associated with only one visit
-        for (User request : requests) {
-
-            Set<VisitObj> requestVisits = this.getListOfVisitsFromUser(request);
-
-            GRBLinExpr constrRequestConservation = new GRBLinExpr();
-            for (VisitObj visit : requestVisits) {
-                constrRequestConservation.addTerm(1, varVisitSelected(visit));
-            }
-
-            // v1 + v2 + v3 + r1 = 1 // Request can be rejected because it was not previously assigned
-            // v1 + v2 + v3 = 1 // Cannot reject request!
-
-            // All requests can be rejected
-            if (!guaranteePreviouslyAssignedAreNotDisplaced) {
-                constrRequestConservation.addTerm(1, varRequestRejected(request));
-            } else if (!request.isPreviouslyAssigned()) {
-                constrRequestConservation.addTerm(1, varRequestRejected(request));
-            }
-            String label = String.format("request_visit_conservation_%d", requestIndex.get(request));
-            model.addConstr(constrRequestConservation, GRB.EQUAL, 1, label);
-        }
-    }
-
-    protected void previouslyAssignedMustBeServiced() throws GRBException {
-
-        for (User request : getPreviouslyAssignedUsers()) {
-
-            Set<VisitObj> requestVisits = this.getListOfVisitsFromUser(request);
-            GRBLinExpr constrRequestPreviouslyAssignedHaveToBeServiced = new GRBLinExpr();
-
-            for (VisitObj visit : requestVisits) {
-                if (request.isPreviouslyAssigned()) {
-                    constrRequestPreviouslyAssignedHaveToBeServiced.addTerm(1, varVisitSelected(visit));
-                }
-            }
-
-            String label = String.format("request_previously_assigned_is_serviced_%s", requestIndex.get(request));
-            model.addConstr(constrRequestPreviouslyAssignedHaveToBeServiced, GRB.EQUAL, 1, label);
-        }
-    }
-
-    private List<User> getPreviouslyAssignedUsers() {
-        return User.filterPreviouslyAssigned(requests);
-    }
-
     protected void extractResult() throws GRBException {
 
-        for (User request : requests) {
-
-            if (isRequestRejected(request)) {
-                result.accountRejected(request);
+        double[] rejected = model.get(GRB.DoubleAttr.X, varRequestRejected);
+        for (int r = 0; r < indexedRequests.length; r++) {
+            if (rejected[r] > 0.99) {
+                result.accountRejected(indexedRequests[r]);
             }
         }
 
-
-        for (VisitObj visit : visits) {
-
-            if (isVisitSelected(visit)) {
-                result.addVisit(visit);
+        double[] selected = model.get(GRB.DoubleAttr.X, varVisitSelected);
+        for (int v = 0; v < indexedVisits.length; v++) {
+            if (selected[v] > 0.99) {
+                result.addVisit(indexedVisits[v]);
             }
         }
 
@@ -768,10 +864,6 @@ public class AssignmentILP {
         result.getVehiclesDisrupted().removeAll(result.getVehiclesOK());
     }
 
-    private boolean isVisitSelected(VisitObj visit) throws GRBException {
-        return varVisitSelected(visit).get(GRB.DoubleAttr.X) > 0.99;
-    }
-
     protected boolean isRequestRejected(User request) throws GRBException {
         return varRequestRejected(request).get(GRB.DoubleAttr.X) > 0.99;
     }
@@ -781,6 +873,24 @@ public class AssignmentILP {
         return "_OPT-JAVIER";
     }
 
+    /**
+     * Records the solver time at which the first incumbent is found (e.g., the MIP start, if accepted).
+     */
+    private static class IncumbentTimer extends GRBCallback {
+        private double timeToFirstIncumbent = Double.NaN;
+
+        @Override
+        protected void callback() {
+            try {
+                if (where == GRB.CB_MIPSOL && Double.isNaN(timeToFirstIncumbent)) {
+                    timeToFirstIncumbent = getDoubleInfo(GRB.CB_RUNTIME);
+                }
+            } catch (GRBException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static class ObjectiveFunction {
         GRBLinExpr linExpr;
         int goal; //GRB.MAXIMIZE (1), GRB.MINIMIZE (-1)
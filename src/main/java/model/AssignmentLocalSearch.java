@@ -0,0 +1,210 @@
+package model;
+
+import config.Config;
+import config.Qos;
+import dao.Logging;
+import simulation.matching.Objective;
+import simulation.matching.ResultAssignment;
+
+import java.util.*;
+
+/**
+ * Pure-Java alternative to {@link AssignmentILP} (no Gurobi license or native library required). Solves the same RTV
+ * assignment model (one visit per vehicle, each request at most once, previously assigned requests must be serviced)
+ * with hierarchical objectives, using a greedy assignment improved by local search (see {@link VisitPackingSearch})
+ * within a time limit. Solutions are not proven optimal.
+ */
+public class AssignmentLocalSearch {
+
+    private final int rejectionPenalty = 1;
+    private final double timeLimit; // Seconds
+    public Map<Vehicle, Set<VisitObj>> vehicleVisitsMap;
+    public Map<User, Set<VisitObj>> userVisitsMap;
+    public double objValTotalRejected;
+    public double objValTotalServiced;
+    public double objValueTotalWaiting;
+    public double objValTotalServicedPlusVFs;
+    protected List<Vehicle> vehicles;
+    protected List<User> requests;
+    protected List<VisitObj> visits;
+    protected Map<User, Integer> requestIndex;
+    protected int currentTime;
+    protected boolean guaranteePreviouslyAssignedAreNotDisplaced;
+    ResultAssignment result;
+    private String[] orderedListOfObjectiveLabels;
+
+    public AssignmentLocalSearch(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Map<User, Set<VisitObj>> userVisitsMap, boolean guaranteePreviouslyAssignedAreNotDisplaced, double timeLimit) {
+        this.currentTime = currentTime;
+        this.vehicleVisitsMap = vehicleVisitsMap;
+        this.userVisitsMap = userVisitsMap;
+        this.guaranteePreviouslyAssignedAreNotDisplaced = guaranteePreviouslyAssignedAreNotDisplaced;
+        this.timeLimit = timeLimit;
+    }
+
+    public AssignmentLocalSearch(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Set<User> requests, boolean guaranteePreviouslyAssignedAreNotDisplaced, double timeLimit) {
+        this(currentTime, vehicleVisitsMap, AssignmentILP.extractUserVisitsMap(vehicleVisitsMap, requests), guaranteePreviouslyAssignedAreNotDisplaced, timeLimit);
+    }
+
+    public ResultAssignment getResult() {
+        return result;
+    }
+
+    public ResultAssignment run(String[] orderedListOfObjectiveLabels) {
+        this.orderedListOfObjectiveLabels = orderedListOfObjectiveLabels;
+        result = new ResultAssignment(currentTime);
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        // Building the model //////////////////////////////////////////////////////////////////////////////////////////
+        // Timed locally (not with the shared run times) since subproblems are solved concurrently
+        long buildingTime = System.nanoTime();
+        VisitPackingSearch search = createSearch();
+        buildingTime = System.nanoTime() - buildingTime;
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        // Solving the model ///////////////////////////////////////////////////////////////////////////////////////////
+        long solvingTime = System.nanoTime();
+        long deadline = solvingTime + (long) (timeLimit * 1e9);
+        int[] chosenVisit = search.solve(deadline);
+        solvingTime = System.nanoTime() - solvingTime;
+
+        Logging.logger.info("# Matching - Local search - Building time = {}", buildingTime / 1000000000.0);
+        Logging.logger.info("# Matching - Local search - Opt. time     = {}", solvingTime / 1000000000.0);
+        if (System.nanoTime() >= deadline) {
+            Logging.logger.info("{}", String.format("## TIME LIMIT REACHED = %.2f seconds", timeLimit));
+        }
+
+        extractResult(chosenVisit);
+        extractObj();
+        return result;
+    }
+
+    /**
+     * Index vehicles, requests, and visits, and compute the cost levels of each visit in objective order.
+     */
+    private VisitPackingSearch createSearch() {
+        vehicles = new ArrayList<>(vehicleVisitsMap.keySet());
+        requests = new ArrayList<>(userVisitsMap.keySet());
+        requestIndex = new HashMap<>();
+        for (int r = 0; r < requests.size(); r++) {
+            requestIndex.put(requests.get(r), r);
+        }
+
+        boolean[] mustServe = new boolean[requests.size()];
+        if (guaranteePreviouslyAssignedAreNotDisplaced) {
+            for (int r = 0; r < requests.size(); r++) {
+                mustServe[r] = requests.get(r).isPreviouslyAssigned();
+            }
+        }
+
+        visits = new ArrayList<>();
+        List<Integer> visitVehicle = new ArrayList<>();
+        for (int u = 0; u < vehicles.size(); u++) {
+            for (VisitObj visit : vehicleVisitsMap.get(vehicles.get(u))) {
+                visits.add(visit);
+                visitVehicle.add(u);
+            }
+        }
+
+        int[][] visitRequests = new int[visits.size()][];
+        double[][] visitCost = new double[visits.size()][];
+        for (int v = 0; v < visits.size(); v++) {
+            VisitObj visit = visits.get(v);
+            visitRequests[v] = visit.getRequests().stream()
+                    .filter(requestIndex::containsKey)
+                    .mapToInt(requestIndex::get)
+                    .toArray();
+            visitCost[v] = getCostLevels(visit, visitRequests[v]);
+        }
+
+        return new VisitPackingSearch(
+                vehicles.size(),
+                requests.size(),
+                visitVehicle.stream().mapToInt(Integer::intValue).toArray(),
+                visitRequests,
+                visitCost,
+                mustServe);
+    }
+
+    /**
+     * Cost levels of a visit (minimized in order). Rejections are accounted as serviced requests with negative cost.
+     */
+    private double[] getCostLevels(VisitObj visit, int[] visitRequests) {
+        List<Double> levels = new ArrayList<>();
+        int nOfServiced = visitRequests.length;
+        for (String objective : orderedListOfObjectiveLabels) {
+            switch (objective) {
+                case Objective.HIERARCHICAL_REJECTION -> {
+                    for (Qos qos : Config.getInstance().getSortedQosList()) {
+                        levels.add(-(double) Arrays.stream(visitRequests).filter(r -> requests.get(r).qos == qos).count());
+                    }
+                }
+                case Objective.TOTAL_WAITING_AND_REJECTION -> levels.add(visit.getDelay() - (double) rejectionPenalty * nOfServiced);
+                case Objective.TOTAL_REJECTION, Objective.TOTAL_REQUESTS -> levels.add(-(double) nOfServiced);
+                case Objective.TOTAL_REQUESTS_PLUS_VFS -> levels.add(-(nOfServiced + visit.getVF()));
+                case Objective.TOTAL_WAITING -> levels.add((double) visit.getDelay());
+            }
+        }
+        return levels.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    protected void extractResult(int[] chosenVisit) {
+
+        boolean[] serviced = new boolean[requests.size()];
+        for (int u = 0; u < vehicles.size(); u++) {
+            if (chosenVisit[u] < 0) {
+                Logging.logger.info("# Matching - Local search - No visit can be assigned to vehicle {}", vehicles.get(u));
+                continue;
+            }
+            VisitObj visit = visits.get(chosenVisit[u]);
+            result.addVisit(visit);
+            for (User request : visit.getRequests()) {
+                Integer r = requestIndex.get(request);
+                if (r != null) {
+                    serviced[r] = true;
+                }
+            }
+        }
+
+        for (int r = 0; r < requests.size(); r++) {
+            if (!serviced[r]) {
+                if (mustBeServiced(requests.get(r))) {
+                    Logging.logger.info("# Matching - Local search - Previously assigned request cannot be serviced: {}", requests.get(r));
+                }
+                result.accountRejected(requests.get(r));
+            }
+        }
+
+        // Update unassigned vehicles that were previously carrying users.
+        // Some vehicles might have lost users but were later associated to new visits (are in vehiclesOK).
+        result.getVehiclesDisrupted().removeAll(result.getVehiclesOK());
+    }
+
+    private boolean mustBeServiced(User request) {
+        return guaranteePreviouslyAssignedAreNotDisplaced && request.isPreviouslyAssigned();
+    }
+
+    private void extractObj() {
+        this.objValTotalRejected = result.getRequestsUnassigned().size();
+        this.objValTotalServiced = this.requests.size() - this.objValTotalRejected;
+        result.setObjValTotalRejected(this.objValTotalRejected);
+        result.setObjValTotalServiced(this.objValTotalServiced);
+
+        for (String objective : orderedListOfObjectiveLabels) {
+            switch (objective) {
+                case Objective.TOTAL_REQUESTS_PLUS_VFS -> {
+                    this.objValTotalServicedPlusVFs = result.getTotalVFs() + this.objValTotalServiced;
+                    result.setObjValRequestsPlusVFs(this.objValTotalServicedPlusVFs);
+                }
+                case Objective.TOTAL_WAITING -> {
+                    this.objValueTotalWaiting = result.getTotalDelay();
+                    result.setObjValTotalWaiting(this.objValueTotalWaiting);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "_LOCAL-SEARCH";
+    }
+}
@@ -161,7 +161,7 @@ public class Leg implements Comparable<Leg> {
         }
 
         User uFrom = User.mapOfUsers.get(fromNode.getTripId());
-        return uFrom.isSharingAllowed() || nextNode.getTripId() == fromNode.getTripId();
+        return uFrom.isSharingAllowed() || fromNode.getTripId().equals(nextNode.getTripId());
     }
 
 
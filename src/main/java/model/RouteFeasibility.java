@@ -0,0 +1,279 @@
+package model;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import model.node.Node;
+import model.node.NodeDP;
+import model.node.NodePK;
+import simulation.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free version of {@link Visit#getDraftVisit(Vehicle, Node[])}. The state of the sequence being checked
+ * (arrival, load, delays, idleness, size, and last node) is kept in a caller-provided int array, so candidate
+ * sequences can be compared without creating {@link Leg} objects and a {@link Visit} is only created for the best
+ * sequence. Node data (network id, load, time windows, and trip) is read once per visit build into int arrays (see
+ * {@link Nodes}), so legs do not unbox {@link Node} fields.
+ * <p>
+ * Checks and state updates follow {@link Leg#updateNextNode(Node)}:
+ * - Load is within [0, capacity]
+ * - Arrival is within [earliest departure, latest] (delays are accounted at drop-off nodes)
+ * - Solo riders are not combined with other requests
+ * - Arrival is within the vehicle's contract deadline
+ */
+public final class RouteFeasibility {
+
+    // Indexes of the state array
+    public static final int ARRIVAL = 0;
+    public static final int LOAD = 1;
+    public static final int DELAY = 2;
+    public static final int DELAY_BONUS = 3;
+    public static final int IDLENESS = 4;
+    public static final int SIZE = 5;
+    // Network id of the node the next leg departs from
+    public static final int FROM_NETWORK_ID = 6;
+    // Trip id the next node must belong to (the last node is the pickup of a solo rider), NO_TRIP otherwise
+    public static final int FROM_SOLO_TRIP = 7;
+    public static final int STATE_SIZE = 8;
+
+    // Trip id of nodes without trip (user ids and middle node ids are greater)
+    private static final int NO_TRIP = Integer.MIN_VALUE;
+
+    private static final byte OTHER = 0;
+    private static final byte PICKUP = 1;
+    private static final byte DROPOFF = 2;
+
+    private RouteFeasibility() {
+    }
+
+    /**
+     * @return New state array (see {@link #check(Vehicle, Nodes, int[])})
+     */
+    public static int[] newState() {
+        return new int[STATE_SIZE];
+    }
+
+    /**
+     * Check whether vehicle can carry out the pickup and delivery sequence.
+     *
+     * @param vehicle         Vehicle carrying out visit
+     * @param validPDSequence Valid pickup and delivery sequence (see {@link Nodes#set(Node[])})
+     * @param state           Filled with arrival, load, delays, idleness, and size of the last leg
+     * @return True, if sequence is feasible (state is only meaningful in this case)
+     */
+    public static boolean check(Vehicle vehicle, Nodes validPDSequence, int[] state) {
+
+        DistanceMatrix distMatrix = Dao.getInstance().getDistMatrix();
+        int maxCapacity = vehicle.getCapacity();
+        int contractDeadline = vehicle.getContractDeadline();
+
+        start(vehicle, validPDSequence, 0, state);
+
+        for (int i = 0; i < validPDSequence.length; i++) {
+            if (!updateNextNode(validPDSequence, i, state, maxCapacity, contractDeadline, distMatrix)) {
+                return false;
+            }
+            assert state[ARRIVAL] >= Simulation.rightTW;
+        }
+        return true;
+    }
+
+    /**
+     * Initialize state at the vehicle's last visited node, adding the leg to the middle node when needed.
+     *
+     * @param vehicle Vehicle carrying out visit
+     * @param nodes   Nodes of the pickup and delivery sequence
+     * @param first   Index of the sequence's first node
+     * @param state   Filled with the state before the sequence's first leg
+     */
+    public static void start(Vehicle vehicle, Nodes nodes, int first, int[] state) {
+
+        // Leg always start from a vehicle's last visited node
+        Node lastVisitedNode = vehicle.getLastVisitedNode();
+        state[ARRIVAL] = vehicle.getEarliestDeparture();
+        state[LOAD] = vehicle.getCurrentLoad();
+        state[DELAY] = 0;
+        state[DELAY_BONUS] = 0;
+        state[IDLENESS] = 0;
+        state[SIZE] = 0;
+        state[FROM_NETWORK_ID] = lastVisitedNode.getNetworkId();
+        state[FROM_SOLO_TRIP] = lastVisitedNode instanceof NodePK && !User.isSharingAllowed(lastVisitedNode.getTripId()) ? lastVisitedNode.getTripId() : NO_TRIP;
+
+        // Middle node is added if vehicle is moving to a different node (see Visit.getDraftVisit)
+        if (vehicle.hasLeftLastNode() && (vehicle.isServicing() || vehicle.isRebalancing())) {
+            Node middle = vehicle.getMiddleNode();
+            assert middle != null : String.format("vehicle=%s, visit=%s, node=%s", vehicle, vehicle.getVisit(), lastVisitedNode.getInfo());
+            if (!vehicle.isMovingToNode(first < nodes.length ? nodes.get(first) : null)) {
+                // As in Visit.getDraftVisit, a failed leg to the middle node does not discard the sequence
+                nodes.setMiddle(middle);
+                updateNextNode(nodes, nodes.length, state, vehicle.getCapacity(), vehicle.getContractDeadline(), Dao.getInstance().getDistMatrix());
+            }
+        }
+    }
+
+    /**
+     * Extend state with the leg to node "next" (used to check sequences one leg at a time).
+     *
+     * @return True, if leg is valid regarding load, sharing, and time constraints.
+     */
+    public static boolean extend(Vehicle vehicle, Nodes nodes, int next, int[] state) {
+        return updateNextNode(nodes, next, state, vehicle.getCapacity(), vehicle.getContractDeadline(), Dao.getInstance().getDistMatrix());
+    }
+
+    /**
+     * @return True, if state of sequence a is better than state of sequence b (see {@link Leg#legComparator})
+     */
+    public static boolean isBetter(int[] a, int[] b) {
+        if (a[DELAY] != b[DELAY]) {
+            return a[DELAY] < b[DELAY];
+        }
+        if (a[SIZE] != b[SIZE]) {
+            return a[SIZE] < b[SIZE];
+        }
+        return a[IDLENESS] < b[IDLENESS];
+    }
+
+    /**
+     * Update state with the leg to node "next" (see {@link Leg#updateNextNode(Node)}). The node the leg departs from
+     * only changes if the leg is valid.
+     *
+     * @return True, if leg is valid regarding load, sharing, and time constraints.
+     */
+    private static boolean updateNextNode(Nodes nodes, int next, int[] state, int maxCapacity, int contractDeadline, DistanceMatrix distMatrix) {
+
+        state[SIZE]++;
+
+        // Capacity constraint (DP nodes have negative loads)
+        state[LOAD] += nodes.load[next];
+        if (state[LOAD] < 0 || state[LOAD] > maxCapacity) {
+            return false;
+        }
+
+        // No path available
+        int distFromTo = distMatrix.get(state[FROM_NETWORK_ID], nodes.networkId[next]);
+        if (distFromTo < 0) {
+            return false;
+        }
+
+        int arrival = Math.max(state[ARRIVAL] + distFromTo, Simulation.rightTW);
+        state[ARRIVAL] = arrival;
+
+        int latest = nodes.latest[next];
+        if (arrival < nodes.earliestDeparture[next] || arrival > latest) {
+            return false;
+        }
+
+        if (nodes.type[next] == PICKUP) {
+            state[DELAY_BONUS] += latest - arrival;
+        } else if (nodes.type[next] == DROPOFF) {
+            state[DELAY] += arrival - nodes.earliest[next];
+            state[DELAY_BONUS] += latest - arrival;
+        }
+
+        // Solo riders go straight from pickup to drop-off
+        if (state[FROM_SOLO_TRIP] != NO_TRIP && state[FROM_SOLO_TRIP] != nodes.tripId[next]) {
+            return false;
+        }
+
+        if (arrival > contractDeadline) {
+            return false;
+        }
+
+        state[FROM_NETWORK_ID] = nodes.networkId[next];
+        state[FROM_SOLO_TRIP] = nodes.soloTripId[next];
+        return true;
+    }
+
+    /**
+     * Node data read by the legs, indexed by position in a sequence (the position after the last node holds the
+     * vehicle's middle node). Arrays grow as longer sequences are set, so a single instance can be reused for all
+     * sequences checked in a visit build.
+     */
+    public static final class Nodes {
+        private Node[] nodes = new Node[0];
+        private int length;
+        private int[] networkId = new int[1];
+        private int[] load = new int[1];
+        private int[] earliest = new int[1];
+        private int[] earliestDeparture = new int[1];
+        private int[] latest = new int[1];
+        private int[] tripId = new int[1];
+        // Trip id of pickups of solo riders, NO_TRIP otherwise
+        private int[] soloTripId = new int[1];
+        private byte[] type = new byte[1];
+
+        /**
+         * @param sequence Pickup and delivery sequence
+         * @return Node data of the sequence
+         */
+        public static Nodes of(Node[] sequence) {
+            return new Nodes().set(sequence);
+        }
+
+        /**
+         * Replace node data with the nodes of a sequence.
+         *
+         * @param sequence Pickup and delivery sequence
+         * @return This
+         */
+        public Nodes set(Node[] sequence) {
+            if (sequence.length + 1 > networkId.length) {
+                int capacity = sequence.length + 1;
+                networkId = Arrays.copyOf(networkId, capacity);
+                load = Arrays.copyOf(load, capacity);
+                earliest = Arrays.copyOf(earliest, capacity);
+                earliestDeparture = Arrays.copyOf(earliestDeparture, capacity);
+                latest = Arrays.copyOf(latest, capacity);
+                tripId = Arrays.copyOf(tripId, capacity);
+                soloTripId = Arrays.copyOf(soloTripId, capacity);
+                type = Arrays.copyOf(type, capacity);
+            }
+            this.nodes = sequence;
+            this.length = sequence.length;
+            for (int i = 0; i < sequence.length; i++) {
+                set(i, sequence[i]);
+            }
+            return this;
+        }
+
+        /**
+         * @return Number of nodes in sequence
+         */
+        public int length() {
+            return length;
+        }
+
+        public Node get(int i) {
+            return nodes[i];
+        }
+
+        public int getLatest(int i) {
+            return latest[i];
+        }
+
+        public int getEarliest(int i) {
+            return earliest[i];
+        }
+
+        public boolean isDropoff(int i) {
+            return type[i] == DROPOFF;
+        }
+
+        private void setMiddle(Node middle) {
+            set(length, middle);
+        }
+
+        private void set(int i, Node node) {
+            networkId[i] = node.getNetworkId();
+            load[i] = node.getLoad();
+            // Only read at drop-off nodes
+            earliest[i] = node.getEarliest() != null ? node.getEarliest() : 0;
+            earliestDeparture[i] = node.getEarliestDeparture();
+            latest[i] = node.getLatest();
+            tripId[i] = node.getTripId() != null ? node.getTripId() : NO_TRIP;
+            type[i] = node instanceof NodePK ? PICKUP : node instanceof NodeDP ? DROPOFF : OTHER;
+            soloTripId[i] = type[i] == PICKUP && !User.isSharingAllowed(tripId[i]) ? tripId[i] : NO_TRIP;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package model;
+
+import dao.Dao;
+import model.node.Node;
+import model.node.NodeDP;
+
+import java.util.List;
+
+/**
+ * Forward states and backward slacks of a vehicle's scheduled sequence, precomputed in linear time so a request
+ * insertion can be checked without walking the whole sequence (see {@link Vehicle#getVisitWithInsertedUser}).
+ * <p>
+ * Legs follow {@link Visit#isLegInvalid(Node, Node, int[], int)}: a vehicle arriving before the earliest time of a node
+ * waits, i.e., arrival at node k is max(arrival at k-1 + dist, earliest_k). Then, for the suffix starting at node i:
+ * - Arrivals never decrease as the arrival at node i increases, hence the suffix is feasible if and only if the
+ * (unclamped) arrival at node i is no later than the suffix's latest start time.
+ * - If the vehicle never waits in the suffix (i.e., arrival at node i is no earlier than its no-wait time), every
+ * arrival is shifted by the same amount, so the suffix delay is linear in the arrival at node i.
+ * <p>
+ * Inserting a request does not change the loads after its drop-off, hence loads and private ride constraints of the
+ * suffix only depend on the sequence.
+ */
+class ScheduleSlack {
+
+    private final Node[] nodes;
+    private final int capacity;
+
+    // Forward states (arrival, load, delay) after visiting node k from the vehicle's last visited node
+    private final int[][] prefix;
+    // Number of nodes that can be visited in order from the vehicle's last visited node
+    private final int nOfFeasiblePrefixNodes;
+
+    // Backward data of suffixes starting at node i (the leg into node i is not included)
+    private final int[] dist; // From node i to node i+1
+    private final boolean[] feasibleSuffix; // Time-independent constraints (load, private rides, paths)
+    private final int[] latestStart; // Latest (unclamped) arrival at node i
+    private final int[] noWaitStart; // Earliest (unclamped) arrival at node i such that vehicle does not wait
+    private final int[] nOfDropoffs; // Drop-offs in suffix
+    private final int[] delayOffset; // Suffix delay = nOfDropoffs * arrival + delayOffset (if vehicle does not wait)
+
+    ScheduleSlack(List<Node> sequence, Node lastVisitedNode, int departure, int load, int capacity) {
+        this.nodes = sequence.toArray(new Node[0]);
+        this.capacity = capacity;
+        int n = nodes.length;
+
+        // Forward pass
+        this.prefix = new int[n][];
+        int[] cumulativeLeg = new int[]{departure, load, 0};
+        Node current = lastVisitedNode;
+        int k = 0;
+        while (k < n && !Visit.isLegInvalid(current, nodes[k], cumulativeLeg, capacity)) {
+            prefix[k] = cumulativeLeg.clone();
+            current = nodes[k];
+            k++;
+        }
+        this.nOfFeasiblePrefixNodes = k;
+
+        // Loads in the original sequence (unchanged after an inserted drop-off)
+        int[] loads = new int[n];
+        for (int i = 0; i < n; i++) {
+            load += nodes[i].getLoad();
+            loads[i] = load;
+        }
+
+        // Backward pass
+        this.dist = new int[n];
+        this.feasibleSuffix = new boolean[n];
+        this.latestStart = new int[n];
+        this.noWaitStart = new int[n];
+        this.nOfDropoffs = new int[n];
+        this.delayOffset = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            Node node = nodes[i];
+            int isDropoff = node instanceof NodeDP ? 1 : 0;
+            boolean feasibleNode = loads[i] >= 0 && loads[i] <= capacity && node.getEarliest() <= node.getLatest();
+
+            if (i == n - 1) {
+                feasibleSuffix[i] = feasibleNode;
+                latestStart[i] = node.getLatest();
+                noWaitStart[i] = node.getEarliest();
+                nOfDropoffs[i] = isDropoff;
+                delayOffset[i] = -isDropoff * node.getEarliest();
+            } else {
+                dist[i] = Dao.getInstance().getDistSec(node, nodes[i + 1]);
+                feasibleSuffix[i] = feasibleNode
+                        && dist[i] >= 0
+                        && Visit.isSharingRespected(node, nodes[i + 1])
+                        && feasibleSuffix[i + 1]
+                        && node.getEarliest() + dist[i] <= latestStart[i + 1];
+                latestStart[i] = Math.min(node.getLatest(), latestStart[i + 1] - dist[i]);
+                noWaitStart[i] = Math.max(node.getEarliest(), noWaitStart[i + 1] - dist[i]);
+                nOfDropoffs[i] = isDropoff + nOfDropoffs[i + 1];
+                delayOffset[i] = -isDropoff * node.getEarliest() + delayOffset[i + 1] + nOfDropoffs[i + 1] * dist[i];
+            }
+        }
+    }
+
+    int size() {
+        return nodes.length;
+    }
+
+    Node get(int i) {
+        return nodes[i];
+    }
+
+    /**
+     * Copy state after visiting the first "nOfNodes" nodes of the sequence from the vehicle's last visited node.
+     *
+     * @param nOfNodes      Number of nodes visited (at least one)
+     * @param cumulativeLeg Filled with arrival, load, and delay
+     * @return False, if such nodes cannot be visited in order
+     */
+    boolean copyPrefixState(int nOfNodes, int[] cumulativeLeg) {
+        if (nOfNodes > nOfFeasiblePrefixNodes) {
+            return false;
+        }
+        System.arraycopy(prefix[nOfNodes - 1], 0, cumulativeLeg, 0, cumulativeLeg.length);
+        return true;
+    }
+
+    /**
+     * Visit the suffix starting at node i from "fromNode". Same result as checking each leg with
+     * {@link Visit#isLegInvalid(Node, Node, int[], int)}, but constant time unless the vehicle waits in the suffix.
+     *
+     * @param i             First node of suffix (suffix is empty if i is the sequence size)
+     * @param fromNode      Node visited before the suffix
+     * @param cumulativeLeg State at "fromNode" (only the delay is updated to the end of the suffix)
+     * @return False, if suffix cannot be visited
+     */
+    boolean appendSuffix(int i, Node fromNode, int[] cumulativeLeg) {
+        int n = nodes.length;
+        if (i == n) {
+            return true;
+        }
+
+        // Leg into the suffix depends on "fromNode" (loads and private rides)
+        if (Visit.isLegInvalid(fromNode, nodes[i], cumulativeLeg, capacity)) {
+            return false;
+        }
+        if (i == n - 1) {
+            return true;
+        }
+
+        int arrival = cumulativeLeg[Vehicle.ARRIVAL] + dist[i];
+        if (dist[i] < 0 || !Visit.isSharingRespected(nodes[i], nodes[i + 1])
+                || !feasibleSuffix[i + 1] || arrival > latestStart[i + 1]) {
+            return false;
+        }
+
+        if (arrival >= noWaitStart[i + 1]) {
+            cumulativeLeg[Vehicle.DELAY] += nOfDropoffs[i + 1] * arrival + delayOffset[i + 1];
+            return true;
+        }
+
+        // Vehicle waits somewhere in the suffix, arrivals are not shifted uniformly
+        for (int k = i + 1; k < n; k++) {
+            if (Visit.isLegInvalid(nodes[k - 1], nodes[k], cumulativeLeg, capacity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
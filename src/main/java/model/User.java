@@ -34,8 +34,12 @@ public class User implements Comparable<User> {
     public static int[][] status = new int[Node.MAX_NUMBER_NODES][5];
     // Map of all users (key = user id)
     public static Map<Integer, User> mapOfUsers = new HashMap<>();
+    // Ids of users allowed to share rides (read in feasibility checks without looking up users)
+    private static BitSet sharingAllowedIds = new BitSet();
     // If user cannot be picked up, service levels are lowered (this regulates MET and UNMET)
     public boolean serviceLevelLowered;
+    // Number of times service levels were lowered (cached feasibility results are checked again after each lowering)
+    private int serviceLevelLowerings;
     public Qos qos;
     // Model.User id
     private int id;
@@ -56,8 +60,11 @@ public class User implements Comparable<User> {
     private boolean sharingAllowed;
     // User performance class (A, B, and C)
     private String performanceClass;
-    // Record from data set that originated request
+    // Record from data set that originated request (null if read from a request log)
     private CSVRecord record;
+    // Pickup and dropoff network ids (nodes are created once the performance class is set)
+    private int originId, destinationId;
+    private Date earliestDatetime;
     private short waitingRounds;
 
     /**
@@ -67,13 +74,31 @@ public class User implements Comparable<User> {
      */
     public User(Date earliestDatetime, CSVRecord record) {
 
-        int originId = Integer.parseInt(record.get(Dao.PICKUP_NODE_ID));
-        int destinationId = Integer.parseInt(record.get(Dao.DROPOFF_NODE_ID));
+        this(Config.getInstance().date2Seconds(earliestDatetime, record.get(Dao.PICKUP_DATETIME)),
+                Integer.parseInt(record.get(Dao.PASSENGER_COUNT)),
+                Integer.parseInt(record.get(Dao.PICKUP_NODE_ID)),
+                Integer.parseInt(record.get(Dao.DROPOFF_NODE_ID)),
+                earliestDatetime);
+        this.record = record;
+    }
+
+    /**
+     * Construct user from request data (e.g., read from a request log).
+     *
+     * @param reqTime          Seconds from earliest datetime
+     * @param numPassengers    Number of passengers
+     * @param originId         Pickup network id
+     * @param destinationId    Dropoff network id
+     * @param earliestDatetime Earliest datetime of the simulation
+     */
+    public User(int reqTime, int numPassengers, int originId, int destinationId, Date earliestDatetime) {
+        this.originId = originId;
+        this.destinationId = destinationId;
         this.distFromTo = Dao.getInstance().getDistSec(originId, destinationId);
-        this.reqTime = Config.getInstance().date2Seconds(earliestDatetime, record.get(Dao.PICKUP_DATETIME));
-        this.setNumPassengers(Integer.parseInt(record.get(Dao.PASSENGER_COUNT)));
+        this.reqTime = reqTime;
+        this.setNumPassengers(numPassengers);
         this.id = ++nTrips;
-        this.record = record;
+        this.earliestDatetime = earliestDatetime;
         this.servedBy = User.WAITING;
     }
 
@@ -166,6 +191,7 @@ public class User implements Comparable<User> {
     public static void reset() {
         /* Reset user */
         mapOfUsers = new HashMap<>();
+        sharingAllowedIds = new BitSet();
         nTrips = 0;
         status = new int[Node.MAX_NUMBER_NODES][5];
     }
@@ -213,6 +239,9 @@ public class User implements Comparable<User> {
     }
 
     public String getPickupDatetime() {
+        if (this.record == null) {
+            return Config.sec2Datetime(this.earliestDatetime, this.reqTime);
+        }
         return this.record.get("pickup_datetime");
     }
 
@@ -228,12 +257,23 @@ public class User implements Comparable<User> {
         return sharingAllowed;
     }
 
+    /**
+     * @param userId User id
+     * @return True, if user is allowed to share rides
+     */
+    public static boolean isSharingAllowed(int userId) {
+        return sharingAllowedIds.get(userId);
+    }
+
+    public void setSharingAllowed(boolean sharingAllowed) {
+        this.sharingAllowed = sharingAllowed;
+        sharingAllowedIds.set(this.id, sharingAllowed);
+    }
+
     public void updatePerformanceClass(String performanceClass) {
 
         this.performanceClass = performanceClass;
 
-        int originId = Integer.parseInt(record.get(Dao.PICKUP_NODE_ID));
-        int destinationId = Integer.parseInt(record.get(Dao.DROPOFF_NODE_ID));
         double originLat = 0; //Double.parseDouble(record.get("pickup_latitude"));
         double originLon = 0; //Double.parseDouble(record.get("pickup_longitude"));
         double destinationLat = 0; //Double.parseDouble(record.get("dropoff_latitude"));
@@ -242,6 +282,7 @@ public class User implements Comparable<User> {
         int dp_earliest = Method.getEarliestDp(this.reqTime, originId, destinationId, performanceClass);
         int dp_latest = Method.getLatestDp(this.reqTime, originId, destinationId, performanceClass);
         this.sharingAllowed = Config.getInstance().qosDic.get(this.performanceClass).allowedSharing;
+        sharingAllowedIds.set(this.id, this.sharingAllowed);
         this.qos = getInstance().qosDic.get(this.performanceClass);
 
         //Logging.logger.info(this.reqTime + "-" + pk_latest + ": " +  dp_earliest + ": " + " = " + dp_latest);
@@ -330,6 +371,14 @@ public class User implements Comparable<User> {
         this.rideTime = rideTime;
     }
 
+    public int getOriginId() {
+        return originId;
+    }
+
+    public int getDestinationId() {
+        return destinationId;
+    }
+
     public int getNumPassengers() {
         return numPassengers;
     }
@@ -355,6 +404,11 @@ public class User implements Comparable<User> {
         this.nodePk.increaseLatest(extraDelay);
         this.nodeDp.increaseLatest(extraDelay);
         this.serviceLevelLowered = true;
+        this.serviceLevelLowerings++;
+    }
+
+    public int getServiceLevelLowerings() {
+        return serviceLevelLowerings;
     }
 
     public boolean isRejected() {
@@ -605,77 +605,61 @@ public class Vehicle implements Comparable<Vehicle>, Cloneable {
         // Vehicle has a visit /////////////////////////////////////////////////////////////////////////////////////////
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-        // First best including new users is initiated blank
-        Visit bestVisit = new Visit();
-
         // Copy elements in vehicle visit to candidate sequence that will be formed
         List<Node> visitsVehicle = this.getVisit().getSequenceVisits();
 
-        //------------------------------------------------------------------------------------------------------------//
-        //------ Loop pk positions -----------------------------------------------------------------------------------//
-        //------------------------------------------------------------------------------------------------------------//
+        // Arrival, load, and delay before pk, and slack after dp are shared by all insertions (linear precomputation)
+        ScheduleSlack schedule = new ScheduleSlack(
+                visitsVehicle,
+                this.getLastVisitedNode(),
+                this.getDepartureCurrent(),
+                this.currentLoad,
+                this.capacity);
 
-        pkcontinue:
-        for (int pkPos = 0; pkPos <= visitsVehicle.size(); pkPos++) {
+        int n = schedule.size();
 
-            //int currentLoad = this.getLastVisitedNode().getCurrentLoad();
+        // Best insertion (compared as in Visit.visitComparator, i.e., delay and sequence size)
+        int bestPkPos = -1;
+        int bestDpPos = -1;
+        int bestDelay = Integer.MAX_VALUE;
+        int bestSize = Integer.MAX_VALUE;
 
-            int currentLoad = this.currentLoad;
+        // Status throughout sequence (arrival, currentLoad, delay)
+        int[] cumulativeLegPK = new int[3];
+        int[] cumulativeLeg = new int[3];
 
-            int departureTimeFromVehicle = this.getDepartureCurrent();
+        // Check if first leg will be changed. If so, departure time from vehicle is current simulation time
+        Node middle = this.getMiddleNode();
 
-            // Status throughout sequence (arrival, currentLoad, delay, idle)
-            int[] cumulativeLegPK = new int[]{
-                    departureTimeFromVehicle,
-                    currentLoad,
-                    0};
+        //------------------------------------------------------------------------------------------------------------//
+        //------ Loop pk positions -----------------------------------------------------------------------------------//
+        //------------------------------------------------------------------------------------------------------------//
 
-            // Current node is vehicle
-            Node currentPK = this.getLastVisitedNode();
+        for (int pkPos = 0; pkPos <= n; pkPos++) {
 
-            // Check if first leg will be changed. If so, departure time from vehicle is current simulation time
-            Node middle = null;
+            Node currentPK;
 
             if (pkPos == 0) {
 
-                //CURRENT TO MIDDLE
-                middle = this.getMiddleNode();
-
                 // Can't move to a middle node, go to next pk
                 if (middle == null) {
                     continue;
                 }
 
-                // Update arrival in middle
-                cumulativeLegPK[ARRIVAL] += this.distMiddleNode;
+                //CURRENT TO MIDDLE
+                cumulativeLegPK[ARRIVAL] = this.getDepartureCurrent() + this.distMiddleNode;
+                cumulativeLegPK[LOAD] = this.currentLoad;
+                cumulativeLegPK[DELAY] = 0;
                 currentPK = middle;
 
-                /*
-
-                Logging.logger.info("{}", String.format("Shortest path between %s(%d) and %s(%d): %s",
-                        this.getLastVisitedNode(),
-                        this.getLastVisitedNode().getNetworkId(),
-                        visitsVehicle.get(pkPos),
-                        visitsVehicle.get(pkPos).getNetworkId(),
-                        Dao.getInstance().getShortestPathBetween(
-                                this.getLastVisitedNode().getNetworkId(),
-                                visitsVehicle.get(pkPos).getNetworkId())));
-                */
-            }
-
-            // #### Before PK ##########################################################################################
-            for (int i = 0; i < pkPos; i++) {
-
-                // Get next in sequence
-                Node next = visitsVehicle.get(i);
+            } else {
 
-                // Check if it is possible to go from current to next
-                if (this.isLegInvalid(currentPK, next, cumulativeLegPK)) {
-                    continue pkcontinue;
+                // #### Before PK ######################################################################################
+                // Nodes before pk cannot be visited, neither for later pk positions
+                if (!schedule.copyPrefixState(pkPos, cumulativeLegPK)) {
+                    break;
                 }
-
-                // Update current
-                currentPK = next;
+                currentPK = schedule.get(pkPos - 1);
             }
 
             // #### PK #################################################################################################
@@ -684,89 +668,63 @@ public class Vehicle implements Comparable<Vehicle>, Cloneable {
             }
 
             // Update current
-            currentPK = candidateRequest.getNodePk();
-
-            dpcontinue:
-            for (int dpPos = pkPos; dpPos <= visitsVehicle.size(); dpPos++) {
+            Node current = candidateRequest.getNodePk();
 
-                // Go back to last configuration
-                int[] cumulativeLeg = cumulativeLegPK.clone();
-                Node current = currentPK;
+            for (int dpPos = pkPos; dpPos <= n; dpPos++) {
 
                 // #### Between PK and DP ##############################################################################
-                for (int i = pkPos; i < dpPos; i++) {
-
-                    // Get next in sequence
-                    Node next = visitsVehicle.get(i);
-
-                    // Check if it is possible to go from current to next
-                    if (this.isLegInvalid(current, next, cumulativeLeg)) {
-                        continue dpcontinue;
+                // Extended one node at a time. If it cannot be visited, neither can it for later dp positions.
+                if (dpPos > pkPos) {
+                    Node next = schedule.get(dpPos - 1);
+                    if (this.isLegInvalid(current, next, cumulativeLegPK)) {
+                        break;
                     }
-
-                    // Update current
                     current = next;
                 }
 
+                // Go back to last configuration
+                System.arraycopy(cumulativeLegPK, 0, cumulativeLeg, 0, cumulativeLeg.length);
+
                 // #### DP #############################################################################################
                 if (this.isLegInvalid(current, candidateRequest.getNodeDp(), cumulativeLeg)) {
                     continue;
                 }
 
-                // Update current
-                current = candidateRequest.getNodeDp();
-
                 // #### After DP #######################################################################################
-                for (int i = dpPos; i < visitsVehicle.size(); i++) {
-
-                    // Get next in sequence
-                    Node next = visitsVehicle.get(i);
-
-                    // Check if it is possible to go from current to next
-                    if (this.isLegInvalid(current, next, cumulativeLeg)) {
-
-                        continue dpcontinue;
-                    }
-
-                    // Update current
-                    current = next;
-
-                }
-
-                // Create linked list (fast adds and removals)
-                LinkedList<Node> newSequence = new LinkedList<>(visitsVehicle);
-                newSequence.add(dpPos, candidateRequest.getNodeDp());
-                newSequence.add(pkPos, candidateRequest.getNodePk());
-
-                // Insert middle node in first leg
-                if (pkPos == 0) {
-                    newSequence.add(0, middle);
+                if (!schedule.appendSuffix(dpPos, candidateRequest.getNodeDp(), cumulativeLeg)) {
+                    continue;
                 }
 
-                Visit candidateVisit = new Visit(
-                        newSequence,
-                        cumulativeLeg[DELAY]);
+                // Middle node is inserted in first leg
+                int size = n + 2 + (pkPos == 0 ? 1 : 0);
 
-                candidateVisit.setVehicle(this);
-
-                /*
-                Logging.logger.info("{}", String.format("Insert %d and %d -%s %s (%s)", pkPos, dpPos, candidateRequest, newSequence, candidateVisit));
-                Logging.logger.info("VISITS = " + visitsVehicle + " - " + candidateRequest.getNodePk() + "-->" + candidateRequest.getNodeDp());
-                Logging.logger.info("#######" + bestVisit);
-                Logging.logger.info("-------" + candidateVisit + "--" + candidateVisit.getSequenceVisits());
-                 */
                 // Update best visit (Compare delay)
-                if (bestVisit.compareTo(candidateVisit) > 0) {
-                    bestVisit = candidateVisit;
+                if (cumulativeLeg[DELAY] < bestDelay || (cumulativeLeg[DELAY] == bestDelay && size < bestSize)) {
+                    bestPkPos = pkPos;
+                    bestDpPos = dpPos;
+                    bestDelay = cumulativeLeg[DELAY];
+                    bestSize = size;
                 }
             }
         }
 
         // If best visit was not found
-        if (bestVisit.getSequenceVisits() == null) {
+        if (bestPkPos < 0) {
             return null;
         }
 
+        // Create linked list (fast adds and removals)
+        LinkedList<Node> newSequence = new LinkedList<>(visitsVehicle);
+        newSequence.add(bestDpPos, candidateRequest.getNodeDp());
+        newSequence.add(bestPkPos, candidateRequest.getNodePk());
+
+        // Insert middle node in first leg
+        if (bestPkPos == 0) {
+            newSequence.add(0, middle);
+        }
+
+        Visit bestVisit = new Visit(newSequence, bestDelay);
+
         // Assign vehicle to best
         bestVisit.setVehicle(this);
 
@@ -394,23 +394,8 @@ public class Visit implements Comparable<VisitObj>, VisitObj {
         }
 
         //Can vehicle visit next user?
-        User uFrom = User.mapOfUsers.get(fromNode.getTripId());
-
-        // From user requires private ride?
-        if (uFrom != null && fromNode instanceof NodePK && !uFrom.isSharingAllowed()) {
-            if (fromNode.getTripId() != nextNode.getTripId()) {
-                //Logging.logger.info("{}", String.format("FR: Cannot go from %s(%s) to %s", fromNode, uFrom.getPerformanceClass(), nextNode));
-                return true;
-            }
-        }
-
-        // Next user requires private ride?
-        User uTo = User.mapOfUsers.get(nextNode.getTripId());
-        if (uTo != null && nextNode instanceof NodeDP && !uTo.isSharingAllowed()) {
-            if (fromNode.getTripId() != nextNode.getTripId()) {
-                //Logging.logger.info("{}", String.format("TO: Cannot go from %s(%s) to %s", fromNode, uFrom.getPerformanceClass(), nextNode));
-                return true;
-            }
+        if (!isSharingRespected(fromNode, nextNode)) {
+            return true;
         }
 
 //        // Hired vehicles cannot stay longer than contract deadline
@@ -455,6 +440,35 @@ public class Visit implements Comparable<VisitObj>, VisitObj {
         return false;
     }
 
+    /**
+     * Check if leg between "fromNode" and "nextNode" respects the private rides (does not depend on time or load).
+     *
+     * @param fromNode Origin node
+     * @param nextNode Destination node
+     * @return True, if users requiring private rides go straight from pickup to drop-off
+     */
+    static boolean isSharingRespected(Node fromNode, Node nextNode) {
+
+        // From user requires private ride?
+        User uFrom = User.mapOfUsers.get(fromNode.getTripId());
+        if (uFrom != null && fromNode instanceof NodePK && !uFrom.isSharingAllowed()) {
+            if (!Objects.equal(fromNode.getTripId(), nextNode.getTripId())) {
+                //Logging.logger.info("{}", String.format("FR: Cannot go from %s(%s) to %s", fromNode, uFrom.getPerformanceClass(), nextNode));
+                return false;
+            }
+        }
+
+        // Next user requires private ride?
+        User uTo = User.mapOfUsers.get(nextNode.getTripId());
+        if (uTo != null && nextNode instanceof NodeDP && !uTo.isSharingAllowed()) {
+            if (!Objects.equal(fromNode.getTripId(), nextNode.getTripId())) {
+                //Logging.logger.info("{}", String.format("TO: Cannot go from %s(%s) to %s", fromNode, uFrom.getPerformanceClass(), nextNode));
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static List<User> filterFirstTier(Set<VisitObj> visitsOK) {
         List<User> firstTierUsers = new ArrayList<>();
         for (VisitObj visit : visitsOK) {
@@ -0,0 +1,416 @@
+package model;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Local search for the RTV assignment model over visit and request indices (see {@link AssignmentLocalSearch}):
+ * - Each vehicle is assigned to one of its visits;
+ * - Each request is serviced by at most one visit;
+ * - Requests that must be serviced (e.g., previously assigned) are serviced.
+ * <p>
+ * Visit costs are minimized in lexicographic order (i.e., hierarchical objectives). Hard constraints are relaxed into
+ * a first level that counts assigned vehicles and must-serve requests, so any feasible assignment is better than an
+ * infeasible one.
+ * <p>
+ * A greedy assignment (best visits first) is improved by ejection moves: a vehicle takes a better visit and each
+ * vehicle servicing one of its requests falls back to its best visit that does not conflict with the new assignment.
+ * Only vehicles whose assignment changed or that can service freed requests are checked again after a move. Local
+ * optima are escaped by kicks (random vehicles are forced to take random visits) until a number of kicks in a row do
+ * not improve the best assignment or the deadline is reached.
+ */
+class VisitPackingSearch {
+
+    private static final double EPSILON = 1e-9;
+    private static final int UNASSIGNED = -1;
+    private static final int MIN_NON_IMPROVING_KICKS = 100;
+    private static final int VEHICLES_PER_KICK = 2;
+
+    private final int nOfVehicles;
+    private final int[] visitVehicle;
+    private final int[][] visitRequests;
+    // Level 0 = -(1 + number of must-serve requests), then objectives in order
+    private final double[][] visitCost;
+    // Visits of each vehicle sorted by cost (best first)
+    private final int[][] vehicleVisits;
+    // Vehicles with at least one visit featuring each request
+    private final int[][] requestVehicles;
+
+    // Assignment
+    private final int[] chosenVisit;
+    private final int[] servicingVisit;
+    private double[] cost;
+
+    // Vehicles to check for improving moves
+    private final ArrayDeque<Integer> pending;
+    private final boolean[] isPending;
+    private final Random random;
+
+    // Requests reserved by the move being evaluated (reserved if stamp equals current stamp)
+    private final int[] reservedStamp;
+    private int stamp;
+
+    /**
+     * @param nOfVehicles   Number of vehicles (vehicles are indices 0..nOfVehicles-1)
+     * @param nOfRequests   Number of requests (requests are indices 0..nOfRequests-1)
+     * @param visitVehicle  Vehicle of each visit
+     * @param visitRequests Requests of each visit
+     * @param visitCost     Cost levels of each visit (same number of levels for all visits)
+     * @param mustServe     True, if request has to be serviced
+     */
+    VisitPackingSearch(int nOfVehicles, int nOfRequests, int[] visitVehicle, int[][] visitRequests, double[][] visitCost, boolean[] mustServe) {
+        this.nOfVehicles = nOfVehicles;
+        this.visitVehicle = visitVehicle;
+        this.visitRequests = visitRequests;
+
+        this.visitCost = new double[visitVehicle.length][];
+        for (int v = 0; v < visitVehicle.length; v++) {
+            int nOfMustServe = 0;
+            for (int r : visitRequests[v]) {
+                if (mustServe[r]) {
+                    nOfMustServe++;
+                }
+            }
+            this.visitCost[v] = new double[visitCost[v].length + 1];
+            this.visitCost[v][0] = -(1 + nOfMustServe);
+            System.arraycopy(visitCost[v], 0, this.visitCost[v], 1, visitCost[v].length);
+        }
+
+        int[] nOfVisits = new int[nOfVehicles];
+        for (int u : visitVehicle) {
+            nOfVisits[u]++;
+        }
+        this.vehicleVisits = new int[nOfVehicles][];
+        for (int u = 0; u < nOfVehicles; u++) {
+            vehicleVisits[u] = new int[nOfVisits[u]];
+            nOfVisits[u] = 0;
+        }
+        for (int v : sortedByCost(IntStream.range(0, visitVehicle.length))) {
+            int u = visitVehicle[v];
+            vehicleVisits[u][nOfVisits[u]++] = v;
+        }
+
+        List<Set<Integer>> vehiclesOfRequest = new ArrayList<>();
+        for (int r = 0; r < nOfRequests; r++) {
+            vehiclesOfRequest.add(new LinkedHashSet<>());
+        }
+        for (int v = 0; v < visitVehicle.length; v++) {
+            for (int r : visitRequests[v]) {
+                vehiclesOfRequest.get(r).add(visitVehicle[v]);
+            }
+        }
+        this.requestVehicles = new int[nOfRequests][];
+        for (int r = 0; r < nOfRequests; r++) {
+            requestVehicles[r] = vehiclesOfRequest.get(r).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.chosenVisit = new int[nOfVehicles];
+        this.servicingVisit = new int[nOfRequests];
+        this.reservedStamp = new int[nOfRequests];
+        Arrays.fill(chosenVisit, UNASSIGNED);
+        Arrays.fill(servicingVisit, UNASSIGNED);
+        this.pending = new ArrayDeque<>();
+        this.isPending = new boolean[nOfVehicles];
+        this.random = new Random(0);
+    }
+
+    /**
+     * @param deadline Time ({@link System#nanoTime()}) at which the search stops
+     * @return Visit chosen for each vehicle (-1 if no visit can be assigned)
+     */
+    int[] solve(long deadline) {
+        assignGreedily();
+        cost = getCost();
+        for (int u = 0; u < nOfVehicles; u++) {
+            markPending(u);
+        }
+        improve(deadline);
+
+        int[] best = chosenVisit.clone();
+        double[] bestCost = cost.clone();
+        int maxNonImprovingKicks = Math.max(MIN_NON_IMPROVING_KICKS, nOfVehicles);
+        int nOfNonImprovingKicks = 0;
+        while (nOfNonImprovingKicks < maxNonImprovingKicks && System.nanoTime() < deadline) {
+            if (!kick()) {
+                break;
+            }
+            improve(deadline);
+
+            int comparison = compare(cost, bestCost);
+            nOfNonImprovingKicks = comparison < 0 ? 0 : nOfNonImprovingKicks + 1;
+            if (comparison > 0) {
+                restore(best, bestCost);
+            } else {
+                // Equivalent assignments are accepted to move across plateaus
+                best = chosenVisit.clone();
+                bestCost = cost.clone();
+            }
+        }
+        restore(best, bestCost);
+        return best;
+    }
+
+    /**
+     * Total cost of the current assignment (level 0 included).
+     */
+    double[] getCost() {
+        double[] total = new double[visitCost.length == 0 ? 1 : visitCost[0].length];
+        for (int u = 0; u < nOfVehicles; u++) {
+            if (chosenVisit[u] != UNASSIGNED) {
+                addCost(total, visitCost[chosenVisit[u]], 1);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Apply improving moves to pending vehicles until none is pending (i.e., local optimum) or deadline is reached.
+     */
+    private void improve(long deadline) {
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            int u = pending.poll();
+            isPending[u] = false;
+            improveVehicle(u);
+        }
+        pending.forEach(u -> isPending[u] = false);
+        pending.clear();
+    }
+
+    /**
+     * Force random vehicles to take a random visit other than their current one.
+     *
+     * @return False, if no vehicle has alternative visits
+     */
+    private boolean kick() {
+        int nOfKicked = 0;
+        for (int attempt = 0; attempt < nOfVehicles && nOfKicked < VEHICLES_PER_KICK; attempt++) {
+            int u = random.nextInt(nOfVehicles);
+            int nOfAlternatives = vehicleVisits[u].length - (chosenVisit[u] == UNASSIGNED ? 0 : 1);
+            if (nOfAlternatives > 0) {
+                int w = vehicleVisits[u][random.nextInt(vehicleVisits[u].length)];
+                while (w == chosenVisit[u]) {
+                    w = vehicleVisits[u][random.nextInt(vehicleVisits[u].length)];
+                }
+                tryEjectionMove(u, w, true);
+                nOfKicked++;
+            }
+        }
+        return nOfKicked > 0;
+    }
+
+    private void restore(int[] assignment, double[] assignmentCost) {
+        Arrays.fill(chosenVisit, UNASSIGNED);
+        Arrays.fill(servicingVisit, UNASSIGNED);
+        for (int v : assignment) {
+            if (v != UNASSIGNED) {
+                assign(v);
+            }
+        }
+        cost = assignmentCost.clone();
+    }
+
+    private void markPending(int u) {
+        if (!isPending[u]) {
+            isPending[u] = true;
+            pending.add(u);
+        }
+    }
+
+    /**
+     * Assign visits from best to worst cost when their vehicle is free and none of their requests is serviced.
+     */
+    private void assignGreedily() {
+        for (int v : sortedByCost(IntStream.range(0, visitVehicle.length))) {
+            if (chosenVisit[visitVehicle[v]] == UNASSIGNED && areRequestsFree(v)) {
+                assign(v);
+            }
+        }
+    }
+
+    /**
+     * Try the visits of vehicle "u" that are better than its current visit and apply the first improving move.
+     *
+     * @return True, if the assignment was improved
+     */
+    private boolean improveVehicle(int u) {
+        for (int w : vehicleVisits[u]) {
+            if (w == chosenVisit[u]) {
+                return false;
+            }
+            if (tryEjectionMove(u, w, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Assign visit "w" to vehicle "u". Vehicles servicing requests of "w" fall back to their best visit whose requests
+     * are not reserved by the move and are either free or were serviced by themselves or by "u".
+     *
+     * @param force True, if move is applied even if it does not improve the assignment
+     * @return True, if move was applied
+     */
+    private boolean tryEjectionMove(int u, int w, boolean force) {
+        stamp++;
+        double[] delta = new double[visitCost[w].length];
+        addCost(delta, visitCost[w], 1);
+        if (chosenVisit[u] != UNASSIGNED) {
+            addCost(delta, visitCost[chosenVisit[u]], -1);
+        }
+        for (int r : visitRequests[w]) {
+            reservedStamp[r] = stamp;
+        }
+
+        // Vehicles losing requests to "w" (each vehicle once)
+        int[] ejected = new int[visitRequests[w].length];
+        int[] fallback = new int[visitRequests[w].length];
+        int nOfEjected = 0;
+        for (int r : visitRequests[w]) {
+            int current = servicingVisit[r];
+            if (current == UNASSIGNED || visitVehicle[current] == u || contains(ejected, nOfEjected, visitVehicle[current])) {
+                continue;
+            }
+            ejected[nOfEjected++] = visitVehicle[current];
+        }
+
+        for (int i = 0; i < nOfEjected; i++) {
+            int e = ejected[i];
+            fallback[i] = getBestFallback(e, u);
+            if (fallback[i] != UNASSIGNED) {
+                addCost(delta, visitCost[fallback[i]], 1);
+                for (int r : visitRequests[fallback[i]]) {
+                    reservedStamp[r] = stamp;
+                }
+            }
+            addCost(delta, visitCost[chosenVisit[e]], -1);
+        }
+
+        if (!force && !isNegative(delta)) {
+            return false;
+        }
+
+        // Apply move
+        int[] previousVisits = new int[nOfEjected + 1];
+        previousVisits[0] = chosenVisit[u];
+        unassign(u);
+        for (int i = 0; i < nOfEjected; i++) {
+            previousVisits[i + 1] = chosenVisit[ejected[i]];
+            unassign(ejected[i]);
+        }
+        assign(w);
+        for (int i = 0; i < nOfEjected; i++) {
+            if (fallback[i] != UNASSIGNED) {
+                assign(fallback[i]);
+            }
+        }
+        addCost(cost, delta, 1);
+
+        // Changed vehicles and vehicles that can service freed requests are checked again
+        markPending(u);
+        for (int i = 0; i < nOfEjected; i++) {
+            markPending(ejected[i]);
+        }
+        for (int v : previousVisits) {
+            if (v == UNASSIGNED) {
+                continue;
+            }
+            for (int r : visitRequests[v]) {
+                if (servicingVisit[r] == UNASSIGNED) {
+                    for (int e : requestVehicles[r]) {
+                        markPending(e);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private int getBestFallback(int e, int u) {
+        for (int x : vehicleVisits[e]) {
+            if (x != chosenVisit[e] && canFallBackTo(x, e, u)) {
+                return x;
+            }
+        }
+        return UNASSIGNED;
+    }
+
+    private boolean canFallBackTo(int x, int e, int u) {
+        for (int r : visitRequests[x]) {
+            if (reservedStamp[r] == stamp) {
+                return false;
+            }
+            int current = servicingVisit[r];
+            if (current != UNASSIGNED && visitVehicle[current] != e && visitVehicle[current] != u) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean areRequestsFree(int v) {
+        for (int r : visitRequests[v]) {
+            if (servicingVisit[r] != UNASSIGNED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(int v) {
+        chosenVisit[visitVehicle[v]] = v;
+        for (int r : visitRequests[v]) {
+            servicingVisit[r] = v;
+        }
+    }
+
+    private void unassign(int u) {
+        int v = chosenVisit[u];
+        if (v == UNASSIGNED) {
+            return;
+        }
+        for (int r : visitRequests[v]) {
+            servicingVisit[r] = UNASSIGNED;
+        }
+        chosenVisit[u] = UNASSIGNED;
+    }
+
+    private int[] sortedByCost(IntStream visits) {
+        Comparator<Integer> byCost = (a, b) -> compare(visitCost[a], visitCost[b]);
+        return visits.boxed().sorted(byCost).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addCost(double[] total, double[] cost, int sign) {
+        for (int k = 0; k < cost.length; k++) {
+            total[k] += sign * cost[k];
+        }
+    }
+
+    /**
+     * Compare costs level by level (lexicographic order).
+     */
+    static int compare(double[] a, double[] b) {
+        for (int k = 0; k < a.length; k++) {
+            if (a[k] < b[k] - EPSILON) {
+                return -1;
+            }
+            if (a[k] > b[k] + EPSILON) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isNegative(double[] delta) {
+        return compare(delta, new double[delta.length]) < 0;
+    }
+}
@@ -3,16 +3,15 @@ package model.graph;
 import dao.Dao;
 import dao.Logging;
 import model.Leg;
+import model.RouteFeasibility;
 import model.User;
 import model.Vehicle;
 import model.Visit;
 import model.node.Node;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.SimpleWeightedGraph;
+import simulation.Simulation;
 import util.pdcombinatorics.PDPermutations;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -21,10 +20,26 @@ public class GraphRV {
 
     private final List<User> listWaitingUsers;
     private final int vehicleCapacity;
-    private final SimpleWeightedGraph<Object, DefaultWeightedEdge> graphRV;
     private final Set<Vehicle> listVehicles;
     private final int maxEdgesRR;
     private final int maxEdgesRV;
+    // Candidate RR pairs (only pairs that can possibly share a vehicle are checked)
+    private final RequestPairIndex requestPairIndex;
+    // RR pairs found not shareable in previous rounds (shared by all rounds)
+    private static final InfeasiblePairCache infeasiblePairCache = new InfeasiblePairCache();
+    // Vehicles in round (same order as listVehicles) and their positions
+    private final List<Vehicle> vehicles;
+    private final VehiclePositionIndex vehiclePositionIndex;
+    // Vertex indexes (position in listWaitingUsers and vehicles)
+    private final Map<User, Integer> userIndex = new HashMap<>();
+    private final Map<Vehicle, Integer> vehicleIndex = new HashMap<>();
+    // Adjacency arrays (neighbor indexes sorted, and edge delays)
+    private int[][] requestsOfVehicle;
+    private int[][] vehiclesOfRequest;
+    private int[][] delaysRV;
+    private int[][] requestsOfRequest;
+    private int[][] delaysRR;
+    private int numberOfEdges;
 
     public GraphRV(Set<User> listWaitingUsers, Set<Vehicle> listVehicles, int vehicleCapacity, int maxEdgesRV, int maxEdgesRR) {
         this.vehicleCapacity = vehicleCapacity;
@@ -32,7 +47,10 @@ public class GraphRV {
         this.maxEdgesRV = maxEdgesRV;
         this.maxEdgesRR = maxEdgesRR;
         this.listVehicles = listVehicles;
-        this.graphRV = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        this.requestPairIndex = RequestPairIndex.of(this.listWaitingUsers);
+        infeasiblePairCache.startRound(Simulation.rightTW, this.listWaitingUsers);
+        this.vehicles = new ArrayList<>(listVehicles);
+        this.vehiclePositionIndex = VehiclePositionIndex.of(this.vehicles);
 
         // Which requests can be combined?
         createGraphRVInParallel();
@@ -84,9 +102,12 @@ public class GraphRV {
         User r1 = listWaitingUsers.get(i);
         List<EdgeRV> edgesRV = new LinkedList<>();
 
-        // Loop vehicles
+        // Loop vehicles that can reach the pickup in time
         EdgeRV edgeVehicleHiredToServeUser = null;
-        for (Vehicle vehicle : listVehicles) {
+        BitSet candidates = vehiclePositionIndex.getCandidates(r1.getNodePk().getNetworkId(), r1.getNodePk().getLatest());
+        for (int v = candidates.nextSetBit(0); v >= 0; v = candidates.nextSetBit(v + 1)) {
+
+            Vehicle vehicle = vehicles.get(v);
 
             // Try to find at least ONE way pickup request
             EdgeRV rv = createEdgeRV(r1, vehicle);
@@ -176,7 +197,7 @@ public class GraphRV {
 
     /**
      * Return an edge connecting i to all subsequent requests in waiting list.
-     * TODO Cap if cannot pickup requests within TW?
+     * Only candidate pairs from the {@link RequestPairIndex} are checked (the remaining pairs cannot share a vehicle).
      *
      * @param i Index of request in waiting list
      */
@@ -187,16 +208,24 @@ public class GraphRV {
         // Request r1 data
         User r1 = listWaitingUsers.get(i);
 
-        for (int j = i + 1; j < listWaitingUsers.size(); j++) {
+        BitSet candidates = requestPairIndex.getCandidates(i);
+        for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
 
             // Request r2 data
             User r2 = listWaitingUsers.get(j);
 
+            // Pair could not be shared in a previous round
+            if (infeasiblePairCache.contains(r1, r2)) {
+                continue;
+            }
+
             EdgeRV edge = getRREdgesFromRequests(r1, r2);
 
             if (edge != null) {
                 edges.add(edge);
                 assertR1AndR2AreReachable(r1, r2);
+            } else {
+                infeasiblePairCache.add(r1, r2);
             }
         }
 
@@ -204,8 +233,8 @@ public class GraphRV {
     }
 
     private void assertR1AndR2AreReachable(User r1, User r2) {
-        assert Dao.getInstance().getMapReachableNetworkIdsWithinTimeLimit().get(r1.getNodePk().getNetworkId()).contains(r2.getNodePk().getNetworkId()) ||
-                Dao.getInstance().getMapReachableNetworkIdsWithinTimeLimit().get(r2.getNodePk().getNetworkId()).contains(r1.getNodePk().getNetworkId()) :
+        assert Dao.getInstance().getDistSec(r1.getNodePk(), r2.getNodePk()) < 300 ||
+                Dao.getInstance().getDistSec(r2.getNodePk(), r1.getNodePk()) < 300 :
                 String.format("%s %s\n",
                         Dao.getInstance().getDistSec(r1.getNodePk(), r2.getNodePk()),
                         Dao.getInstance().getDistSec(r2.getNodePk(), r1.getNodePk())); // PK1 - PK2
@@ -254,16 +283,16 @@ public class GraphRV {
         // Create request set out of one request
         Set<User> requests = new HashSet<>(Collections.singletonList(request));
         PDPermutations perms = new PDPermutations(requests, vehicle);
+        int[] draftVisit = RouteFeasibility.newState();
+        RouteFeasibility.Nodes nodes = new RouteFeasibility.Nodes();
 
         while (perms.hasNext()) {
 
-            Leg draftVisit = Visit.getDraftVisit(vehicle, perms.next());
-
             // If RV exists, there is at least ONE way to pickup up the request.
             // The BEST way will be generated by the RTV graph.
-            if (draftVisit != null) {
+            if (RouteFeasibility.check(vehicle, nodes.set(perms.next()), draftVisit)) {
                 // Connect vehicle to request
-                return new EdgeVR(draftVisit.delay, vehicle, request);
+                return new EdgeVR(draftVisit[RouteFeasibility.DELAY], vehicle, request);
             }
         }
         return null;
@@ -271,68 +300,164 @@ public class GraphRV {
 
     /**
      * Pairwise graph of vehicles and requests. Combine vehicles and requests.
+     * <p>
+     * Edges of each request are computed in parallel into separate buffers and then merged into adjacency arrays
+     * (users and vehicles are vertices identified by their indexes).
      */
     public void createGraphRVInParallel() {
 
-        // Populating RV graph
-        for (User user : listWaitingUsers) {
-            graphRV.addVertex(user);
+        int n = listWaitingUsers.size();
+
+        for (int i = 0; i < n; i++) {
+            userIndex.put(listWaitingUsers.get(i), i);
         }
 
-        for (Vehicle vehicle : listVehicles) {
-            graphRV.addVertex(vehicle);
+        for (int v = 0; v < vehicles.size(); v++) {
+            vehicleIndex.put(vehicles.get(v), v);
         }
 
-        IntStream.range(0, listWaitingUsers.size()).parallel()
+        // Each request fills its own edge buffer
+        List<List<EdgeRV>> edgesOfRequest = IntStream.range(0, n).parallel()
                 .mapToObj(this::getRVEdge)
-                .collect(HashSet<EdgeRV>::new, HashSet::addAll, HashSet::addAll)
-                .forEach(o -> {
-                    DefaultWeightedEdge e = graphRV.addEdge(o.getFrom(), o.getTarget());
-                    graphRV.setEdgeWeight(e, o.getDelay());
-                });
+                .collect(toList());
+
+        // Degrees
+        int[] degreeVehicle = new int[vehicles.size()];
+        int[] degreeRV = new int[n];
+        int[] degreeRR = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (EdgeRV edge : edgesOfRequest.get(i)) {
+                if (edge.isRV()) {
+                    degreeVehicle[vehicleIndex.get((Vehicle) edge.getFrom())]++;
+                    degreeRV[i]++;
+                } else {
+                    degreeRR[i]++;
+                    degreeRR[userIndex.get((User) edge.getTarget())]++;
+                }
+            }
+        }
+
+        requestsOfVehicle = new int[vehicles.size()][];
+        for (int v = 0; v < vehicles.size(); v++) {
+            requestsOfVehicle[v] = new int[degreeVehicle[v]];
+        }
+
+        // Keys (neighbor index << 32 | delay) are sorted by neighbor
+        long[][] keysRV = new long[n][];
+        long[][] keysRR = new long[n][];
+        for (int i = 0; i < n; i++) {
+            keysRV[i] = new long[degreeRV[i]];
+            keysRR[i] = new long[degreeRR[i]];
+        }
+
+        Arrays.fill(degreeVehicle, 0);
+        Arrays.fill(degreeRV, 0);
+        Arrays.fill(degreeRR, 0);
+        for (int i = 0; i < n; i++) {
+            for (EdgeRV edge : edgesOfRequest.get(i)) {
+                if (edge.isRV()) {
+                    int v = vehicleIndex.get((Vehicle) edge.getFrom());
+                    requestsOfVehicle[v][degreeVehicle[v]++] = i;
+                    keysRV[i][degreeRV[i]++] = key(v, edge.getDelay());
+                } else {
+                    int j = userIndex.get((User) edge.getTarget());
+                    keysRR[i][degreeRR[i]++] = key(j, edge.getDelay());
+                    keysRR[j][degreeRR[j]++] = key(i, edge.getDelay());
+                }
+                numberOfEdges++;
+            }
+        }
+
+        vehiclesOfRequest = new int[n][];
+        delaysRV = new int[n][];
+        requestsOfRequest = new int[n][];
+        delaysRR = new int[n][];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Arrays.sort(keysRV[i]);
+            Arrays.sort(keysRR[i]);
+            vehiclesOfRequest[i] = neighbors(keysRV[i]);
+            delaysRV[i] = delays(keysRV[i]);
+            requestsOfRequest[i] = neighbors(keysRR[i]);
+            delaysRR[i] = delays(keysRR[i]);
+        });
+    }
+
+    private static long key(int neighbor, int delay) {
+        return ((long) neighbor << 32) | (delay & 0xFFFFFFFFL);
     }
 
-    public Object getEdgeTarget(DefaultWeightedEdge edge) {
-        return this.graphRV.getEdgeTarget(edge);
+    private static int[] neighbors(long[] keys) {
+        int[] neighbors = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            neighbors[k] = (int) (keys[k] >>> 32);
+        }
+        return neighbors;
     }
 
-    public Set<DefaultWeightedEdge> edgesOf(Vehicle vehicle) {
-        return graphRV.edgesOf(vehicle);
+    private static int[] delays(long[] keys) {
+        int[] delays = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            delays[k] = (int) keys[k];
+        }
+        return delays;
+    }
 
+    /**
+     * @param vehicle Vehicle in round
+     * @return Requests connected to vehicle by a VR edge
+     */
+    public List<User> getRequestsOf(Vehicle vehicle) {
+        Integer v = vehicleIndex.get(vehicle);
+        if (v == null) {
+            return Collections.emptyList();
+        }
+        List<User> requests = new ArrayList<>(requestsOfVehicle[v].length);
+        for (int i : requestsOfVehicle[v]) {
+            requests.add(listWaitingUsers.get(i));
+        }
+        return requests;
     }
 
-    public DefaultWeightedEdge getEdge(User request1, User request2) {
-        return graphRV.getEdge(request1, request2);
+    /**
+     * @return True, if requests 1 and 2 are connected by an RR edge (i.e., can share a vehicle)
+     */
+    public boolean hasEdge(User request1, User request2) {
+        Integer i = userIndex.get(request1);
+        Integer j = userIndex.get(request2);
+        return i != null && j != null && Arrays.binarySearch(requestsOfRequest[i], j) >= 0;
     }
 
     public Map<User, List<User>> getRRList() {
 
         Map<User, List<User>> requestRequestsMap = new HashMap<>();
 
-        List<User> requests = getUsersFromVertexSet();
-
-
-        for (User request : requests) {
-            List<User> targets = getTargetsFromRequest(request);
-            requestRequestsMap.put(request, targets);
+        for (int i = 0; i < listWaitingUsers.size(); i++) {
+            requestRequestsMap.put(listWaitingUsers.get(i), getSourcesFromRequest(i));
         }
 
         return requestRequestsMap;
     }
 
-    private List<User> getTargetsFromRequest(User request) {
-        return graphRV.edgesOf(request).stream()
-                .filter(edge -> graphRV.getEdgeSource(edge) instanceof User && graphRV.getEdgeSource(edge) != request)
-                .map(edgeVR -> (User) graphRV.getEdgeSource(edgeVR)).collect(Collectors.toList());
+    /**
+     * RR edges are created from request i to subsequent requests j > i.
+     *
+     * @return Requests whose RR edge targets request i
+     */
+    private List<User> getSourcesFromRequest(int i) {
+        List<User> sources = new ArrayList<>();
+        for (int j : requestsOfRequest[i]) {
+            if (j < i) {
+                sources.add(listWaitingUsers.get(j));
+            }
+        }
+        return sources;
     }
 
     public Map<User, List<Vehicle>> getRVList() {
 
         Map<User, List<Vehicle>> requestRequestsMap = new HashMap<>();
 
-        List<User> requests = getUsersFromVertexSet();
-
-        for (User request : requests) {
+        for (User request : listWaitingUsers) {
 
             List<Vehicle> vehiclesCanPickup = getVehiclesFromVREdgesOfRequest(request);
 
@@ -343,89 +468,45 @@ public class GraphRV {
     }
 
     public List<Vehicle> getVehiclesFromVREdgesOfRequest(User request) {
-
-        return graphRV.edgesOf(request).stream()
-                .filter(edge -> graphRV.getEdgeSource(edge) instanceof Vehicle)
-                .map(edgeVR -> (Vehicle) graphRV.getEdgeSource(edgeVR))
-                .collect(toList());
-    }
-
-    private List<User> getUsersFromVertexSet() {
-        if (graphRV == null) {
+        Integer i = userIndex.get(request);
+        if (i == null) {
             return Collections.emptyList();
         }
-        return graphRV.vertexSet().stream()
-                .filter(o -> o instanceof User)
-                .map(o -> (User) o)
-                .collect(toList());
+        List<Vehicle> vehiclesCanPickup = new ArrayList<>(vehiclesOfRequest[i].length);
+        for (int v : vehiclesOfRequest[i]) {
+            vehiclesCanPickup.add(vehicles.get(v));
+        }
+        return vehiclesCanPickup;
     }
 
 ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 /// GRAPH STRUCTURE ////////////////////////////////////////////////////////////////////////////////////////////////
 ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    public Map<User, List<DefaultWeightedEdge>> getRVEdges() {
-        Map<User, List<DefaultWeightedEdge>> requestEdgesRV = new HashMap<>();
-
-        List<User> requests = getUsersFromVertexSet();
-
-        for (User request : requests) {
-
-            List<DefaultWeightedEdge> edgesRV = getRVEdgesFromRequest(request);
-
-            requestEdgesRV.put(request, edgesRV);
-        }
-
-        return requestEdgesRV;
-    }
-
-    private List<DefaultWeightedEdge> getRVEdgesFromRequest(User request) {
-        return graphRV.edgesOf(request).stream()
-                .filter(defaultEdge -> graphRV.getEdgeSource(defaultEdge) instanceof Vehicle)
-                .collect(Collectors.toList());
-    }
-
-    public Map<User, List<DefaultWeightedEdge>> getRREdges() {
-        Map<User, List<DefaultWeightedEdge>> requestEdgesRR = new HashMap<>();
-
-        List<User> requests = getUsersFromVertexSet();
-
-        for (User request : requests) {
-
-            List<DefaultWeightedEdge> edgesRV = graphRV.edgesOf(request).stream()
-                    .filter(defaultEdge -> graphRV.getEdgeSource(defaultEdge) instanceof User)
-                    .collect(Collectors.toList());
-
-            requestEdgesRR.put(request, edgesRV);
-        }
-
-        return requestEdgesRR;
-    }
-
     public void printRVEdges() {
         Logging.logger.info("------- RV EDGES");
-        getRVEdges().forEach((user, defaultWeightedEdges) -> {
-            Logging.logger.info("{}", String.format("\n########## %s - (edges=%d)", user, defaultWeightedEdges.size()));
-            for (DefaultWeightedEdge edgeRV : defaultWeightedEdges) {
-                Logging.logger.info("{}", String.format("%4d - %s", (int) graphRV.getEdgeWeight(edgeRV), edgeRV));
+        for (int i = 0; i < listWaitingUsers.size(); i++) {
+            Logging.logger.info("{}", String.format("\n########## %s - (edges=%d)", listWaitingUsers.get(i), vehiclesOfRequest[i].length));
+            for (int k = 0; k < vehiclesOfRequest[i].length; k++) {
+                Logging.logger.info("{}", String.format("%4d - (%s : %s)", delaysRV[i][k], vehicles.get(vehiclesOfRequest[i][k]), listWaitingUsers.get(i)));
             }
-        });
+        }
     }
 
     public void printRREdges() {
         Logging.logger.info("------- RR EDGES");
-        getRREdges().forEach((user, defaultWeightedEdges) -> {
-            Logging.logger.info("{}", String.format("\n########## %s - (edges(source)=%d)", user, defaultWeightedEdges.size()));
-            for (DefaultWeightedEdge edgeRV : defaultWeightedEdges) {
-                Logging.logger.info("{}", String.format("%4d - %s", (int) graphRV.getEdgeWeight(edgeRV), edgeRV));
+        for (int i = 0; i < listWaitingUsers.size(); i++) {
+            Logging.logger.info("{}", String.format("\n########## %s - (edges=%d)", listWaitingUsers.get(i), requestsOfRequest[i].length));
+            for (int k = 0; k < requestsOfRequest[i].length; k++) {
+                Logging.logger.info("{}", String.format("%4d - (%s : %s)", delaysRR[i][k], listWaitingUsers.get(requestsOfRequest[i][k]), listWaitingUsers.get(i)));
             }
-        });
+        }
     }
 
     public String toString() {
         double avgTargetRequests = getRRList().values().stream().mapToDouble(List::size).average().orElse(Double.NaN);
         double avgVehicleVertices = getRVList().values().stream().mapToDouble(List::size).average().orElse(Double.NaN);
-        return String.format("#nodes = %s, #edges = %s, avg. RR targets = %.2f, avg. RV links = %.2f", this.graphRV.vertexSet().size(), this.graphRV.edgeSet().size(), avgTargetRequests, avgVehicleVertices);
+        return String.format("#nodes = %s, #edges = %s, avg. RR targets = %.2f, avg. RV links = %.2f, cached infeasible RR pairs = %d", listWaitingUsers.size() + vehicles.size(), numberOfEdges, avgTargetRequests, avgVehicleVertices, infeasiblePairCache.size());
     }
 
-}
\ No newline at end of file
+}
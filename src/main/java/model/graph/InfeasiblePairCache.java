@@ -0,0 +1,69 @@
+package model.graph;
+
+import model.User;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request pairs (keyed by user ids) found not shareable in previous rounds.
+ * <p>
+ * RR sequences start at a pickup no earlier than the round time, and arrivals never decrease as the round time
+ * advances, so a pair that cannot share a vehicle now cannot share it later. Pairs are evicted when either user leaves
+ * the pool or has its service level lowered. Shareable pairs are checked again every round, since their delays depend on the round time.
+ */
+public class InfeasiblePairCache {
+
+    private final Set<Long> pairs = ConcurrentHashMap.newKeySet();
+    private int lastRound = Integer.MIN_VALUE;
+    private final LoweredServiceLevels loweredServiceLevels = new LoweredServiceLevels();
+
+    /**
+     * Evict pairs featuring users that are no longer waiting or whose service level was lowered since the previous
+     * round. Must be called at the start of each round, before pairs are looked up.
+     *
+     * @param round   Current round time
+     * @param waiting Users waiting in round
+     */
+    public void startRound(int round, List<User> waiting) {
+        // Time went back (i.e., a new simulation started), user ids are not comparable
+        if (round < lastRound) {
+            pairs.clear();
+        }
+        lastRound = round;
+
+        // Users whose service level was lowered (i.e., later latest times) are checked again
+        Set<Integer> ids = new HashSet<>();
+        for (User user : waiting) {
+            ids.add(user.getId());
+        }
+        ids.removeAll(loweredServiceLevels.startRound(waiting));
+        pairs.removeIf(pair -> !ids.contains(first(pair)) || !ids.contains(second(pair)));
+    }
+
+    public boolean contains(User user1, User user2) {
+        return pairs.contains(key(user1.getId(), user2.getId()));
+    }
+
+    public void add(User user1, User user2) {
+        pairs.add(key(user1.getId(), user2.getId()));
+    }
+
+    public int size() {
+        return pairs.size();
+    }
+
+    static long key(int id1, int id2) {
+        return ((long) Math.min(id1, id2) << 32) | (Math.max(id1, id2) & 0xFFFFFFFFL);
+    }
+
+    private static int first(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int second(long key) {
+        return (int) key;
+    }
+}
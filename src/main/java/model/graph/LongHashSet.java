@@ -0,0 +1,75 @@
+package model.graph;
+
+/**
+ * Open-addressing hash set of non-zero longs (e.g., trips encoded as bitmasks, see {@link ParallelGraphRTV}).
+ * Keys are stored in a primitive array, hence adding and looking up keys does not create objects.
+ */
+class LongHashSet {
+
+    // Zero marks free slots
+    private long[] keys;
+    private int size;
+
+    LongHashSet() {
+        this(16);
+    }
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+    }
+
+    /**
+     * @param key Non-zero key
+     * @return True, if key was not in the set
+     */
+    boolean add(long key) {
+        assert key != 0;
+        if (2 * (size + 1) > keys.length) {
+            rehash(2 * keys.length);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return true;
+    }
+
+    boolean contains(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        keys = new long[capacity];
+        size = 0;
+        for (long key : old) {
+            if (key != 0) {
+                add(key);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
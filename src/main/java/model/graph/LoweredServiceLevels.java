@@ -0,0 +1,39 @@
+package model.graph;
+
+import model.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Users whose service level was lowered (i.e., later latest times, see {@link User#lowerServiceLevel(int)}) since the
+ * previous round. Cached feasibility results featuring these users are evicted once per lowering, not every round.
+ */
+class LoweredServiceLevels {
+
+    // Lowerings of the waiting users at the previous round (users never lowered are not kept)
+    private Map<Integer, Integer> loweringsByUserId = new HashMap<>();
+
+    /**
+     * @param waiting Users waiting in round
+     * @return Ids of users whose service level was lowered since the previous round
+     */
+    Set<Integer> startRound(Collection<User> waiting) {
+        Set<Integer> lowered = new HashSet<>();
+        Map<Integer, Integer> lowerings = new HashMap<>();
+        for (User user : waiting) {
+            int count = user.getServiceLevelLowerings();
+            if (count != loweringsByUserId.getOrDefault(user.getId(), 0)) {
+                lowered.add(user.getId());
+            }
+            if (count > 0) {
+                lowerings.put(user.getId(), count);
+            }
+        }
+        loweringsByUserId = lowerings;
+        return lowered;
+    }
+}
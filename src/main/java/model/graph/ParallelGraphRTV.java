@@ -7,11 +7,16 @@ import helper.Runtime;
 import model.User;
 import model.Vehicle;
 import model.VisitObj;
-import org.jgrapht.graph.DefaultWeightedEdge;
 import simulation.Method;
+import simulation.Simulation;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class ParallelGraphRTV implements GraphRTV {
@@ -23,6 +28,13 @@ public class ParallelGraphRTV implements GraphRTV {
     private Set<User> allRequests;
     private GraphRV graphRV;
     private long timeout;
+    // Round-level time budget (nanoseconds) shared by all vehicles, counted from the start of the RV graph creation
+    private long timeoutRound;
+    private long roundStartTime;
+    // Vehicles whose trips were not all checked within the vehicle or round timeout
+    private final Set<Vehicle> truncatedVehicles = ConcurrentHashMap.newKeySet();
+    // Trips checked sequentially by a task (larger ranges are split so idle workers can steal them)
+    private static final int MIN_TRIPS_PER_TASK = 4;
     public ConcurrentHashMap.KeySetView<VisitObj, Boolean> allVisits;
 
     public Map<Vehicle, Set<VisitObj>> getVehicleVisitsMap() {
@@ -42,6 +54,10 @@ public class ParallelGraphRTV implements GraphRTV {
 
     public ConcurrentHashMap<User, Set<Vehicle>> mapUserVehicles;
     private int count;
+    // Trips checked in previous rounds (shared by all rounds)
+    private static final TripCache tripCache = new TripCache();
+    // Trips whose best visit was taken from the trip cache
+    private final AtomicInteger reusedTrips = new AtomicInteger();
 
 
     @Override
@@ -61,8 +77,18 @@ public class ParallelGraphRTV implements GraphRTV {
     }
 
     public ParallelGraphRTV(Set<User> allRequests, Set<Vehicle> listVehicles, int maxVehicleCapacity, double timeout, int maxVehReqEdges, int maxReqReqEdges) {
-        Logging.logger.info("{}", String.format("# Matching - RTV - Graph (VR=%d,RR=%d) - #Requests: %d  / #Vehicles: %d (%d) - timeout: %.2f sec", maxVehReqEdges, maxReqReqEdges, allRequests.size(), listVehicles.size(), maxVehicleCapacity, timeout));
+        this(allRequests, listVehicles, maxVehicleCapacity, timeout, 0, maxVehReqEdges, maxReqReqEdges);
+    }
+
+    /**
+     * @param timeout      Time budget of each vehicle (seconds)
+     * @param timeoutRound Time budget of the whole graph building (seconds), unbounded if not positive
+     */
+    public ParallelGraphRTV(Set<User> allRequests, Set<Vehicle> listVehicles, int maxVehicleCapacity, double timeout, double timeoutRound, int maxVehReqEdges, int maxReqReqEdges) {
+        Logging.logger.info("{}", String.format("# Matching - RTV - Graph (VR=%d,RR=%d) - #Requests: %d  / #Vehicles: %d (%d) - timeout: %.2f sec (round: %.2f sec)", maxVehReqEdges, maxReqReqEdges, allRequests.size(), listVehicles.size(), maxVehicleCapacity, timeout, timeoutRound));
         this.timeout = (long) (timeout * 1000000000);
+        this.timeoutRound = timeoutRound > 0 ? (long) (timeoutRound * 1000000000) : Long.MAX_VALUE;
+        this.roundStartTime = System.nanoTime();
 
         // Populate list of feasible trips with current trips
         this.feasibleTrips = new ArrayList<>();
@@ -89,6 +115,7 @@ public class ParallelGraphRTV implements GraphRTV {
 
         // Add the data (visit, vehicle, and user vertices) of current trips in the RTV graph
         Dao.getInstance().getRunTimes().startTimerFor(Runtime.TIME_RTV_INIT);
+        tripCache.startRound(Simulation.rightTW, listVehicles, allRequests);
         this.initDataStructures();
         Dao.getInstance().getRunTimes().endTimerFor(Runtime.TIME_RTV_INIT);
 
@@ -100,8 +127,11 @@ public class ParallelGraphRTV implements GraphRTV {
 
         Logging.logger.info("# Matching - RTV");
         Logging.logger.info("    - {} s - RV Creation        ({})", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_CREATE_RV), this.graphRV);
-        Logging.logger.info("    - {} s - RTV Initialization ", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_RTV_INIT));
-        Logging.logger.info("    - {} s - RTV Building       ({})", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_RTV_BUILDING_TOTAL), this.getSummaryFeasibleTripsLevel());
+        Logging.logger.info("    - {} s - RTV Initialization (cached feasible trips = {}, cached infeasible trips = {})", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_RTV_INIT), tripCache.sizeFeasible(), tripCache.size());
+        Logging.logger.info("    - {} s - RTV Building       ({}, reused trips = {}, truncated vehicles = {})", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_RTV_BUILDING_TOTAL), this.getSummaryFeasibleTripsLevel(), reusedTrips.get(), truncatedVehicles.size());
+        if (!truncatedVehicles.isEmpty()) {
+            Logging.logger.debug("    - Truncated vehicles (trips not all checked within timeout): {}", truncatedVehicles.stream().map(Vehicle::getId).sorted().collect(Collectors.toList()));
+        }
     }
 
     public List<List<VisitObj>> getFeasibleTrips() {
@@ -182,7 +212,7 @@ public class ParallelGraphRTV implements GraphRTV {
         // FIND FEASIBLE TRIPS /////////////////////////////////////////////////////////////////////////////////////////
 
         Dao.getInstance().getRunTimes().startTimerFor(Runtime.TIME_RTV_FEASIBLE_TRIPS);
-        Map<Vehicle, List<List<VisitObj>>> allFeasibleTrips = this.listVehicles.stream().parallel().collect(Collectors.toMap(o -> o, this::getFeasibleTripsVehicle));
+        Map<Vehicle, List<List<VisitObj>>> allFeasibleTrips = this.getFeasibleTripsAllVehicles();
         Dao.getInstance().getRunTimes().endTimerFor(Runtime.TIME_RTV_FEASIBLE_TRIPS);
 
         Dao.getInstance().getRunTimes().startTimerFor(Runtime.TIME_RTV_POPULATE_GRAPH);
@@ -226,6 +256,71 @@ public class ParallelGraphRTV implements GraphRTV {
         Logging.logger.info("    - {} s - Populating graph", Dao.getInstance().getRunTimes().getExecutionTimeSecFor(Runtime.TIME_RTV_POPULATE_GRAPH));
     }
 
+    /**
+     * Find the feasible trips of all vehicles within the vehicle and round timeouts.
+     * <p>
+     * Vehicles are taken from a shared queue by the workers of the common fork-join pool, ordered by expected cost
+     * (number of RV requests), so crowded vehicles start first. Single-request trips are found for all vehicles before
+     * larger trips, so every vehicle has candidate trips even if the round timeout is reached. The trips of a level
+     * are checked by subtasks that idle workers steal, hence a crowded vehicle does not hold back the round while
+     * other workers are idle.
+     *
+     * @return Feasible trips per vehicle and level
+     */
+    private Map<Vehicle, List<List<VisitObj>>> getFeasibleTripsAllVehicles() {
+
+        VehicleTrips[] vehicleTrips = this.listVehicles.stream()
+                .map(VehicleTrips::new)
+                .sorted(Comparator.comparingInt((VehicleTrips trips) -> trips.candidateRequests.size()).reversed())
+                .toArray(VehicleTrips[]::new);
+
+        processInParallel(vehicleTrips, this::addSingleRequestTrips);
+        processInParallel(vehicleTrips, this::addMultipleRequestTrips);
+
+        Map<Vehicle, List<List<VisitObj>>> allFeasibleTrips = new HashMap<>();
+        for (VehicleTrips trips : vehicleTrips) {
+            allFeasibleTrips.put(trips.vehicle, trips.feasibleVisitsAtLevel);
+            if (trips.truncated) {
+                truncatedVehicles.add(trips.vehicle);
+            }
+        }
+        return allFeasibleTrips;
+    }
+
+    /**
+     * Process vehicles in order with one task per worker of the common fork-join pool (tasks take the next vehicle in
+     * the array until all are processed).
+     */
+    private static void processInParallel(VehicleTrips[] vehicleTrips, Consumer<VehicleTrips> step) {
+        AtomicInteger next = new AtomicInteger();
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int w = 0; w < ForkJoinPool.getCommonPoolParallelism(); w++) {
+            workers.add(ForkJoinTask.adapt(() -> {
+                for (int i = next.getAndIncrement(); i < vehicleTrips.length; i = next.getAndIncrement()) {
+                    step.accept(vehicleTrips[i]);
+                }
+            }));
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(workers)));
+    }
+
+    //**********************************************************************************************************
+    // Adding feasible visits of size = 1 **********************************************************************
+    //**********************************************************************************************************
+    private void addSingleRequestTrips(VehicleTrips trips) {
+
+        trips.resume();
+
+        // Try ALL insertions of request in vehicle visit sequence
+        List<Set<User>> candidateTrips = new ArrayList<>();
+        for (User request : trips.candidateRequests) {
+            candidateTrips.add(new HashSet<>(Arrays.asList(request)));
+        }
+        addRTVEdgesAtLevel(trips, candidateTrips, 0);
+
+        trips.pause();
+    }
+
     /**
      * !
      * The request-trip-vehicle RTV-graph contains edges "e(r, T)", between a request "r" and a trip "T" and feasible
@@ -247,86 +342,133 @@ public class ParallelGraphRTV implements GraphRTV {
      * Therefore, a trip T only needs to by checked for existence if there exists a vehicle v for which all of its
      * sub-trips T' present an edge e(T', v) in the RTV-graph.
      *
-     * @param vehicle
-     * @return
+     * @param trips Vehicle trips (single-request trips already added)
      */
-    private List<List<VisitObj>> getFeasibleTripsVehicle(Vehicle vehicle) {
+    private void addMultipleRequestTrips(VehicleTrips trips) {
 
-        // Which points can a vehicle access in less than user pickup time?
-        // Logging.logger.info("{}", String.format(" %s (%d) - %4d/%4d\n", vehicle, vehicle.getLastVisitedNode().getNetworkId(), Dao.getInstance().getReachability().get(vehicle.getLastVisitedNode().getNetworkId()).size(), Dao.getInstance().getDistMatrix().length));
+        trips.resume();
 
-        // Process times out after an interval
-        long startTime = System.nanoTime();
+        //**********************************************************************************************************
+        // Adding feasible visits of size = 2 **********************************************************************
+        //**********************************************************************************************************
 
-        // Feasible visits of size k={1,2,3, ..., capacity(vehicle)}
-        List<List<VisitObj>> feasibleVisitsAtLevel = new ArrayList<>();
+        if (trips.vehicle.getCapacity() >= 2 && !trips.isInterrupted()) {
 
-        // Feasible trips of size k={1,2,3, ..., capacity(vehicle)}
-        // A trip is feasible if there is ANY feasible visit featuring its users.
-        List<Set<Set<User>>> feasibleTripsAtLevel = new ArrayList<>();
+            List<VisitObj> singleRequestVisits = trips.feasibleVisitsAtLevel.get(0);
+            List<Set<User>> candidateTrips = new ArrayList<>();
 
-        for (int i = 0; i < vehicle.getCapacity(); i++) {
-            feasibleVisitsAtLevel.add(new LinkedList<>());
-            feasibleTripsAtLevel.add(new HashSet<>());
-        }
+            for (int i = 0; i < singleRequestVisits.size() - 1; i++) {
+                for (int j = i + 1; j < singleRequestVisits.size(); j++) {
 
-        //**********************************************************************************************************
-        // Adding feasible visits of size = 1 **********************************************************************
-        //**********************************************************************************************************
-        for (DefaultWeightedEdge edge : this.graphRV.edgesOf(vehicle)) {
+                    VisitObj visit1 = singleRequestVisits.get(i);
+                    VisitObj visit2 = singleRequestVisits.get(j);
 
-            // Interrupt processing
-            if (System.nanoTime() - startTime >= timeout) return feasibleVisitsAtLevel;
+                    User request1 = visit1.getRequests().iterator().next();
+                    User request2 = visit2.getRequests().iterator().next();
+
+                    assert visit1.getRequests().size() == 1 : String.format("More than 1 request: %s", visit1.getRequests());
+                    assert visit2.getRequests().size() == 1 : String.format("More than 1 request: %s", visit2.getRequests());
 
-            User request = (User) this.graphRV.getEdgeTarget(edge);
+                    // If RV edge exists, there is a possible trip including request1 and request2
+                    if (this.graphRV.hasEdge(request1, request2)) {
 
-            // Try ALL insertions of request in vehicle visit sequence
-            addRTVEdgeAtLevel(vehicle, new HashSet<>(Arrays.asList(request)), feasibleVisitsAtLevel.get(0));
+                        Set<User> requests = new HashSet<>(visit1.getRequests());
+                        requests.addAll(visit2.getRequests());
+                        candidateTrips.add(requests);
+                    }
+                }
+            }
+            addRTVEdgesAtLevel(trips, candidateTrips, 1);
         }
 
         //**********************************************************************************************************
-        // Adding feasible visits of size = 2 **********************************************************************
+        // Adding feasible visits of size > 2 **********************************************************************
         //**********************************************************************************************************
 
-        if (vehicle.getCapacity() >= 2) {
+        if (trips.feasibleVisitsAtLevel.get(0).size() <= Long.SIZE) {
+            addFeasibleVisitsFromMasks(trips);
+        } else {
+            addFeasibleVisitsFromSets(trips);
+        }
 
-            for (int i = 0; i < feasibleVisitsAtLevel.get(0).size() - 1; i++) {
-                for (int j = i + 1; j < feasibleVisitsAtLevel.get(0).size(); j++) {
+        trips.pause();
+    }
 
-                    // Interrupt processing
-                    if (System.nanoTime() - startTime >= timeout) return feasibleVisitsAtLevel;
+    /**
+     * Combine visits of size k into visits of size k+1 (k >= 2). Trips are encoded as bitmasks over the requests of
+     * the vehicle's single-request visits (bit b = request of b-th visit), so union, size, and sub-trip checks are bit
+     * operations and trips are looked up in primitive hash sets. Candidate trips are checked in the same order as in
+     * {@link #addFeasibleVisitsFromSets(VehicleTrips)}.
+     *
+     * @param trips Vehicle trips (visits of size 1 and 2 already added)
+     */
+    private void addFeasibleVisitsFromMasks(VehicleTrips trips) {
+
+        List<List<VisitObj>> feasibleVisitsAtLevel = trips.feasibleVisitsAtLevel;
+        List<VisitObj> singleRequestVisits = feasibleVisitsAtLevel.get(0);
+        User[] candidates = new User[singleRequestVisits.size()];
+        Map<User, Integer> bitOf = new HashMap<>();
+        for (int b = 0; b < candidates.length; b++) {
+            candidates[b] = singleRequestVisits.get(b).getRequests().iterator().next();
+            bitOf.put(candidates[b], b);
+        }
 
-                    VisitObj visit1 = feasibleVisitsAtLevel.get(0).get(i);
-                    VisitObj visit2 = feasibleVisitsAtLevel.get(0).get(j);
+        for (int k = 2; k < trips.vehicle.getCapacity(); k++) {
 
-                    User request1 = visit1.getRequests().iterator().next();
-                    User request2 = visit2.getRequests().iterator().next();
+            // Interrupt processing
+            if (trips.isInterrupted()) return;
 
-                    assert visit1.getRequests().size() == 1 : String.format("More than 1 request: %s", visit1.getRequests());
-                    assert visit2.getRequests().size() == 1 : String.format("More than 1 request: %s", visit2.getRequests());
+            // A trip is feasible if there is ANY feasible visit featuring its users
+            List<VisitObj> feasibleVisitsPreviousLevel = feasibleVisitsAtLevel.get(k - 1);
+            long[] tripsPreviousLevel = new long[feasibleVisitsPreviousLevel.size()];
+            LongHashSet feasibleTripsPreviousLevel = new LongHashSet(tripsPreviousLevel.length);
+            for (int i = 0; i < tripsPreviousLevel.length; i++) {
+                tripsPreviousLevel[i] = getTripMask(feasibleVisitsPreviousLevel.get(i).getRequests(), bitOf);
+                feasibleTripsPreviousLevel.add(tripsPreviousLevel[i]);
+            }
 
-                    // If RV edge exists, there is a possible trip including request1 and request2
-                    if (this.graphRV.getEdge(request1, request2) != null) {
+            LongHashSet tripsAlreadyAddedToCurrentLevel = new LongHashSet();
+            List<Set<User>> candidateTrips = new ArrayList<>();
 
-                        Set<User> requests = new HashSet<>(visit1.getRequests());
-                        requests.addAll(visit2.getRequests());
-                        if (addRTVEdgeAtLevel(vehicle, requests, feasibleVisitsAtLevel.get(1))) {
-                            feasibleTripsAtLevel.get(1).add(requests);
+            for (int i = 0; i < tripsPreviousLevel.length - 1; i++) {
+                for (int j = i + 1; j < tripsPreviousLevel.length; j++) {
+
+                    long combinedTrip = tripsPreviousLevel[i] | tripsPreviousLevel[j];
+
+                    if (Long.bitCount(combinedTrip) == k + 1 && tripsAlreadyAddedToCurrentLevel.add(combinedTrip)) {
+                        if (allSubTripsAreFeasible(feasibleTripsPreviousLevel, combinedTrip)) {
+                            candidateTrips.add(getTripRequests(combinedTrip, candidates));
                         }
                     }
                 }
             }
+            addRTVEdgesAtLevel(trips, candidateTrips, k);
         }
+    }
+
+    /**
+     * Combine visits of size k into visits of size k+1 (k >= 2) using sets of users (vehicles with more than 64
+     * single-request visits).
+     *
+     * @param trips Vehicle trips (visits of size 1 and 2 already added)
+     */
+    private void addFeasibleVisitsFromSets(VehicleTrips trips) {
+
+        List<List<VisitObj>> feasibleVisitsAtLevel = trips.feasibleVisitsAtLevel;
 
-        for (int k = 2; k < vehicle.getCapacity(); k++) {
+        for (int k = 2; k < trips.vehicle.getCapacity(); k++) {
 
             Set<Set<User>> tripsAlreadyAddedToCurrentLevel = new HashSet<>();
+            List<Set<User>> candidateTrips = new ArrayList<>();
 
             // Interrupt processing
-            if (System.nanoTime() - startTime >= timeout) return feasibleVisitsAtLevel;
+            if (trips.isInterrupted()) return;
 
+            // A trip is feasible if there is ANY feasible visit featuring its users
             List<VisitObj> feasibleVisitsPreviousLevel = feasibleVisitsAtLevel.get(k - 1);
-            Set<Set<User>> feasibleTripsPreviousLevel = feasibleTripsAtLevel.get(k - 1);
+            Set<Set<User>> feasibleTripsPreviousLevel = feasibleVisitsPreviousLevel.stream()
+                    .map(VisitObj::getRequests)
+                    .collect(Collectors.toSet());
 
             for (int i = 0; i < feasibleVisitsPreviousLevel.size() - 1; i++) {
                 for (int j = i + 1; j < feasibleVisitsPreviousLevel.size(); j++) {
@@ -337,16 +479,44 @@ public class ParallelGraphRTV implements GraphRTV {
                         tripsAlreadyAddedToCurrentLevel.add(combinedTrip);
 
                         if (allSubTripsAreFeasible(feasibleTripsPreviousLevel, combinedTrip)) {
-                            if (addRTVEdgeAtLevel(vehicle, combinedTrip, feasibleVisitsAtLevel.get(k))) {
-                                feasibleTripsAtLevel.get(k).add(combinedTrip);
-                            }
+                            candidateTrips.add(new HashSet<>(combinedTrip));
                         }
                     }
                 }
             }
+            addRTVEdgesAtLevel(trips, candidateTrips, k);
+        }
+    }
+
+    private static long getTripMask(Set<User> requests, Map<User, Integer> bitOf) {
+        long trip = 0;
+        for (User request : requests) {
+            trip |= 1L << bitOf.get(request);
+        }
+        return trip;
+    }
+
+    private static Set<User> getTripRequests(long trip, User[] candidates) {
+        Set<User> requests = new HashSet<>();
+        for (long bits = trip; bits != 0; bits &= bits - 1) {
+            requests.add(candidates[Long.numberOfTrailingZeros(bits)]);
         }
+        return requests;
+    }
 
-        return feasibleVisitsAtLevel;
+    /**
+     * Bitmask version of {@link #allSubTripsAreFeasible(Set, Set)}.
+     *
+     * @param feasibleTripsPreviousLevel Feasible trips of size $k-1$.
+     * @param candidateTrip              Candidate trip of size $k$.
+     * @return true if all sub-trips of candidate trip are feasible (i.e., featured in previous level)
+     */
+    private static boolean allSubTripsAreFeasible(LongHashSet feasibleTripsPreviousLevel, long candidateTrip) {
+        for (long bits = candidateTrip; bits != 0; bits &= bits - 1) {
+            // Sub-trip from candidate trip with one fewer request
+            if (!feasibleTripsPreviousLevel.contains(candidateTrip & ~Long.lowestOneBit(bits))) return false;
+        }
+        return true;
     }
 
     /**
@@ -403,21 +573,161 @@ public class ParallelGraphRTV implements GraphRTV {
     }
 
     /**
-     * Add RTV Edge with best visit found for vehicle and requests.
-     * @param vehicle
-     * @param requests
-     * @param feasibleVisitsCurrentVehicleAtLevel
-     * @return True, if there is a feasible visit where requests can be picked up by the vehicle.
+     * Add RTV Edges with best visits found for vehicle and candidate trips (in candidate order).
+     * Trips are checked by subtasks, trips checked in previous rounds under the same vehicle plan are skipped, and new
+     * feasible and infeasible trips are remembered for the next rounds. Trips not checked within the timeouts truncate the vehicle's trips.
+     *
+     * @param trips          Vehicle trips
+     * @param candidateTrips Trips to check (all of the same size)
+     * @param level          Level of candidate trips (i.e., number of requests - 1)
      */
-    private boolean addRTVEdgeAtLevel(Vehicle vehicle, Set<User> requests, List<VisitObj> feasibleVisitsCurrentVehicleAtLevel) {
-        VisitObj bestVisit = Method.getBestVisitFromPDPermutationsSummarized(vehicle, requests);
+    private void addRTVEdgesAtLevel(VehicleTrips trips, List<Set<User>> candidateTrips, int level) {
+
+        TripChecks checks = new TripChecks(trips, candidateTrips);
+        checks.invoke();
+
+        List<VisitObj> feasibleVisitsCurrentVehicleAtLevel = trips.feasibleVisitsAtLevel.get(level);
+        for (int i = 0; i < candidateTrips.size(); i++) {
+            if (checks.bestVisits[i] != null) {
+                feasibleVisitsCurrentVehicleAtLevel.add(checks.bestVisits[i]);
+                computeVisit(checks.bestVisits[i]);
+                if (checks.status[i] == TripChecks.CHECKED) {
+                    trips.feasibleTrips.put(candidateTrips.get(i), checks.bestVisits[i]);
+                } else {
+                    reusedTrips.incrementAndGet();
+                }
+            } else if (checks.status[i] == TripChecks.CHECKED) {
+                trips.infeasibleTrips.add(candidateTrips.get(i));
+            } else if (checks.status[i] == TripChecks.NOT_CHECKED) {
+                trips.truncated = true;
+            }
+        }
+    }
 
-        if (bestVisit != null) {
-            feasibleVisitsCurrentVehicleAtLevel.add(bestVisit);
-            computeVisit(bestVisit);
-            return true;
+    /**
+     * Best visits of a vehicle's candidate trips. Ranges of trips are split in halves down to
+     * {@link #MIN_TRIPS_PER_TASK}, so idle workers can steal the checks of crowded vehicles.
+     */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static class TripChecks extends RecursiveAction {
+
+        private static final byte NOT_CHECKED = 0;
+        private static final byte CHECKED = 1;
+        private static final byte KNOWN_INFEASIBLE = 2;
+        private static final byte KNOWN_FEASIBLE = 3;
+
+        private final VehicleTrips trips;
+        private final List<Set<User>> candidateTrips;
+        private final VisitObj[] bestVisits;
+        private final byte[] status;
+        private final int from;
+        private final int to;
+
+        private TripChecks(VehicleTrips trips, List<Set<User>> candidateTrips) {
+            this(trips, candidateTrips, new VisitObj[candidateTrips.size()], new byte[candidateTrips.size()], 0, candidateTrips.size());
+        }
+
+        private TripChecks(VehicleTrips trips, List<Set<User>> candidateTrips, VisitObj[] bestVisits, byte[] status, int from, int to) {
+            this.trips = trips;
+            this.candidateTrips = candidateTrips;
+            this.bestVisits = bestVisits;
+            this.status = status;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_TRIPS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    check(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new TripChecks(trips, candidateTrips, bestVisits, status, from, middle),
+                    new TripChecks(trips, candidateTrips, bestVisits, status, middle, to));
+        }
+
+        private void check(int i) {
+
+            // Interrupt processing
+            if (trips.isTimedOut()) {
+                return;
+            }
+
+            // Known trips are only added by the vehicle's task after all checks of a level are joined
+            Set<User> requests = candidateTrips.get(i);
+            if (trips.infeasibleTrips.contains(requests)) {
+                status[i] = KNOWN_INFEASIBLE;
+                return;
+            }
+            VisitObj knownVisit = trips.feasibleTrips.get(requests);
+            if (knownVisit != null) {
+                bestVisits[i] = knownVisit;
+                status[i] = KNOWN_FEASIBLE;
+                return;
+            }
+
+            bestVisits[i] = Method.getBestVisitFromPDPermutationsSummarized(trips.vehicle, requests);
+            status[i] = CHECKED;
+        }
+    }
+
+    /**
+     * Feasible trips found for a vehicle and its processing time (the vehicle timeout only counts the time the vehicle
+     * is being processed, not the time it waits in the queue).
+     */
+    private class VehicleTrips {
+
+        private final Vehicle vehicle;
+        private final List<User> candidateRequests;
+        // Feasible visits of size k={1,2,3, ..., capacity(vehicle)}
+        private final List<List<VisitObj>> feasibleVisitsAtLevel;
+        // Trips that cannot be serviced under the vehicle's current plan (not checked again)
+        private final Set<Set<User>> infeasibleTrips;
+        // Best visits of trips found feasible under the vehicle's current plan (not checked again)
+        private final Map<Set<User>, VisitObj> feasibleTrips;
+        private long startTime;
+        private long elapsedTime;
+        private volatile boolean truncated;
+
+        private VehicleTrips(Vehicle vehicle) {
+            this.vehicle = vehicle;
+            this.candidateRequests = graphRV.getRequestsOf(vehicle);
+            this.infeasibleTrips = tripCache.getInfeasibleTrips(vehicle);
+            this.feasibleTrips = tripCache.getFeasibleTrips(vehicle);
+
+            // Visits are accessed by position when combined
+            this.feasibleVisitsAtLevel = new ArrayList<>();
+            for (int i = 0; i < vehicle.getCapacity(); i++) {
+                feasibleVisitsAtLevel.add(new ArrayList<>());
+            }
+        }
+
+        private void resume() {
+            startTime = System.nanoTime() - elapsedTime;
+        }
+
+        private void pause() {
+            elapsedTime = System.nanoTime() - startTime;
+        }
+
+        private boolean isTimedOut() {
+            long now = System.nanoTime();
+            return now - startTime >= timeout || now - roundStartTime >= timeoutRound;
+        }
+
+        /**
+         * @return True, if vehicle or round timed out (trips of the remaining levels are not checked)
+         */
+        private boolean isInterrupted() {
+            if (isTimedOut()) {
+                truncated = true;
+            }
+            return truncated;
         }
-        return false;
     }
 
     private void computeVisit(VisitObj visit) {
@@ -0,0 +1,170 @@
+package model.graph;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import dao.ReachabilityIndex;
+import model.User;
+import simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Candidate request-request (RR) pairs of a batch, i.e., pairs that could possibly share a vehicle.
+ * <p>
+ * Every RR sequence starts at a pickup and reaches the second pickup either directly or after the first drop-off.
+ * Since arrivals never decrease along a sequence, requests a and b can only share a vehicle if
+ * <pre>
+ * departure(a) + min(dist(pk_a, pk_b), dist(pk_a, dp_a) + dist(dp_a, pk_b)) &lt;= latest(pk_b)
+ * </pre>
+ * (or the same with a and b swapped). Candidates are drawn from the pickups and drop-offs within the reachability
+ * bounds of each request ({@link ReachabilityIndex}) and filtered with the condition above, hence only pairs that
+ * can satisfy it get the full sequence check. Pairs pruned here would fail the sequence check anyway.
+ */
+public class RequestPairIndex {
+
+    private final DistanceMatrix distMatrix;
+    private final ReachabilityIndex reachabilityIndex;
+    private final int n;
+    // Network ids of pickups and drop-offs
+    private final int[] pickup;
+    private final int[] dropoff;
+    // Earliest time a vehicle can leave each pickup and latest pickup time
+    private final int[] departure;
+    private final int[] latest;
+    private final int minDeparture;
+    private final int maxLatest;
+    // Request indexes at each network id
+    private final Map<Integer, List<Integer>> requestsAtPickup = new HashMap<>();
+    private final Map<Integer, List<Integer>> requestsAtDropoff = new HashMap<>();
+
+    public RequestPairIndex(int[] pickup, int[] dropoff, int[] departure, int[] latest, DistanceMatrix distMatrix, ReachabilityIndex reachabilityIndex) {
+        this.distMatrix = distMatrix;
+        this.reachabilityIndex = reachabilityIndex;
+        this.n = pickup.length;
+        this.pickup = pickup;
+        this.dropoff = dropoff;
+        this.departure = departure;
+        this.latest = latest;
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, departure[i]);
+            max = Math.max(max, latest[i]);
+            requestsAtPickup.computeIfAbsent(pickup[i], k -> new ArrayList<>()).add(i);
+            requestsAtDropoff.computeIfAbsent(dropoff[i], k -> new ArrayList<>()).add(i);
+        }
+        this.minDeparture = min;
+        this.maxLatest = max;
+    }
+
+    /**
+     * @param requests Requests in batch (indexes are kept)
+     * @return Index over the requests' pickup and drop-off nodes (current simulation time)
+     */
+    public static RequestPairIndex of(List<User> requests) {
+        int size = requests.size();
+        int[] pickup = new int[size];
+        int[] dropoff = new int[size];
+        int[] departure = new int[size];
+        int[] latest = new int[size];
+        for (int i = 0; i < size; i++) {
+            User user = requests.get(i);
+            pickup[i] = user.getNodePk().getNetworkId();
+            dropoff[i] = user.getNodeDp().getNetworkId();
+            // Same departure used in RR legs (see Leg(Node))
+            departure[i] = Math.max(Simulation.rightTW, user.getNodePk().getEarliestDeparture());
+            latest[i] = user.getNodePk().getLatest();
+        }
+        return new RequestPairIndex(pickup, dropoff, departure, latest,
+                Dao.getInstance().getDistMatrix(), Dao.getInstance().getReachabilityIndex());
+    }
+
+    /**
+     * @param i Request index
+     * @return Indexes j > i (set bits) such that requests i and j can possibly share a vehicle
+     */
+    public BitSet getCandidates(int i) {
+
+        BitSet candidates = new BitSet(n);
+
+        // Request j picked up after request i (from pk_i or from dp_i)
+        int budgetFromPickup = maxLatest - departure[i];
+        int distPickupDropoff = distMatrix.get(pickup[i], dropoff[i]);
+        int budgetFromDropoff = distPickupDropoff >= 0 ? budgetFromPickup - distPickupDropoff : -1;
+
+        // Request j picked up before request i (from pk_j or from dp_j)
+        int budgetToPickup = latest[i] - minDeparture;
+
+        int nodes = count(pickup[i], budgetFromPickup, true)
+                + count(dropoff[i], budgetFromDropoff, true)
+                + 2 * count(pickup[i], budgetToPickup, false);
+
+        if (nodes >= n - i - 1) {
+            // Cheaper to check all subsequent requests
+            candidates.set(i + 1, n);
+        } else {
+            if (budgetFromPickup >= 0) {
+                mark(candidates, requestsAtPickup, reachabilityIndex.getReachableWithin(pickup[i], budgetFromPickup));
+            }
+            if (budgetFromDropoff >= 0) {
+                mark(candidates, requestsAtPickup, reachabilityIndex.getReachableWithin(dropoff[i], budgetFromDropoff));
+            }
+            if (budgetToPickup >= 0) {
+                int[] reaching = reachabilityIndex.getReachingWithin(pickup[i], budgetToPickup);
+                mark(candidates, requestsAtPickup, reaching);
+                mark(candidates, requestsAtDropoff, reaching);
+            }
+            candidates.clear(0, i + 1);
+        }
+
+        for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+            if (!canShare(i, j)) {
+                candidates.clear(j);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return True, if either request can be picked up first and the other in time
+     */
+    public boolean canShare(int a, int b) {
+        return canPickupSecond(a, b) || canPickupSecond(b, a);
+    }
+
+    /**
+     * @return True, if after leaving pk_first, pk_second can be reached in time directly or from dp_first
+     */
+    private boolean canPickupSecond(int first, int second) {
+        int direct = distMatrix.get(pickup[first], pickup[second]);
+        if (direct >= 0 && departure[first] + direct <= latest[second]) {
+            return true;
+        }
+        int toDropoff = distMatrix.get(pickup[first], dropoff[first]);
+        int fromDropoff = distMatrix.get(dropoff[first], pickup[second]);
+        return toDropoff >= 0 && fromDropoff >= 0 && departure[first] + toDropoff + fromDropoff <= latest[second];
+    }
+
+    private int count(int node, int seconds, boolean forward) {
+        if (seconds < 0) {
+            return 0;
+        }
+        return forward ? reachabilityIndex.countReachableWithin(node, seconds) : reachabilityIndex.countReachingWithin(node, seconds);
+    }
+
+    private static void mark(BitSet candidates, Map<Integer, List<Integer>> requestsAt, int[] nodes) {
+        for (int node : nodes) {
+            List<Integer> requests = requestsAt.get(node);
+            if (requests != null) {
+                for (int request : requests) {
+                    candidates.set(request);
+                }
+            }
+        }
+    }
+}
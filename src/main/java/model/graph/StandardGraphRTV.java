@@ -283,7 +283,7 @@ public class StandardGraphRTV implements GraphRTV {
     private List<List<VisitObj>> getFeasibleTripsVehicle(Vehicle vehicle) {
 
         // Which points can a vehicle access in less than user pickup time?
-        // Logging.logger.info("{}", String.format(" %s (%d) - %4d/%4d\n", vehicle, vehicle.getLastVisitedNode().getNetworkId(), Dao.getInstance().getReachability().get(vehicle.getLastVisitedNode().getNetworkId()).size(), Dao.getInstance().getDistMatrix().length));
+        // Logging.logger.info("{}", String.format(" %s (%d) - %4d/%4d\n", vehicle, vehicle.getLastVisitedNode().getNetworkId(), Dao.getInstance().getReachability().get(vehicle.getLastVisitedNode().getNetworkId()).size(), Dao.getInstance().getDistMatrix().size()));
 
         // Process times out after an interval
         long startTime = System.nanoTime();
@@ -303,14 +303,12 @@ public class StandardGraphRTV implements GraphRTV {
         //**********************************************************************************************************
         // Adding feasible visits of size = 1 **********************************************************************
         //**********************************************************************************************************
-        for (DefaultWeightedEdge edge : this.graphRV.edgesOf(vehicle)) {
+        for (User request : this.graphRV.getRequestsOf(vehicle)) {
 
             // Interrupt processing
             if (System.nanoTime() - startTime >= timeout)
                 return feasibleVisitsAtLevel;
 
-            User request = (User) this.graphRV.getEdgeTarget(edge);
-
             // Try ALL insertions of request in vehicle visit sequence
             addRTVEdgeAtLevel(vehicle, new HashSet<>(Arrays.asList(request)), feasibleVisitsAtLevel.get(0));
         }
@@ -338,7 +336,7 @@ public class StandardGraphRTV implements GraphRTV {
                     assert visit2.getRequests().size() == 1 : String.format("More than 1 request: %s", visit2.getRequests());
 
                     // If RV edge exists, there is a possible trip including request1 and request2
-                    if (this.graphRV.getEdge(request1, request2) != null) {
+                    if (this.graphRV.hasEdge(request1, request2)) {
 
                         Set<User> requests = new HashSet<>(visit1.getRequests());
                         requests.addAll(visit2.getRequests());
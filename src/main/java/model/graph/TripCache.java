@@ -0,0 +1,168 @@
+package model.graph;
+
+import model.User;
+import model.Vehicle;
+import model.VisitObj;
+import model.node.Node;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Trips (sets of requests) checked for a vehicle in previous rounds.
+ * <p>
+ * For a fixed vehicle plan (last visited node, departure, middle node, current visit, and load), arrivals along any
+ * sequence never decrease as the round time advances, hence a trip that could not be serviced remains infeasible
+ * until the plan changes. The best visit of a feasible trip only depends on the round time if the vehicle departs at
+ * the round time (i.e., it is idle), hence best visits are kept for vehicles departing later (e.g., waiting at a
+ * node or moving). Trips are dropped when the vehicle's plan changes or when any of their requests is no longer
+ * waiting (or had its service level lowered since the previous round, i.e., later latest times).
+ */
+public class TripCache {
+
+    private final Map<Vehicle, Entry> entries = new ConcurrentHashMap<>();
+    private final LoweredServiceLevels loweredServiceLevels = new LoweredServiceLevels();
+    private int round;
+
+    /**
+     * Drop trips that are no longer valid. Must be called at the start of each round, before trips are looked up.
+     *
+     * @param round    Round time
+     * @param vehicles Vehicles in round
+     * @param requests Requests waiting in round
+     */
+    public void startRound(int round, Set<Vehicle> vehicles, Set<User> requests) {
+        this.round = round;
+        Set<Integer> lowered = loweredServiceLevels.startRound(requests);
+        Predicate<Set<User>> invalid = trip -> !requests.containsAll(trip) || trip.stream().anyMatch(request -> lowered.contains(request.getId()));
+        entries.keySet().retainAll(vehicles);
+        entries.forEach((vehicle, entry) -> {
+            if (!entry.plan.matches(vehicle)) {
+                entries.remove(vehicle);
+            } else {
+                entry.infeasibleTrips.removeIf(invalid);
+                if (departsAtRoundTime(vehicle)) {
+                    entry.feasibleTrips.clear();
+                } else {
+                    entry.feasibleTrips.keySet().removeIf(invalid);
+                }
+            }
+        });
+    }
+
+    /**
+     * Infeasible trips of a vehicle under its current plan. The returned set is not synchronized, hence it should
+     * only be used by the thread processing the vehicle.
+     *
+     * @param vehicle Vehicle
+     * @return Modifiable set of infeasible trips
+     */
+    public Set<Set<User>> getInfeasibleTrips(Vehicle vehicle) {
+        return getEntry(vehicle).infeasibleTrips;
+    }
+
+    /**
+     * Best visits of the feasible trips of a vehicle under its current plan. Visits of vehicles departing at the
+     * round time are not kept (the returned map is discarded). The returned map is not synchronized, hence it should
+     * only be used by the thread processing the vehicle.
+     *
+     * @param vehicle Vehicle
+     * @return Modifiable map of best visits per trip
+     */
+    public Map<Set<User>, VisitObj> getFeasibleTrips(Vehicle vehicle) {
+        if (departsAtRoundTime(vehicle)) {
+            return new HashMap<>();
+        }
+        return getEntry(vehicle).feasibleTrips;
+    }
+
+    public int size() {
+        return entries.values().stream().mapToInt(entry -> entry.infeasibleTrips.size()).sum();
+    }
+
+    public int sizeFeasible() {
+        return entries.values().stream().mapToInt(entry -> entry.feasibleTrips.size()).sum();
+    }
+
+    private Entry getEntry(Vehicle vehicle) {
+        Entry entry = entries.get(vehicle);
+        if (entry == null || !entry.plan.matches(vehicle)) {
+            entry = new Entry(new Plan(vehicle));
+            entries.put(vehicle, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * @return True, if vehicle is parked and can leave at the round time (its visits start at the round time)
+     */
+    private boolean departsAtRoundTime(Vehicle vehicle) {
+        Integer earliestDeparture = vehicle.getEarliestDeparture();
+        return vehicle.getMiddleNode() == null && (earliestDeparture == null || earliestDeparture <= round);
+    }
+
+    private static class Entry {
+        private final Plan plan;
+        private final Set<Set<User>> infeasibleTrips = new HashSet<>();
+        private final Map<Set<User>, VisitObj> feasibleTrips = new HashMap<>();
+
+        private Entry(Plan plan) {
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Vehicle data the feasibility of a trip depends on (besides the round time). Nodes and visits are compared by
+     * identity.
+     */
+    private static class Plan {
+        private final Node lastVisitedNode;
+        private final Integer departure;
+        private final Integer earliestDeparture;
+        private final Node middleNode;
+        private final VisitObj visit;
+        private final Node targetNode;
+        private final int passengers;
+        private final int load;
+        private final int capacity;
+        private final int contractDeadline;
+        private final boolean servicing;
+        private final boolean rebalancing;
+
+        private Plan(Vehicle vehicle) {
+            this.lastVisitedNode = vehicle.getLastVisitedNode();
+            this.departure = lastVisitedNode.getDeparture();
+            this.earliestDeparture = vehicle.getEarliestDeparture();
+            this.middleNode = vehicle.getMiddleNode();
+            this.visit = vehicle.getVisit();
+            this.targetNode = visit != null ? visit.getTargetNode() : null;
+            this.passengers = visit != null && visit.getPassengers() != null ? visit.getPassengers().size() : 0;
+            this.load = vehicle.getCurrentLoad();
+            this.capacity = vehicle.getCapacity();
+            this.contractDeadline = vehicle.getContractDeadline();
+            this.servicing = vehicle.isServicing();
+            this.rebalancing = vehicle.isRebalancing();
+        }
+
+        private boolean matches(Vehicle vehicle) {
+            VisitObj currentVisit = vehicle.getVisit();
+            return lastVisitedNode == vehicle.getLastVisitedNode()
+                    && Objects.equals(departure, lastVisitedNode.getDeparture())
+                    && Objects.equals(earliestDeparture, vehicle.getEarliestDeparture())
+                    && middleNode == vehicle.getMiddleNode()
+                    && visit == currentVisit
+                    && targetNode == (currentVisit != null ? currentVisit.getTargetNode() : null)
+                    && passengers == (currentVisit != null && currentVisit.getPassengers() != null ? currentVisit.getPassengers().size() : 0)
+                    && load == vehicle.getCurrentLoad()
+                    && capacity == vehicle.getCapacity()
+                    && contractDeadline == vehicle.getContractDeadline()
+                    && servicing == vehicle.isServicing()
+                    && rebalancing == vehicle.isRebalancing();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package model.graph;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import dao.ReachabilityIndex;
+import model.Vehicle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vehicle positions (last visited nodes) of a round, queried for the vehicles that can reach a pickup before its
+ * latest time.
+ * <p>
+ * Every sequence checked for a vehicle leaves its last visited node at its earliest departure and reaches the pickup
+ * after at most "hops" intermediate stops (middle node and nodes of the current visit). Travel times are shortest-path
+ * durations truncated to seconds, hence going through k stops is at most k seconds shorter than the direct trip and a
+ * vehicle can only pick up a request if
+ * <pre>
+ * departure(v) + dist(last_v, pk) - hops(v) &lt;= latest(pk)
+ * </pre>
+ * Candidates are drawn from the nodes reaching the pickup within the slack ({@link ReachabilityIndex}) and filtered
+ * with the condition above. Vehicles pruned here would fail the sequence check anyway.
+ */
+public class VehiclePositionIndex {
+
+    private final DistanceMatrix distMatrix;
+    private final ReachabilityIndex reachabilityIndex;
+    private final int n;
+    // Network id of last visited node, earliest departure, and max. number of stops before a pickup
+    private final int[] position;
+    private final int[] departure;
+    private final int[] hops;
+    private final int minDeparture;
+    private final int maxHops;
+    // Vehicle indexes at each network id
+    private final Map<Integer, List<Integer>> vehiclesAt = new HashMap<>();
+
+    public VehiclePositionIndex(int[] position, int[] departure, int[] hops, DistanceMatrix distMatrix, ReachabilityIndex reachabilityIndex) {
+        this.distMatrix = distMatrix;
+        this.reachabilityIndex = reachabilityIndex;
+        this.n = position.length;
+        this.position = position;
+        this.departure = departure;
+        this.hops = hops;
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int v = 0; v < n; v++) {
+            min = Math.min(min, departure[v]);
+            max = Math.max(max, hops[v]);
+            vehiclesAt.computeIfAbsent(position[v], k -> new ArrayList<>()).add(v);
+        }
+        this.minDeparture = min;
+        this.maxHops = max;
+    }
+
+    /**
+     * @param vehicles Vehicles in round (indexes are kept)
+     * @return Index over the vehicles' last visited nodes
+     */
+    public static VehiclePositionIndex of(List<Vehicle> vehicles) {
+        int size = vehicles.size();
+        int[] position = new int[size];
+        int[] departure = new int[size];
+        int[] hops = new int[size];
+        for (int v = 0; v < size; v++) {
+            Vehicle vehicle = vehicles.get(v);
+            position[v] = vehicle.getLastVisitedNode().getNetworkId();
+            departure[v] = vehicle.getEarliestDeparture();
+            // Middle node + nodes of current visit
+            hops[v] = 1 + (vehicle.getVisit() != null ? vehicle.getVisit().getVisitSequenceSize() : 0);
+        }
+        return new VehiclePositionIndex(position, departure, hops,
+                Dao.getInstance().getDistMatrix(), Dao.getInstance().getReachabilityIndex());
+    }
+
+    /**
+     * @param pickup Network id of pickup
+     * @param latest Latest pickup time
+     * @return Indexes (set bits) of vehicles that can possibly reach the pickup in time
+     */
+    public BitSet getCandidates(int pickup, int latest) {
+
+        BitSet candidates = new BitSet(n);
+        int slack = latest - minDeparture + maxHops;
+
+        if (slack < 0) {
+            return candidates;
+        }
+
+        if (reachabilityIndex.countReachingWithin(pickup, slack) >= n) {
+            // Cheaper to check all vehicles
+            candidates.set(0, n);
+        } else {
+            for (int node : reachabilityIndex.getReachingWithin(pickup, slack)) {
+                List<Integer> vehicles = vehiclesAt.get(node);
+                if (vehicles != null) {
+                    for (int v : vehicles) {
+                        candidates.set(v);
+                    }
+                }
+            }
+        }
+
+        for (int v = candidates.nextSetBit(0); v >= 0; v = candidates.nextSetBit(v + 1)) {
+            if (!canReach(v, pickup, latest)) {
+                candidates.clear(v);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return True, if vehicle v can possibly arrive at pickup until latest
+     */
+    public boolean canReach(int v, int pickup, int latest) {
+        int dist = distMatrix.get(position[v], pickup);
+        // Without a direct path, the trip through other stops is not bounded
+        return dist < 0 || departure[v] + dist - hops[v] <= latest;
+    }
+}
@@ -22,6 +22,8 @@ public class FleetStateActionSpace {
     public int timeStep;
     protected int timeHorizon;
     protected int elapsed;
+    // Number of vehicles heading to each node (network id)
+    protected Map<Integer, Integer> vehicleCountAtTargetNode;
     public FleetStateActionSpaceObject postDecisionStateActionObj;
     public ExperienceObject experienceObj;
 
@@ -115,6 +117,7 @@ public class FleetStateActionSpace {
 
     public FleetStateActionSpace(Set<Vehicle> vehicles, Set<User> requests, int timeStep, int timeHorizon) {
         this.vehicles = vehicles;
+        this.vehicleCountAtTargetNode = getVehicleCountAtTargetNode(vehicles);
         this.requests = requests;
         this.timeStep = timeStep;
         this.timeHorizon = timeHorizon;
@@ -132,6 +135,7 @@ public class FleetStateActionSpace {
      */
     public FleetStateActionSpace(Set<Vehicle> vehicles, Set<User> requests, Map<Vehicle, Set<VisitObj>> vehicleVisitMap, int timeStep, int timeHorizon) {
         this.vehicles = vehicles;
+        this.vehicleCountAtTargetNode = getVehicleCountAtTargetNode(vehicles);
         this.requests = requests;
         this.timeStep = timeStep;
         this.timeHorizon = timeHorizon;
@@ -147,13 +151,29 @@ public class FleetStateActionSpace {
         this.createVehicleDecisions();
     }
 
+    private static Map<Integer, Integer> getVehicleCountAtTargetNode(Set<Vehicle> vehicles) {
+        Map<Integer, Integer> vehicleCount = new HashMap<>();
+        for (Vehicle vehicle : vehicles) {
+            vehicleCount.merge(vehicle.getTargetNode().getNetworkId(), 1, Integer::sum);
+        }
+        return vehicleCount;
+    }
+
     protected void setNumberOfSurroundingVehiclesAtNextLocation(StateAction state) {
         int nOfSurroundingVehicles = 0;
-        for (Vehicle otherVehicle : this.vehicles) {
-            if (!otherVehicle.equals(state.vehicle))
-                if (StateAction.vehicleCanReach(state, otherVehicle)) {
-                    nOfSurroundingVehicles++;
-                }
+        if (StateAction.countNodesCanReach(state) < this.vehicles.size()) {
+            // Visit nodes around the next location instead of all vehicles
+            nOfSurroundingVehicles = StateAction.countVehiclesCanReach(state, this.vehicleCountAtTargetNode);
+            if (this.vehicles.contains(state.vehicle) && StateAction.vehicleCanReach(state, state.vehicle)) {
+                nOfSurroundingVehicles--;
+            }
+        } else {
+            for (Vehicle otherVehicle : this.vehicles) {
+                if (!otherVehicle.equals(state.vehicle))
+                    if (StateAction.vehicleCanReach(state, otherVehicle)) {
+                        nOfSurroundingVehicles++;
+                    }
+            }
         }
         state.setVehicleCount(nOfSurroundingVehicles);
         state.setVehicleCountNormal((double) nOfSurroundingVehicles / this.vehicles.size());
@@ -2,6 +2,7 @@ package model.learn;
 
 import com.google.common.base.Objects;
 import dao.Dao;
+import dao.ReachabilityIndex;
 import model.*;
 import model.node.Node;
 import model.node.NodeDP;
@@ -692,6 +693,43 @@ public class StateAction implements Comparable<StateAction>, VisitObj {
         return delayV1_V2 <= MAX_PICKUP_DELAY || delayV2_V1 <= MAX_PICKUP_DELAY;
     }
 
+    /**
+     * Count vehicles that can reach (or be reached from) the next node of a state, i.e., vehicles v2 for which
+     * {@link #vehicleCanReach(StateAction, Vehicle)} holds. Uses the reachability index to visit only the nodes within
+     * the pickup delay.
+     *
+     * @param v1VisitPostState   State whose next node is checked
+     * @param vehicleCountAtNode    Number of vehicles per pre-decision target node (network id)
+     * @return Number of vehicles (the state's own vehicle included, if it can reach)
+     */
+    public static int countVehiclesCanReach(StateAction v1VisitPostState, Map<Integer, Integer> vehicleCountAtNode) {
+        ReachabilityIndex reachabilityIndex = Dao.getInstance().getReachabilityIndex();
+        int v1PostNextNode = v1VisitPostState.getNextNode().getNetworkId();
+
+        int count = 0;
+        for (int v2PreNextNode : reachabilityIndex.getReachableWithin(v1PostNextNode, MAX_PICKUP_DELAY)) {
+            count += vehicleCountAtNode.getOrDefault(v2PreNextNode, 0);
+        }
+        // Nodes that can only reach the next node (not counted above)
+        for (int v2PreNextNode : reachabilityIndex.getReachingWithin(v1PostNextNode, MAX_PICKUP_DELAY)) {
+            if (Dao.getInstance().getDistSec(v1PostNextNode, v2PreNextNode) > MAX_PICKUP_DELAY) {
+                count += vehicleCountAtNode.getOrDefault(v2PreNextNode, 0);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param v1VisitPostState State whose next node is checked
+     * @return Number of nodes within the pickup delay of the state's next node (both directions, possibly repeated)
+     */
+    public static int countNodesCanReach(StateAction v1VisitPostState) {
+        ReachabilityIndex reachabilityIndex = Dao.getInstance().getReachabilityIndex();
+        int v1PostNextNode = v1VisitPostState.getNextNode().getNetworkId();
+        return reachabilityIndex.countReachableWithin(v1PostNextNode, MAX_PICKUP_DELAY)
+                + reachabilityIndex.countReachingWithin(v1PostNextNode, MAX_PICKUP_DELAY);
+    }
+
     public String getType(){
         return this.visit.getClass().getSimpleName();
     }
@@ -515,32 +515,18 @@ public class Method {
         // visit is inserted in the RTV graph.
 
         Visit visit = null;
-        Node[] lowestDelaySequence = null;
-        Leg bestDraftVisit = null;
+        int[] bestDraftVisit = RouteFeasibility.newState();
 
         // Create request set out of one request
         PDPermutations perms = new PDPermutations(requests, vehicle);
 
-        while (perms.hasNext()) {
-
-            Node[] PDPermutation = perms.next();
-            // getMapNetworkIdNodes(sequencePickupsAndDeliveries);
-
-            Leg draftVisit = Visit.getDraftVisit(vehicle, PDPermutation);
-
-            // Update if delay is valid
-            if (draftVisit != null) {
-                if (draftVisit.compareTo(bestDraftVisit) < 0) {
-                    bestDraftVisit = draftVisit;
-                    lowestDelaySequence = PDPermutation;
-                }
-            }
-        }
+        // Permutations sharing an infeasible (or worse) prefix are pruned together
+        Node[] lowestDelaySequence = perms.getBestSequence(vehicle, bestDraftVisit);
 
         if (lowestDelaySequence != null) {
 
             // Setup new visit
-            visit = new Visit(lowestDelaySequence, bestDraftVisit.delay, bestDraftVisit.delayBonus, bestDraftVisit.idleness, vehicle, requests);
+            visit = new Visit(lowestDelaySequence, bestDraftVisit[RouteFeasibility.DELAY], bestDraftVisit[RouteFeasibility.DELAY_BONUS], bestDraftVisit[RouteFeasibility.IDLENESS], vehicle, requests);
 
         }
 
@@ -561,7 +547,11 @@ public class Method {
 
         Visit visit = null;
         Node[] lowestDelaySequence = null;
-        Leg bestDraftVisit = null;
+
+        // States of current and best sequences (swapped when current is better)
+        int[] draftVisit = RouteFeasibility.newState();
+        int[] bestDraftVisit = RouteFeasibility.newState();
+        RouteFeasibility.Nodes nodes = new RouteFeasibility.Nodes();
 
         PDGeneratorSingleInsertion perms = new PDGeneratorSingleInsertion(request, vehicle);
 
@@ -570,12 +560,13 @@ public class Method {
             Node[] PDPermutation = perms.next();
             //Logging.logger.info(Arrays.asList(PDPermutation));
             //Logging.logger.info(vehicle.getVisit());
-            Leg draftVisit = Visit.getDraftVisit(vehicle, PDPermutation);
 
             // Update if delay is valid
-            if (draftVisit != null) {
-                if (draftVisit.compareTo(bestDraftVisit) < 0) {
+            if (RouteFeasibility.check(vehicle, nodes.set(PDPermutation), draftVisit)) {
+                if (lowestDelaySequence == null || RouteFeasibility.isBetter(draftVisit, bestDraftVisit)) {
+                    int[] swap = bestDraftVisit;
                     bestDraftVisit = draftVisit;
+                    draftVisit = swap;
                     lowestDelaySequence = PDPermutation;
                 }
             }
@@ -590,7 +581,7 @@ public class Method {
                 requests.addAll(vehicle.getVisit().getRequests());
             }
 
-            visit = new Visit(lowestDelaySequence, bestDraftVisit.delay, bestDraftVisit.idleness, vehicle, requests);
+            visit = new Visit(lowestDelaySequence, bestDraftVisit[RouteFeasibility.DELAY], bestDraftVisit[RouteFeasibility.IDLENESS], vehicle, requests);
         }
 
         return visit;
@@ -149,7 +149,7 @@ public abstract class Simulation {
 
         runTimes = Dao.getInstance().getRunTimes();
 
-        listVehicles = MethodHelper.createListVehicles(initialFleetSize, vehicleCapacity, true, leftTW, this.randomSeed, Dao.getInstance().getDistMatrix().length); // List of vehicles
+        listVehicles = MethodHelper.createListVehicles(initialFleetSize, vehicleCapacity, true, leftTW, this.randomSeed, Dao.getInstance().getDistMatrix().size()); // List of vehicles
 //        String a = listVehicles.stream().map(v -> String.valueOf(v.getOrigin().getNetworkId())).reduce("", (subtotal, element) -> subtotal + "," + element);
 //        HelperIO.saveDataWithHeaders(String.format("vehicle_distribution_%s.txt", this.randomSeed), a, this.matching.toString(), true);
         listHiredVehicles = new HashSet<>();
@@ -19,6 +19,9 @@ public class Matching {
     public static final String METHOD_FCFS = "method_fcfs";
     public static final String METHOD_OPTIMAL_ENFORCE_SL = "method_optimal_enforce_sl";
     public static final String METHOD_OPTIMAL_ENFORCE_SL_HIRE = "method_optimal_enforce_sl_and_hire";
+    public static final String SOLVER_GUROBI = "solver_gurobi";
+    public static final String SOLVER_LOCAL_SEARCH = "solver_local_search";
+    public static final String SOLVER_COLUMN_GENERATION = "solver_column_generation";
     protected Map<String, Long> runTimes;
     protected int contractDuration;
     protected Rebalance rebalanceUtil;
@@ -30,6 +30,8 @@ public class MatchingOptimal implements RideMatchingStrategy {
     protected String PDVisitGenerator;
     protected int maxVehicleCapacityRTV;
     protected double timeoutVehicleRTV;
+    protected double timeoutRoundRTV; // Time budget of the whole RTV graph building (unbounded if not positive)
+    protected String assignmentSolver = Matching.SOLVER_GUROBI;
     protected double mipTimeLimit;
     protected double mipGap;
     protected int maxEdgesRV;
@@ -144,9 +146,7 @@ public class MatchingOptimal implements RideMatchingStrategy {
         buildGraphRTV(unassignedRequests, vehicles, this.maxVehicleCapacityRTV, timeoutVehicleRTV, maxEdgesRV, maxEdgesRR);
         //Map<User, Set<VisitObj>> userVisitMapRTV = graphRTV.getUserVisitsMap();
         Map<Vehicle, Set<VisitObj>> vehicleVisitMapRTV = graphRTV.getVehicleVisitsMap();
-        AssignmentILP visitToVehiclesAssignment = new AssignmentILP(currentTime,vehicleVisitMapRTV,  unassignedRequests, true);
-        visitToVehiclesAssignment.run(new String[]{Objective.TOTAL_REQUESTS, Objective.TOTAL_WAITING});
-        this.result = visitToVehiclesAssignment.getResult();
+        this.result = assignVisitsToVehicles(currentTime, vehicleVisitMapRTV, unassignedRequests, new String[]{Objective.TOTAL_REQUESTS, Objective.TOTAL_WAITING});
         //this.result = assign(currentTime, vehicleVisitMapRTV, userVisitMapRTV);
 
         // assert assertRTVUserVisitMapCanBeReconstructedFromVehicleVisitMap(unassignedRequests, userVisitMapRTV, vehicleVisitMapRTV);
@@ -169,6 +169,27 @@ public class MatchingOptimal implements RideMatchingStrategy {
         return this.result;
     }
 
+    /**
+     * Solve the RTV assignment (previously assigned requests are not displaced) with the configured solver. Independent
+     * components of the RTV graph are solved concurrently.
+     */
+    protected ResultAssignment assignVisitsToVehicles(int currentTime, Map<Vehicle, Set<VisitObj>> vehicleVisitMap, Set<User> requests, String[] objectives) {
+        AssignmentDecomposition decomposition = new AssignmentDecomposition(currentTime, vehicleVisitMap, requests);
+        return decomposition.run((subVehicleVisitMap, subRequests, threads) -> {
+            if (Matching.SOLVER_LOCAL_SEARCH.equals(assignmentSolver)) {
+                return new AssignmentLocalSearch(currentTime, subVehicleVisitMap, subRequests, true, mipTimeLimit).run(objectives);
+            }
+            if (Matching.SOLVER_COLUMN_GENERATION.equals(assignmentSolver)) {
+                AssignmentColumnGeneration assignment = new AssignmentColumnGeneration(currentTime, subVehicleVisitMap, subRequests, true);
+                assignment.setThreads(threads);
+                return assignment.run(objectives);
+            }
+            AssignmentILP assignment = new AssignmentILP(currentTime, subVehicleVisitMap, subRequests, true);
+            assignment.setThreads(threads);
+            return assignment.run(objectives);
+        });
+    }
+
     private boolean assertConsecutiveAssignmentsProduceSameResults(Set<User> unassignedRequests, Map<User, Set<VisitObj>> userVisitMapRTV, Map<Vehicle, Set<VisitObj>> vehicleVisitMapRTV) {
         AssignmentILP a = new AssignmentILP(Simulation.rightTW, vehicleVisitMapRTV, userVisitMapRTV, true);
         AssignmentILP that = new AssignmentILP(Simulation.rightTW, vehicleVisitMapRTV, unassignedRequests, true);
@@ -364,7 +385,15 @@ public class MatchingOptimal implements RideMatchingStrategy {
     protected void buildGraphRTV(Set<User> unassignedRequests, Set<Vehicle> listVehicles, int maxVehicleCapacity, double timeoutVehicle, int maxVehReqEdges, int maxReqReqEdges) {
 
         // BUILDING GRAPH STRUCTURE ////////////////////////////////////////////////////////////////////////////////////
-        this.graphRTV = new ParallelGraphRTV(unassignedRequests, listVehicles, maxVehicleCapacity, timeoutVehicle, maxVehReqEdges, maxReqReqEdges);
+        this.graphRTV = new ParallelGraphRTV(unassignedRequests, listVehicles, maxVehicleCapacity, timeoutVehicle, timeoutRoundRTV, maxVehReqEdges, maxReqReqEdges);
+    }
+
+    public void setTimeoutRoundRTV(double timeoutRoundRTV) {
+        this.timeoutRoundRTV = timeoutRoundRTV;
+    }
+
+    public void setAssignmentSolver(String assignmentSolver) {
+        this.assignmentSolver = assignmentSolver;
     }
 
     protected void computeIIS() throws GRBException {
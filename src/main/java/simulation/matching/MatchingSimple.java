@@ -29,6 +29,8 @@ public class MatchingSimple implements RideMatchingStrategy {
     protected String PDVisitGenerator;
     protected int maxVehicleCapacityRTV;
     protected double timeoutVehicleRTV;
+    protected double timeoutRoundRTV; // Time budget of the whole RTV graph building (unbounded if not positive)
+    protected String assignmentSolver = Matching.SOLVER_GUROBI;
     protected double mipTimeLimit;
     protected double mipGap;
     protected int maxEdgesRV;
@@ -124,7 +126,36 @@ public class MatchingSimple implements RideMatchingStrategy {
     protected void buildGraphRTV(Set<User> unassignedRequests, Set<Vehicle> listVehicles, int maxVehicleCapacity, double timeoutVehicle, int maxVehReqEdges, int maxReqReqEdges) {
 
         // BUILDING GRAPH STRUCTURE ////////////////////////////////////////////////////////////////////////////////////
-        this.graphRTV = new ParallelGraphRTV(unassignedRequests, listVehicles, maxVehicleCapacity, timeoutVehicle, maxVehReqEdges, maxReqReqEdges);
+        this.graphRTV = new ParallelGraphRTV(unassignedRequests, listVehicles, maxVehicleCapacity, timeoutVehicle, timeoutRoundRTV, maxVehReqEdges, maxReqReqEdges);
+    }
+
+    public void setTimeoutRoundRTV(double timeoutRoundRTV) {
+        this.timeoutRoundRTV = timeoutRoundRTV;
+    }
+
+    public void setAssignmentSolver(String assignmentSolver) {
+        this.assignmentSolver = assignmentSolver;
+    }
+
+    /**
+     * Solve the RTV assignment with the configured solver. Independent components of the RTV graph are solved
+     * concurrently.
+     */
+    private ResultAssignment assignVisitsToVehicles(int timeStep, Map<Vehicle, Set<VisitObj>> vehicleVisitMap, Set<User> requests, boolean guaranteePreviouslyAssignedAreNotDisplaced, String[] objectives) {
+        AssignmentDecomposition decomposition = new AssignmentDecomposition(timeStep, vehicleVisitMap, requests);
+        return decomposition.run((subVehicleVisitMap, subRequests, threads) -> {
+            if (Matching.SOLVER_LOCAL_SEARCH.equals(assignmentSolver)) {
+                return new AssignmentLocalSearch(timeStep, subVehicleVisitMap, subRequests, guaranteePreviouslyAssignedAreNotDisplaced, mipTimeLimit).run(objectives);
+            }
+            if (Matching.SOLVER_COLUMN_GENERATION.equals(assignmentSolver)) {
+                AssignmentColumnGeneration assignment = new AssignmentColumnGeneration(timeStep, subVehicleVisitMap, subRequests, guaranteePreviouslyAssignedAreNotDisplaced);
+                assignment.setThreads(threads);
+                return assignment.run(objectives);
+            }
+            AssignmentILP assignment = new AssignmentILP(timeStep, subVehicleVisitMap, subRequests, guaranteePreviouslyAssignedAreNotDisplaced);
+            assignment.setThreads(threads);
+            return assignment.run(objectives);
+        });
     }
 
     public void experienceReplay() {
@@ -156,27 +187,25 @@ public class MatchingSimple implements RideMatchingStrategy {
         Map<Vehicle, Set<VisitObj>> vehicleStateActionObjMap = getVisitObjMap(vehiclePreDecisionsMap, predictions);
 
         // Find best assignment
-        AssignmentILP assignVehiclesVisitsWithVFs = new AssignmentILP(
+        ResultAssignment assignmentWithVFs = assignVisitsToVehicles(
                 fleetStateActionSpace.timeStep,
                 vehicleStateActionObjMap,
                 fleetStateActionSpace.requests,
-                false);
-
-        assignVehiclesVisitsWithVFs.run(
+                false,
                 new String[]{
                         Objective.TOTAL_REQUESTS_PLUS_VFS,
                         Objective.TOTAL_WAITING});
 
         fleetStateActionSpace.experienceObj.updateStateActionReward(
                 fleetStateActionSpace.vehicles,
-                assignVehiclesVisitsWithVFs.getResult());
+                assignmentWithVFs);
 
 
         Logging.logger.info("{}",
                 String.format(
                         "************************* Experience id = %d - VFs = %.4f",
                         fleetStateActionSpace.experienceObj.id,
-                        assignVehiclesVisitsWithVFs.getResult().getTotalVFs()));
+                        assignmentWithVFs.getTotalVFs()));
 //            assignVehiclesVisitsWithVFs.getResult().printRoundResultSummary("Experience Replay");
         return fleetStateActionSpace.experienceObj;
     }
@@ -314,15 +343,15 @@ public class MatchingSimple implements RideMatchingStrategy {
 //        assignment2.run(new String[]{Objective.TOTAL_REQUESTS, Objective.TOTAL_WAITING});
 //        assignment2.getResult().printRoundResultSummary();
 //        assert assignment.getResult().equals(assignment2.getResult());
-        AssignmentILP assignment3 = new AssignmentILP(
+        ResultAssignment assignment3 = assignVisitsToVehicles(
                 Simulation.rightTW,
                 vehiclePreDecisionsObjMap,
                 requests,
-                true);
+                true,
+                new String[]{Objective.TOTAL_REQUESTS_PLUS_VFS, Objective.TOTAL_WAITING});
 
 //        Logging.logger.info("\n--->ASSIGNMENT 3");
-        assignment3.run(new String[]{Objective.TOTAL_REQUESTS_PLUS_VFS, Objective.TOTAL_WAITING});
-        assignment3.getResult().printRoundResultSummary("Online Assignment");
+        assignment3.printRoundResultSummary("Online Assignment");
 
 //        if (Sets.difference(assignment2.getResult().getRequestsOK(), assignment3.getResult().getRequestsOK()).size() > 0){
 //            Logging.logger.info("VFs shifted assignment");
@@ -396,7 +425,7 @@ public class MatchingSimple implements RideMatchingStrategy {
 //        }
 
 
-        return assignment3.getResult();
+        return assignment3;
     }
 
     private void addRebalancingVisits() {
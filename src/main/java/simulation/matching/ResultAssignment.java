@@ -52,6 +52,18 @@ public class ResultAssignment {
         this.objValTotalWaiting = objValTotalWaiting;
     }
 
+    public double getObjValTotalRejected() {
+        return objValTotalRejected;
+    }
+
+    public double getObjValTotalServiced() {
+        return objValTotalServiced;
+    }
+
+    public double getObjValTotalWaiting() {
+        return objValTotalWaiting;
+    }
+
     public double getObjValRequestsPlusVFs() {
         return objValRequestsPlusVFs;
     }
@@ -272,6 +284,25 @@ public class ResultAssignment {
         }
     }
 
+    /**
+     * Add the result of an independent subproblem (i.e., sharing no vehicles or requests with this result). Visits
+     * and rejections are accounted as if found in a single assignment, and objective values are summed.
+     *
+     * @param other Result of subproblem
+     */
+    public void merge(ResultAssignment other) {
+        other.visitsOK.forEach(this::addVisit);
+        other.requestsUnassigned.forEach(this::accountRejected);
+
+        // Vehicles that lost users to a subproblem might be assigned in another
+        this.vehiclesDisrupted.removeAll(this.vehiclesOK);
+
+        this.objValTotalRejected += other.objValTotalRejected;
+        this.objValTotalServiced += other.objValTotalServiced;
+        this.objValTotalWaiting += other.objValTotalWaiting;
+        this.objValRequestsPlusVFs += other.objValRequestsPlusVFs;
+    }
+
     private void printCurrentStatus() {
         Logging.logger.info("{}", String.format("# Requests (%d): %s", this.requestsOK.size(), this.requestsOK));
         Logging.logger.info("{}", String.format("# Vehicles (%d): %s", this.vehiclesOK.size(), this.vehiclesOK));
@@ -55,17 +55,27 @@ public class PDGeneratorSingleInsertion implements Iterator<Node[]> {
     public Node[] next() {
 
         if (hasNext()) {
-            List<Node> insertedP = new ArrayList<>(sequence);
-            insertedP.add(iIndex, this.user.getNodePk());
-            insertedP.add(jIndex, this.user.getNodeDp());
+            // Fill sequence with pk at position i and dp at position j (no intermediate list)
+            int size = sequence.size();
+            Node[] insertedP = new Node[size + 2];
+            int k = 0;
+            for (int p = 0; p < insertedP.length; p++) {
+                if (p == iIndex) {
+                    insertedP[p] = this.user.getNodePk();
+                } else if (p == jIndex) {
+                    insertedP[p] = this.user.getNodeDp();
+                } else {
+                    insertedP[p] = sequence.get(k++);
+                }
+            }
 
             jIndex++;
-            if (jIndex >= insertedP.size()) {
+            if (jIndex >= insertedP.length) {
                 iIndex++;
                 jIndex = iIndex + 1;
             }
 
-            return insertedP.toArray(new Node[insertedP.size()]);
+            return insertedP;
         }
         return null;
     }
@@ -1,6 +1,7 @@
 package util.pdcombinatorics;
 
 import dao.Logging;
+import model.RouteFeasibility;
 import model.Vehicle;
 import model.node.Node;
 
@@ -21,6 +22,9 @@ public class PDPermutations implements PDGenerator {
     private Iterator<int[]> configIndexPermutationIterator;
     private Node[] basePUDOVector;
     private static Map<Integer, Map<Integer, int[][]>>  mapPUDO;
+    // Precalculated permutations organized as prefix trees (same keys as mapPUDO)
+    private static Map<Integer, Map<Integer, PermutationTree>> mapPUDOTree;
+    private PermutationTree permutationTree;
 
     public static int[][] getPUDOPermutations(int nOfPUDOs, int nOfDOs){
         int[][] permutations = mapPUDO.get(nOfPUDOs).get(nOfDOs);
@@ -32,6 +36,7 @@ public class PDPermutations implements PDGenerator {
         Path path = Paths.get(pathPrecalculatedPUDOPermutations);
         BufferedReader reader = null;
         mapPUDO = new HashMap<>();
+        mapPUDOTree = new HashMap<>();
 
         try {
             reader = Files.newBufferedReader(path);
@@ -61,6 +66,9 @@ public class PDPermutations implements PDGenerator {
                     //Logging.logger.info(Arrays.toString(mapPUDO.get(nRequests).get(nDropoffs)[i]));
                 }
 
+                mapPUDOTree.putIfAbsent(nRequests, new HashMap<>());
+                mapPUDOTree.get(nRequests).put(nDropoffs, new PermutationTree(mapPUDO.get(nRequests).get(nDropoffs)));
+
                 reader.readLine();
             }
 
@@ -94,6 +102,25 @@ public class PDPermutations implements PDGenerator {
 
         configIndexPermutationIterator = Arrays.stream(validIndexConfigPermutations).iterator();
 
+        permutationTree = mapPUDOTree.get(requests.size()).get(passengers.size());
+
+    }
+
+    /**
+     * Find the best sequence (see {@link RouteFeasibility#isBetter(int[], int[])}) among the permutations, pruning
+     * permutations sharing an infeasible or worse prefix (see {@link PermutationTree}). Same result as checking
+     * every permutation returned by {@link #next()} and keeping the first best.
+     *
+     * @param vehicle Vehicle carrying out the sequence
+     * @param best    Filled with the state of the best sequence
+     * @return Best sequence, or null if no sequence is feasible
+     */
+    public Node[] getBestSequence(Vehicle vehicle, int[] best) {
+        int bestOrder = permutationTree.search(vehicle, basePUDOVector, best);
+        if (bestOrder < 0) {
+            return null;
+        }
+        return loadNextPUDOPermutation(permutationTree.getPermutation(bestOrder), basePUDOVector);
     }
 
     private void loadAllPUDOPermutationsFrom(Set<User> requests, Vehicle vehicle) {
@@ -0,0 +1,205 @@
+package util.pdcombinatorics;
+
+import model.RouteFeasibility;
+import model.Vehicle;
+import model.node.Node;
+
+import java.util.Arrays;
+
+/**
+ * Precalculated PU/DO index permutations (see {@link PDPermutations}) organized as a prefix tree.
+ * <p>
+ * Permutations sharing a prefix share a path in the tree, hence the legs of a prefix are checked once for all its
+ * completions. The search is depth-first and cuts a whole subtree as soon as its prefix:
+ * - Violates capacity, time window, sharing, or contract constraints (see {@link RouteFeasibility})
+ * - Arrives after the latest time of a node not yet visited (arrivals never decrease along a sequence)
+ * - Has a delay lower bound above the delay of the best sequence found
+ * <p>
+ * The delay lower bound adds to the prefix delay the delay each remaining drop-off would have if reached at the
+ * prefix's arrival time. Ties are broken by permutation order, so the result is the same as checking every
+ * permutation in order and keeping the first best.
+ */
+class PermutationTree {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final int[][] permutations;
+    private final int length;
+
+    // Tree nodes (root = 0): index in seed sequence, first child, next sibling, and order of permutation ending there
+    private int[] index;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] order;
+    private int size;
+
+    PermutationTree(int[][] permutations) {
+        this.permutations = permutations;
+
+        int capacity = 1;
+        int maxLength = 0;
+        for (int[] permutation : permutations) {
+            if (permutation != null) {
+                capacity += permutation.length;
+                maxLength = Math.max(maxLength, permutation.length);
+            }
+        }
+        this.length = maxLength;
+        this.index = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.order = new int[capacity];
+
+        newNode(NONE);
+        for (int k = 0; k < permutations.length; k++) {
+            if (permutations[k] != null) {
+                add(permutations[k], k);
+            }
+        }
+
+        // Most paths are shared, do not keep the space reserved for the worst case
+        index = Arrays.copyOf(index, size);
+        firstChild = Arrays.copyOf(firstChild, size);
+        nextSibling = Arrays.copyOf(nextSibling, size);
+        order = Arrays.copyOf(order, size);
+    }
+
+    /**
+     * @return Number of tree nodes (including the root)
+     */
+    int size() {
+        return size;
+    }
+
+    int[] getPermutation(int order) {
+        return permutations[order];
+    }
+
+    /**
+     * Find the best permutation (see {@link RouteFeasibility#isBetter(int[], int[])}) of the seed sequence.
+     *
+     * @param vehicle Vehicle carrying out the sequence
+     * @param seed    Seed sequence (permutations hold indexes of this sequence)
+     * @param best    Filled with the state of the best sequence
+     * @return Order of the best permutation, or -1 if no permutation is feasible
+     */
+    int search(Vehicle vehicle, Node[] seed, int[] best) {
+        Search search = new Search(vehicle, RouteFeasibility.Nodes.of(seed), best);
+        search.visit(ROOT, 0);
+        return search.bestOrder;
+    }
+
+    private void add(int[] permutation, int k) {
+        int node = ROOT;
+        for (int p : permutation) {
+            int child = firstChild[node];
+            int last = NONE;
+            while (child != NONE && index[child] != p) {
+                last = child;
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                child = newNode(p);
+                // Children are kept in order of first appearance
+                if (last == NONE) {
+                    firstChild[node] = child;
+                } else {
+                    nextSibling[last] = child;
+                }
+            }
+            node = child;
+        }
+
+        // Duplicates are never better than the first occurrence
+        if (order[node] == NONE) {
+            order[node] = k;
+        }
+    }
+
+    private int newNode(int p) {
+        index[size] = p;
+        firstChild[size] = NONE;
+        nextSibling[size] = NONE;
+        order[size] = NONE;
+        return size++;
+    }
+
+    /**
+     * State of a depth-first search (one state array per tree level).
+     */
+    private class Search {
+        private final Vehicle vehicle;
+        private final RouteFeasibility.Nodes seed;
+        private final int[] best;
+        private final int[][] states;
+        private final boolean[] visited;
+        private int bestOrder = NONE;
+
+        private Search(Vehicle vehicle, RouteFeasibility.Nodes seed, int[] best) {
+            this.vehicle = vehicle;
+            this.seed = seed;
+            this.best = best;
+            this.states = new int[length + 1][RouteFeasibility.STATE_SIZE];
+            this.visited = new boolean[seed.length()];
+        }
+
+        private void visit(int node, int level) {
+            // Leaves have no next level
+            if (firstChild[node] == NONE) {
+                return;
+            }
+            int[] state = states[level];
+            int[] nextState = states[level + 1];
+
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (level == 0) {
+                    RouteFeasibility.start(vehicle, seed, index[child], nextState);
+                } else {
+                    System.arraycopy(state, 0, nextState, 0, RouteFeasibility.STATE_SIZE);
+                }
+
+                if (!RouteFeasibility.extend(vehicle, seed, index[child], nextState)) {
+                    continue;
+                }
+
+                visited[index[child]] = true;
+                if (!isPruned(nextState)) {
+                    if (order[child] != NONE) {
+                        update(nextState, order[child]);
+                    }
+                    visit(child, level + 1);
+                }
+                visited[index[child]] = false;
+            }
+        }
+
+        private void update(int[] state, int k) {
+            if (bestOrder == NONE
+                    || RouteFeasibility.isBetter(state, best)
+                    || (!RouteFeasibility.isBetter(best, state) && k < bestOrder)) {
+                System.arraycopy(state, 0, best, 0, RouteFeasibility.STATE_SIZE);
+                bestOrder = k;
+            }
+        }
+
+        /**
+         * @return True, if no completion of the prefix is feasible or better than the best sequence found
+         */
+        private boolean isPruned(int[] state) {
+            int arrival = state[RouteFeasibility.ARRIVAL];
+            int delayLowerBound = state[RouteFeasibility.DELAY];
+            for (int i = 0; i < seed.length(); i++) {
+                if (!visited[i]) {
+                    if (arrival > seed.getLatest(i)) {
+                        return true;
+                    }
+                    if (seed.isDropoff(i)) {
+                        delayLowerBound += Math.max(0, arrival - seed.getEarliest(i));
+                    }
+                }
+            }
+            return bestOrder != NONE && delayLowerBound > best[RouteFeasibility.DELAY];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import dao.DistanceMatrix;
+import dao.Logging;
+import dao.NodeOrdering;
+import model.node.NodeNetwork;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Travel time lookup throughput with the matrix stored in input (random) order vs. along space-filling curves.
+ * <p>
+ * Lookups mimic route evaluation: all pairs among a few nodes close to each other (e.g., pickups and dropoffs in a
+ * vehicle's route).
+ */
+public class TestNodeOrderingBenchmark {
+
+    public static final int NODES = 6000;
+    public static final int GRID = 40;
+    public static final int ROUTES = 200000;
+    public static final int ROUTE_SIZE = 8;
+
+    public static void main(String[] a) {
+
+        Random random = new Random(0);
+
+        // Node ids follow no spatial order (as in the input files)
+        Map<Integer, NodeNetwork> nodes = new HashMap<>();
+        List<List<Integer>> cells = new ArrayList<>();
+        for (int c = 0; c < GRID * GRID; c++) {
+            cells.add(new ArrayList<>());
+        }
+        for (int id = 0; id < NODES; id++) {
+            Point2D point = new Point2D.Double(random.nextDouble(), random.nextDouble());
+            nodes.put(id, new NodeNetwork(id, point, new HashMap<>()));
+            cells.get((int) (point.getX() * GRID) * GRID + (int) (point.getY() * GRID)).add(id);
+        }
+
+        short[][] times = new short[NODES][NODES];
+        for (int i = 0; i < NODES; i++) {
+            for (int j = 0; j < NODES; j++) {
+                int seconds = (int) (nodes.get(i).getPoint().distance(nodes.get(j).getPoint()) * 3600);
+                times[i][j] = (short) seconds;
+            }
+        }
+
+        // Each route draws nodes from a cell and its neighbors
+        int[][] routes = new int[ROUTES][ROUTE_SIZE];
+        for (int[] route : routes) {
+            int cx = random.nextInt(GRID), cy = random.nextInt(GRID);
+            for (int k = 0; k < ROUTE_SIZE; k++) {
+                List<Integer> cell = List.of();
+                while (cell.isEmpty()) {
+                    int x = Math.min(GRID - 1, Math.max(0, cx + random.nextInt(3) - 1));
+                    int y = Math.min(GRID - 1, Math.max(0, cy + random.nextInt(3) - 1));
+                    cell = cells.get(x * GRID + y);
+                }
+                route[k] = cell.get(random.nextInt(cell.size()));
+            }
+        }
+
+        DistanceMatrix inputOrder = new DistanceMatrix(times);
+        DistanceMatrix hilbert = inputOrder.reorder(NodeOrdering.getOrder(nodes, NODES, NodeOrdering.HILBERT));
+        DistanceMatrix zOrder = inputOrder.reorder(NodeOrdering.getOrder(nodes, NODES, NodeOrdering.Z_ORDER));
+
+        for (int round = 0; round < 5; round++) {
+            Logging.logger.info("{}", String.format("Round %d - input order: %6.1f | hilbert: %6.1f | z-order: %6.1f (M lookups/s)",
+                    round, throughput(inputOrder, routes), throughput(hilbert, routes), throughput(zOrder, routes)));
+        }
+    }
+
+    private static double throughput(DistanceMatrix distMatrix, int[][] routes) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int[] route : routes) {
+            for (int from : route) {
+                for (int to : route) {
+                    checksum += distMatrix.get(from, to);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum < 0) {
+            Logging.logger.info("Checksum: {}", checksum);
+        }
+        return (double) routes.length * ROUTE_SIZE * ROUTE_SIZE / (elapsed / 1000.0);
+    }
+}
@@ -0,0 +1,86 @@
+import dao.DistanceMatrix;
+import dao.Logging;
+import dao.RoadGraph;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.alg.shortestpath.AStarShortestPath;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+
+import java.util.Random;
+
+/**
+ * Compare jgrapht searches against the CSR road graph on a synthetic grid network (bidirectional streets, travel
+ * times proportional to Manhattan distance).
+ */
+public class TestShortestPathBenchmark {
+
+    public static final int GRID_SIDE = 60;
+    public static final int QUERIES = 5000;
+
+    public static void main(String[] a) {
+
+        int n = GRID_SIDE * GRID_SIDE;
+        Random random = new Random(0);
+
+        int[][] adjacency = new int[n][n];
+        short[][] travelTimes = new short[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int dx = Math.abs(i % GRID_SIDE - j % GRID_SIDE);
+                int dy = Math.abs(i / GRID_SIDE - j / GRID_SIDE);
+                travelTimes[i][j] = (short) (10 * (dx + dy));
+                if (dx + dy == 1) {
+                    adjacency[i][j] = 1;
+                }
+            }
+        }
+        DistanceMatrix distMatrix = new DistanceMatrix(travelTimes);
+
+        SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph =
+                new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (adjacency[i][j] != 0) {
+                    graph.setEdgeWeight(graph.addEdge(i, j), travelTimes[i][j]);
+                }
+            }
+        }
+
+        int[][] od = new int[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            od[q] = new int[]{random.nextInt(n), random.nextInt(n)};
+        }
+
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra = new DijkstraShortestPath<>(graph);
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> aStar =
+                new AStarShortestPath<>(graph, (i, j) -> distMatrix.get(i, j));
+        RoadGraph csrDijkstra = RoadGraph.fromAdjacencyMatrix(adjacency, distMatrix, false);
+        RoadGraph csrAStar = RoadGraph.fromAdjacencyMatrix(adjacency, distMatrix, true);
+
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            long s0 = 0;
+            for (int[] q : od) s0 += dijkstra.getPath(q[0], q[1]).getLength();
+            long t1 = System.nanoTime();
+            long s1 = 0;
+            for (int[] q : od) s1 += aStar.getPath(q[0], q[1]).getLength();
+            long t2 = System.nanoTime();
+            long s2 = 0;
+            for (int[] q : od) s2 += csrDijkstra.getPath(q[0], q[1]).length - 1;
+            long t3 = System.nanoTime();
+            long s3 = 0;
+            for (int[] q : od) s3 += csrAStar.getPath(q[0], q[1]).length - 1;
+            long t4 = System.nanoTime();
+
+            Logging.logger.info("{}", String.format(
+                    "Round %d (%d queries) - jgrapht Dijkstra: %6d ms | jgrapht A*: %6d ms | CSR Dijkstra: %6d ms | CSR A*: %6d ms (edges %d/%d/%d/%d)",
+                    round, QUERIES,
+                    (t1 - t0) / 1000000, (t2 - t1) / 1000000, (t3 - t2) / 1000000, (t4 - t3) / 1000000,
+                    s0, s1, s2, s3));
+        }
+    }
+}
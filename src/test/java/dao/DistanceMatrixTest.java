@@ -0,0 +1,47 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void convertAndMap() throws IOException {
+        Path csv = dir.resolve("durations.csv");
+        Path bin = dir.resolve("durations.bin");
+        Files.writeString(csv, "0,10,20\n30,0.5,50\n1000,2,0\n");
+
+        DistanceMatrix.convert(csv.toString(), bin.toString(), 0.3);
+
+        assertTrue(DistanceMatrix.isBinary(bin.toString()));
+        assertFalse(DistanceMatrix.isBinary(csv.toString()));
+
+        DistanceMatrix m = DistanceMatrix.map(bin.toString());
+        assertTrue(m.isMapped());
+        assertEquals(3, m.size());
+        assertEquals(0, m.get(0, 0));
+        assertEquals(3, m.get(0, 1));
+        assertEquals(15, m.get(1, 2));
+        assertEquals(0, m.get(1, 1));
+        assertEquals(300, m.get(2, 0));
+        // Distinct nodes never have zero travel time
+        assertEquals(1, m.get(2, 1));
+    }
+
+    @Test
+    void rejectNonSquare() throws IOException {
+        Path csv = dir.resolve("durations.csv");
+        Files.writeString(csv, "0,10\n30,0\n5,5\n");
+        assertThrows(IOException.class,
+                () -> DistanceMatrix.convert(csv.toString(), dir.resolve("d.bin").toString(), 1));
+    }
+}
@@ -1,6 +1,11 @@
 package dao;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,4 +17,24 @@ class FileUtilTest {
         String d = FileUtil.readJson(a);
         Logging.logger.info(d);
     }
-}
\ No newline at end of file
+
+    @Test
+    void readAdjacencyListsFromMatrixAndEdgeList(@TempDir Path dir) throws IOException {
+        Path matrix = dir.resolve("adjacency_matrix.csv");
+        Files.writeString(matrix, "0,1,1\n0,0,0\n1,0,0\n");
+
+        int[][] fromMatrix = FileUtil.readAdjacencyLists(matrix.toString());
+        assertArrayEquals(new int[][]{{1, 2}, {}, {0}}, fromMatrix);
+
+        Path edges = dir.resolve("edges.csv");
+        FileUtil.writeEdgeList(fromMatrix, edges.toString());
+        assertEquals("o,d", Files.readAllLines(edges).get(0));
+
+        int[][] fromEdges = FileUtil.readAdjacencyLists(edges.toString());
+        assertArrayEquals(fromMatrix, fromEdges);
+
+        // Without header, unsorted
+        Files.writeString(edges, "2,0\n0,2\n0,1\n");
+        assertArrayEquals(fromMatrix, FileUtil.readAdjacencyLists(edges.toString()));
+    }
+}
@@ -0,0 +1,75 @@
+package dao;
+
+import model.node.NodeNetwork;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeOrderingTest {
+
+    @Test
+    void hilbertVisitsNeighborCells() {
+        // The first 64 positions of the curve fill the 8x8 square at the origin
+        int[][] cells = new int[64][];
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                long d = NodeOrdering.hilbertIndex(x, y);
+                assertTrue(d < 64);
+                assertNull(cells[(int) d]);
+                cells[(int) d] = new int[]{x, y};
+            }
+        }
+        for (int d = 1; d < 64; d++) {
+            int step = Math.abs(cells[d][0] - cells[d - 1][0]) + Math.abs(cells[d][1] - cells[d - 1][1]);
+            assertEquals(1, step);
+        }
+    }
+
+    @Test
+    void zOrderInterleavesBits() {
+        assertEquals(0, NodeOrdering.zOrderIndex(0, 0));
+        assertEquals(1, NodeOrdering.zOrderIndex(1, 0));
+        assertEquals(2, NodeOrdering.zOrderIndex(0, 1));
+        assertEquals(3, NodeOrdering.zOrderIndex(1, 1));
+        assertEquals(12, NodeOrdering.zOrderIndex(2, 2));
+    }
+
+    @Test
+    void reorderedMatrixKeepsTravelTimes() {
+        int n = 30;
+        Random random = new Random(7);
+        Map<Integer, NodeNetwork> nodes = new HashMap<>();
+        // Last node has no coordinates
+        for (int id = 0; id < n - 1; id++) {
+            nodes.put(id, new NodeNetwork(id, new Point2D.Double(random.nextDouble(), random.nextDouble()), new HashMap<>()));
+        }
+        short[][] times = new short[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                times[i][j] = (short) random.nextInt(1000);
+            }
+        }
+        DistanceMatrix distMatrix = new DistanceMatrix(times);
+
+        for (String curve : new String[]{NodeOrdering.HILBERT, NodeOrdering.Z_ORDER}) {
+            int[] order = NodeOrdering.getOrder(nodes, n, curve);
+            assertArrayEquals(IntStream.range(0, n).toArray(), IntStream.of(order).sorted().toArray());
+            assertEquals(n - 1, order[n - 1]);
+
+            DistanceMatrix reordered = distMatrix.reorder(order);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals(times[i][j], reordered.get(i, j));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> NodeOrdering.getOrder(nodes, n, "random"));
+        assertThrows(IllegalArgumentException.class, () -> NodeOrdering.getRank(new int[]{0, 0}));
+    }
+}
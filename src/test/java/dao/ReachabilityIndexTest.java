@@ -0,0 +1,52 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+
+    @Test
+    void rangeQueriesMatchMatrixScan() {
+        int n = 50;
+        Random random = new Random(3);
+        short[][] times = new short[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                times[i][j] = (short) (i == j ? 0 : 1 + random.nextInt(400));
+            }
+        }
+        DistanceMatrix distMatrix = new DistanceMatrix(times);
+        ReachabilityIndex index = ReachabilityIndex.build(distMatrix, 200);
+
+        for (int node = 0; node < n; node++) {
+            int x = node;
+            for (int seconds : new int[]{0, 50, 199, 200, 300}) {
+                int t = seconds;
+                int[] forward = index.getReachableWithin(x, t);
+                int[] reverse = index.getReachingWithin(x, t);
+
+                int[] expectedForward = IntStream.range(0, n).filter(j -> times[x][j] <= t).toArray();
+                int[] expectedReverse = IntStream.range(0, n).filter(j -> times[j][x] <= t).toArray();
+
+                assertArrayEquals(expectedForward, IntStream.of(forward).sorted().toArray());
+                assertArrayEquals(expectedReverse, IntStream.of(reverse).sorted().toArray());
+                assertEquals(expectedForward.length, index.countReachableWithin(x, t));
+                assertEquals(expectedReverse.length, index.countReachingWithin(x, t));
+
+                // Sorted by travel time
+                assertEquals(x, forward[0]);
+                for (int k = 1; k < forward.length; k++) {
+                    assertTrue(times[x][forward[k - 1]] <= times[x][forward[k]]);
+                }
+                for (int k = 1; k < reverse.length; k++) {
+                    assertTrue(times[reverse[k - 1]][x] <= times[reverse[k]][x]);
+                }
+            }
+        }
+        assertEquals(200, index.getMaxSeconds());
+    }
+}
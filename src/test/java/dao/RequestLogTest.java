@@ -0,0 +1,58 @@
+package dao;
+
+import config.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLogTest {
+
+    @Test
+    void convertSortAndSeek(@TempDir Path dir) throws IOException, ParseException {
+        Path csv = dir.resolve("trips.csv");
+        Files.writeString(csv, String.join("\n",
+                "pickup_datetime,passenger_count,pickup_node_id,dropoff_node_id",
+                "2011-02-01 00:02:10,1,10,20",
+                "2011-02-01 00:00:05,2,11,21",
+                "2011-02-01 00:05:00,4,12,22",
+                "2011-02-01 00:02:10,3,13,23",
+                ""));
+        Path bin = dir.resolve("trips.bin");
+
+        assertFalse(RequestLog.isBinary(csv.toString()));
+        RequestLog.convert(csv.toString(), bin.toString(), 60);
+        assertTrue(RequestLog.isBinary(bin.toString()));
+
+        RequestLog log = RequestLog.map(bin.toString());
+        assertEquals(4, log.size());
+
+        // Sorted by pickup time, ties keep file order
+        int[] pickupNodes = {11, 10, 13, 12};
+        int[] dropoffNodes = {21, 20, 23, 22};
+        int[] passengers = {2, 1, 3, 4};
+        for (int row = 0; row < log.size(); row++) {
+            assertEquals(pickupNodes[row], log.getPickupNodeId(row));
+            assertEquals(dropoffNodes[row], log.getDropoffNodeId(row));
+            assertEquals(passengers[row], log.getPassengerCount(row));
+        }
+
+        long start = Config.formatter_date_time.parse("2011-02-01 00:00:00").getTime() / 1000;
+        assertEquals(start + 5, log.getPickupEpochSecond(0));
+        assertEquals(start + 130, log.getPickupEpochSecond(1));
+
+        assertEquals(0, log.seek(start));
+        assertEquals(0, log.seek(start + 5));
+        assertEquals(1, log.seek(start + 6));
+        assertEquals(1, log.seek(start + 130));
+        assertEquals(3, log.seek(start + 131));
+        assertEquals(3, log.seek(start + 300));
+        assertEquals(4, log.seek(start + 301));
+        assertEquals(4, log.seek(start + 100000));
+    }
+}
@@ -0,0 +1,81 @@
+package dao;
+
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphTest {
+
+    static int pathDuration(int[] path, DistanceMatrix dist) {
+        int duration = 0;
+        for (int i = 0; i < path.length - 1; i++) {
+            duration += dist.get(path[i], path[i + 1]);
+        }
+        return duration;
+    }
+
+    @Test
+    void dijkstraAndAStarMatchJGraphT() {
+        int n = 60;
+        Random random = new Random(1);
+        int[][] adjacency = new int[n][n];
+        short[][] weights = new short[n][n];
+        SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph =
+                new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                weights[i][j] = (short) (1 + random.nextInt(50));
+                if (j == (i + 1) % n || (i != j && random.nextDouble() < 0.05)) {
+                    adjacency[i][j] = 1;
+                    graph.setEdgeWeight(graph.addEdge(i, j), weights[i][j]);
+                }
+            }
+        }
+        DistanceMatrix edgeWeights = new DistanceMatrix(weights);
+        DijkstraShortestPath<Integer, DefaultWeightedEdge> dijkstra = new DijkstraShortestPath<>(graph);
+
+        // Exact shortest path durations are an admissible A* heuristic
+        short[][] exact = new short[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                exact[i][j] = (short) dijkstra.getPathWeight(i, j);
+            }
+        }
+
+        RoadGraph csrDijkstra = RoadGraph.fromAdjacencyMatrix(adjacency, edgeWeights, false);
+        RoadGraph csrAStar = new RoadGraph(n, csrDijkstra.edgeStart, csrDijkstra.edgeTarget, csrDijkstra.edgeWeight,
+                new DistanceMatrix(exact));
+
+        assertEquals(graph.edgeSet().size(), csrDijkstra.getNumberOfEdges());
+
+        for (int o = 0; o < n; o++) {
+            for (int d = 0; d < n; d++) {
+                int[] p1 = csrDijkstra.getPath(o, d);
+                int[] p2 = csrAStar.getPath(o, d);
+                assertEquals(o, p1[0]);
+                assertEquals(d, p1[p1.length - 1]);
+                assertEquals(exact[o][d], pathDuration(p1, edgeWeights));
+                assertEquals(exact[o][d], pathDuration(p2, edgeWeights));
+                assertEquals(csrDijkstra.getShortestPathBetween(o, d).size(), p1.length);
+            }
+        }
+    }
+
+    @Test
+    void reverseAndUnreachable() {
+        int[][] adjacency = {{0, 1, 0}, {0, 0, 1}, {0, 0, 0}};
+        short[][] weights = {{0, 3, 9}, {9, 0, 4}, {9, 9, 0}};
+        RoadGraph graph = RoadGraph.fromAdjacencyMatrix(adjacency, new DistanceMatrix(weights), false);
+        assertArrayEquals(new int[]{0, 1, 2}, graph.getPath(0, 2));
+        assertNull(graph.getPath(2, 0));
+        assertArrayEquals(new int[]{2, 1, 0}, graph.reverse().getPath(2, 0));
+    }
+}
@@ -0,0 +1,28 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathTest {
+
+    @Test
+    void insertionPointMatchesListSearch() {
+        ShortestPath sp = new ShortestPath(new int[]{7, 3, 9, 4}, new int[]{0, 17, 28, 38});
+        List<Integer> arrivals = List.of(0, 17, 28, 38);
+
+        for (int elapsed = 0; elapsed <= 40; elapsed++) {
+            int expected = Collections.binarySearch(arrivals, elapsed);
+            expected = expected >= 0 ? expected : -1 - expected;
+            assertEquals(expected, sp.getInsertionPoint(elapsed));
+        }
+
+        assertEquals(4, sp.getInsertionPoint(39));
+        assertEquals(38, sp.getDuration());
+        assertEquals(List.of(7, 3, 9, 4), sp.getNodeIds());
+        assertThrows(UnsupportedOperationException.class, () -> sp.getNodeIds().set(0, 1));
+    }
+}
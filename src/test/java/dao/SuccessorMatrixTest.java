@@ -0,0 +1,77 @@
+package dao;
+
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuccessorMatrixTest {
+
+    @TempDir
+    Path dir;
+
+    static int pathDuration(int[] path, DistanceMatrix dist) {
+        int duration = 0;
+        for (int i = 0; i < path.length - 1; i++) {
+            duration += dist.get(path[i], path[i + 1]);
+        }
+        return duration;
+    }
+
+    @Test
+    void pathsMatchDijkstra() throws IOException {
+        int n = 40;
+        Random random = new Random(0);
+        int[][] adjacency = new int[n][n];
+        short[][] weights = new short[n][n];
+        SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph =
+                new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                weights[i][j] = (short) (1 + random.nextInt(100));
+                // Ring guarantees strong connectivity
+                if (j == (i + 1) % n || (i != j && random.nextDouble() < 0.08)) {
+                    adjacency[i][j] = 1;
+                    graph.setEdgeWeight(graph.addEdge(i, j), weights[i][j]);
+                }
+            }
+        }
+        DistanceMatrix dist = new DistanceMatrix(weights);
+        DijkstraShortestPath<Integer, DefaultWeightedEdge> dijkstra = new DijkstraShortestPath<>(graph);
+
+        SuccessorMatrix built = SuccessorMatrix.build(RoadGraph.fromAdjacencyMatrix(adjacency, dist, false));
+        Path file = dir.resolve("successors.bin");
+        built.write(file.toString());
+        SuccessorMatrix mapped = SuccessorMatrix.map(file.toString());
+
+        for (int o = 0; o < n; o++) {
+            for (int d = 0; d < n; d++) {
+                int[] path = mapped.getPath(o, d);
+                assertArrayEquals(built.getPath(o, d), path);
+                assertEquals(o, path[0]);
+                assertEquals(d, path[path.length - 1]);
+                assertEquals((int) dijkstra.getPathWeight(o, d), pathDuration(path, dist));
+            }
+        }
+    }
+
+    @Test
+    void unreachable() {
+        int[][] adjacency = {{0, 1, 0}, {0, 0, 0}, {0, 0, 0}};
+        SuccessorMatrix m = SuccessorMatrix.build(
+                RoadGraph.fromAdjacencyMatrix(adjacency, new DistanceMatrix(new short[3][3]), false));
+        assertArrayEquals(new int[]{0, 1}, m.getPath(0, 1));
+        assertNull(m.getPath(1, 0));
+        assertEquals(-1, m.next(2, 0));
+    }
+}
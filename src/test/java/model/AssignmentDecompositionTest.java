@@ -0,0 +1,150 @@
+package model;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import model.node.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import simulation.matching.ResultAssignment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentDecompositionTest {
+
+    /**
+     * Vehicles and requests received by the solver in a call.
+     */
+    private record Call(Set<Vehicle> vehicles, Set<User> requests, int threads) {
+    }
+
+    private final Queue<Call> calls = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        Dao.getInstance().setDistMatrix(new DistanceMatrix(new short[2][2]));
+    }
+
+    private static User request() {
+        return new User(0, 300, 0, 600, 1, 0, 1, 0, 0, 0, 0);
+    }
+
+    private static Visit visit(Vehicle vehicle, User... users) {
+        LinkedList<Node> sequence = new LinkedList<>();
+        for (User user : users) {
+            sequence.add(user.getNodePk());
+            sequence.add(user.getNodeDp());
+        }
+        Visit visit = new Visit(sequence, 0, vehicle);
+        visit.getRequests().addAll(List.of(users));
+        return visit;
+    }
+
+    /**
+     * Choose the vehicles' visits greedily (most requests first) and reject the requests left, with one objective unit
+     * per rejected request, serviced request, visit, and call.
+     */
+    private ResultAssignment solve(Map<Vehicle, Set<VisitObj>> vehicleVisitsMap, Set<User> requests, int threads) {
+        calls.add(new Call(new HashSet<>(vehicleVisitsMap.keySet()), new HashSet<>(requests), threads));
+        ResultAssignment result = new ResultAssignment(0);
+        Set<User> serviced = new HashSet<>();
+        for (Set<VisitObj> visits : vehicleVisitsMap.values()) {
+            visits.stream()
+                    .filter(visit -> Collections.disjoint(serviced, visit.getRequests()))
+                    .max(Comparator.comparingInt(visit -> visit.getRequests().size()))
+                    .ifPresent(visit -> {
+                        serviced.addAll(visit.getRequests());
+                        result.addVisit(visit);
+                    });
+        }
+        requests.stream().filter(request -> !serviced.contains(request)).forEach(result::accountRejected);
+        result.setObjValTotalRejected(requests.size() - serviced.size());
+        result.setObjValTotalServiced(serviced.size());
+        result.setObjValRequestsPlusVFs(result.getVisitsOK().size());
+        result.setObjValTotalWaiting(1);
+        return result;
+    }
+
+    private Call callWith(Vehicle vehicle) {
+        return calls.stream().filter(call -> call.vehicles().contains(vehicle)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void groupsVehiclesSharingRequests() {
+        User r0 = request(), r1 = request(), r2 = request(), r3 = request();
+        Vehicle v0 = new Vehicle(4, 0, 0), v1 = new Vehicle(4, 0, 0), v2 = new Vehicle(4, 0, 0), v3 = new Vehicle(4, 0, 0);
+
+        // v0 and v1 compete for r1, v2 does not share requests, v3 can only service r2 (as v2)
+        Map<Vehicle, Set<VisitObj>> vehicleVisitsMap = new HashMap<>();
+        vehicleVisitsMap.put(v0, Set.of(visit(v0, r0), visit(v0, r0, r1)));
+        vehicleVisitsMap.put(v1, Set.of(visit(v1, r1)));
+        vehicleVisitsMap.put(v2, Set.of(visit(v2, r3)));
+        vehicleVisitsMap.put(v3, Set.of(visit(v3, r2)));
+
+        new AssignmentDecomposition(0, vehicleVisitsMap, Set.of(r0, r1, r2, r3)).run(this::solve);
+
+        assertSame(callWith(v0), callWith(v1));
+        assertTrue(callWith(v0).requests().containsAll(Set.of(r0, r1)));
+        assertTrue(callWith(v2).requests().contains(r3));
+        assertTrue(callWith(v3).requests().contains(r2));
+
+        // Every vehicle and request is in exactly one subproblem
+        assertEquals(4, calls.stream().mapToInt(call -> call.vehicles().size()).sum());
+        assertEquals(4, calls.stream().mapToInt(call -> call.requests().size()).sum());
+    }
+
+    @Test
+    void rejectsRequestsWithoutVehicles() {
+        User r0 = request(), r1 = request();
+
+        ResultAssignment result = new AssignmentDecomposition(0, Map.of(), Set.of(r0, r1)).run(this::solve);
+
+        assertEquals(1, calls.size());
+        assertEquals(Set.of(r0, r1), calls.peek().requests());
+        assertTrue(calls.peek().vehicles().isEmpty());
+        assertEquals(Set.of(r0, r1), result.getRequestsUnassigned());
+        assertTrue(result.getVisitsOK().isEmpty());
+    }
+
+    @Test
+    void mergesResultsOfSubproblems() {
+        int nOfComponents = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+        Map<Vehicle, Set<VisitObj>> vehicleVisitsMap = new HashMap<>();
+        Set<User> requests = new HashSet<>();
+        Set<VisitObj> expectedVisits = new HashSet<>();
+        Set<User> expectedRejected = new HashSet<>();
+
+        // Components of one vehicle servicing r0 or r1 (r1 is rejected), plus requests without visits
+        for (int i = 0; i < nOfComponents; i++) {
+            User r0 = request(), r1 = request();
+            Vehicle vehicle = new Vehicle(4, 0, 0);
+            Visit visit = visit(vehicle, r0);
+            vehicleVisitsMap.put(vehicle, Set.of(visit, visit(vehicle, r1)));
+            requests.addAll(List.of(r0, r1));
+            expectedVisits.add(visit);
+            expectedRejected.add(r1);
+        }
+        User alone = request();
+        requests.add(alone);
+        expectedRejected.add(alone);
+
+        ResultAssignment result = new AssignmentDecomposition(0, vehicleVisitsMap, requests).run(this::solve);
+
+        // Components are packed into at most one subproblem per pool worker
+        assertTrue(calls.size() <= Math.max(1, ForkJoinPool.getCommonPoolParallelism()), "subproblems=" + calls.size());
+        if (calls.size() == 1) {
+            assertEquals(0, calls.peek().threads());
+        }
+
+        assertEquals(expectedVisits, result.getVisitsOK());
+        assertEquals(vehicleVisitsMap.keySet(), result.getVehiclesOK());
+        assertEquals(expectedRejected, result.getRequestsUnassigned());
+        assertEquals(expectedRejected.size(), result.getObjValTotalRejected());
+        assertEquals(nOfComponents, result.getObjValTotalServiced());
+        assertEquals(nOfComponents, result.getObjValRequestsPlusVFs());
+        assertEquals(calls.size(), result.getObjValTotalWaiting());
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import model.node.Node;
+import model.node.NodeMiddle;
+import simulation.Simulation;
+
+import java.util.*;
+
+/**
+ * Random routing instances (travel times, requests, and vehicles) that do not depend on instance files.
+ */
+public final class RandomRoutes {
+
+    private final Random random;
+    private final short[][] times;
+
+    /**
+     * Replace the travel times of the network with random ones (a few pairs are unreachable).
+     *
+     * @param random    Random generator
+     * @param nOfNodes  Number of network nodes
+     * @param maxTime   Maximum travel time (seconds)
+     */
+    public RandomRoutes(Random random, int nOfNodes, int maxTime) {
+        this.random = random;
+        this.times = new short[nOfNodes][nOfNodes];
+        for (int i = 0; i < nOfNodes; i++) {
+            for (int j = 0; j < nOfNodes; j++) {
+                times[i][j] = (short) (i == j ? 0 : random.nextInt(20) == 0 ? -1 : 1 + random.nextInt(maxTime));
+            }
+        }
+        Dao.getInstance().setDistMatrix(new DistanceMatrix(times));
+        Simulation.rightTW = 0;
+    }
+
+    public int time(int from, int to) {
+        return times[from][to];
+    }
+
+    /**
+     * @param time  Time request is placed
+     * @param slack Maximum pickup and drop-off slacks (seconds)
+     * @return Request placed at time with random origin, destination, time windows, and sharing preference
+     */
+    public User request(int time, int slack) {
+        int origin = random.nextInt(times.length);
+        int destination = random.nextInt(times.length);
+        int direct = Math.max(0, time(origin, destination));
+        int pkLatest = time + random.nextInt(slack + 1);
+        int dpEarliest = time + direct;
+        int dpLatest = Math.max(pkLatest, dpEarliest) + random.nextInt(slack + 1);
+        User user = new User(time, pkLatest, dpEarliest, dpLatest, 1 + random.nextInt(2), origin, destination, 0, 0, 0, 0);
+        user.setSharingAllowed(random.nextInt(4) > 0);
+        return user;
+    }
+
+    /**
+     * @return Parked vehicle that can leave at the current time, possibly with a contract deadline
+     */
+    public Vehicle idleVehicle(int time) {
+        int capacity = 2 + random.nextInt(3);
+        Vehicle vehicle = random.nextBoolean()
+                ? new Vehicle(capacity, random.nextInt(times.length), time - random.nextInt(60))
+                : new Vehicle(capacity, random.nextInt(times.length), time - random.nextInt(60), true, time + random.nextInt(300));
+        vehicle.updateEarliestDeparture(time);
+        return vehicle;
+    }
+
+    /**
+     * Vehicle that started a visit at time 0 and, at the given time, carries the users picked up so far and is moving
+     * to a middle node.
+     *
+     * @param time      Current time
+     * @param nOfUsers  Number of users in visit
+     * @param slack     Maximum slack of users
+     * @return Vehicle, or null if it finished its visit before time
+     */
+    public Vehicle servicingVehicle(int time, int nOfUsers, int slack) {
+        Simulation.rightTW = 0;
+        Vehicle vehicle = new Vehicle(nOfUsers * 2, random.nextInt(times.length), 0);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < nOfUsers; i++) {
+            users.add(request(random.nextInt(20), slack));
+        }
+
+        Visit visit = new Visit(new LinkedList<>(Arrays.asList(sequence(users, List.of()))), 0);
+        visit.setVehicle(vehicle);
+        visit.getRequests().addAll(users);
+        visit.setDeparture(0);
+        vehicle.setVisit(visit);
+        vehicle.getServicedUsersUntil(time);
+        Simulation.rightTW = time;
+        if (visit.getSequenceVisits().isEmpty()) {
+            return null;
+        }
+
+        // Vehicle left its last visited node towards the visit's target
+        Node last = vehicle.getLastVisitedNode();
+        int distToMiddle = Math.max(0, Math.min(time - last.getDeparture(), time(last.getNetworkId(), visit.getTargetNode().getNetworkId())));
+        vehicle.setMiddleNode(new NodeMiddle(random.nextInt(times.length), last, visit.getTargetNode(), distToMiddle));
+        vehicle.distMiddleNode = distToMiddle;
+        return vehicle;
+    }
+
+    /**
+     * @param requests   Users to pick up and drop off
+     * @param passengers Users to drop off
+     * @return Random pickup and delivery sequence (pickups precede drop-offs)
+     */
+    public Node[] sequence(Collection<User> requests, Collection<User> passengers) {
+        List<Node> available = new ArrayList<>();
+        Map<Node, Node> dropoffOf = new HashMap<>();
+        for (User request : requests) {
+            available.add(request.getNodePk());
+            dropoffOf.put(request.getNodePk(), request.getNodeDp());
+        }
+        for (User passenger : passengers) {
+            available.add(passenger.getNodeDp());
+        }
+
+        Node[] sequence = new Node[2 * requests.size() + passengers.size()];
+        for (int i = 0; i < sequence.length; i++) {
+            Node node = available.remove(random.nextInt(available.size()));
+            sequence[i] = node;
+            if (dropoffOf.containsKey(node)) {
+                available.add(dropoffOf.get(node));
+            }
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import model.node.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteFeasibilityTest {
+
+    @AfterEach
+    void resetTime() {
+        Simulation.rightTW = 0;
+    }
+
+    @Test
+    void matchesDraftVisitOfRandomSequences() {
+        Random random = new Random(7);
+        RandomRoutes routes = new RandomRoutes(random, 12, 60);
+        RouteFeasibility.Nodes nodes = new RouteFeasibility.Nodes();
+        int[] state = RouteFeasibility.newState();
+        int nOfFeasible = 0;
+        int nOfInfeasible = 0;
+
+        for (int instance = 0; instance < 2000; instance++) {
+            int time = 30 + random.nextInt(60);
+            Vehicle vehicle = random.nextBoolean() ? routes.idleVehicle(time) : routes.servicingVehicle(time, 1 + random.nextInt(3), 120);
+            if (vehicle == null) {
+                continue;
+            }
+            Simulation.rightTW = time;
+
+            List<User> requests = new ArrayList<>();
+            List<User> passengers = new ArrayList<>();
+            if (vehicle.isServicing()) {
+                requests.addAll(vehicle.getVisit().getRequests());
+                passengers.addAll(vehicle.getVisit().getPassengers());
+            }
+            for (int i = random.nextInt(3); i > 0; i--) {
+                requests.add(routes.request(time - random.nextInt(30), 40 + random.nextInt(160)));
+            }
+            if (requests.isEmpty() && passengers.isEmpty()) {
+                continue;
+            }
+            Node[] sequence = routes.sequence(requests, passengers);
+
+            // Sequences starting at the node the vehicle is already moving to do not add the middle node
+            if (vehicle.isServicing() && random.nextBoolean()) {
+                Node target = vehicle.getVisit().getTargetNode();
+                for (int i = 0; i < sequence.length; i++) {
+                    if (sequence[i] == target) {
+                        System.arraycopy(sequence, 0, sequence, 1, i);
+                        sequence[0] = target;
+                        break;
+                    }
+                }
+            }
+
+            Leg leg = Visit.getDraftVisit(vehicle, sequence);
+            boolean feasible = RouteFeasibility.check(vehicle, nodes.set(sequence), state);
+
+            assertEquals(leg != null, feasible);
+            if (leg == null) {
+                nOfInfeasible++;
+                continue;
+            }
+            nOfFeasible++;
+            assertEquals(leg.arrivalNext, state[RouteFeasibility.ARRIVAL]);
+            assertEquals(leg.load, state[RouteFeasibility.LOAD]);
+            assertEquals(leg.delay, state[RouteFeasibility.DELAY]);
+            assertEquals(leg.delayBonus, state[RouteFeasibility.DELAY_BONUS]);
+            assertEquals(leg.idleness, state[RouteFeasibility.IDLENESS]);
+            assertEquals(leg.totalVisitSize, state[RouteFeasibility.SIZE]);
+        }
+
+        assertTrue(nOfFeasible > 100, "feasible=" + nOfFeasible);
+        assertTrue(nOfInfeasible > 100, "infeasible=" + nOfInfeasible);
+    }
+
+    @Test
+    void comparesStatesAsLegs() {
+        int[] a = RouteFeasibility.newState();
+        int[] b = RouteFeasibility.newState();
+
+        a[RouteFeasibility.DELAY] = 10;
+        b[RouteFeasibility.DELAY] = 20;
+        assertTrue(RouteFeasibility.isBetter(a, b));
+
+        // Same delay, shorter sequence
+        b[RouteFeasibility.DELAY] = 10;
+        a[RouteFeasibility.SIZE] = 5;
+        b[RouteFeasibility.SIZE] = 4;
+        assertTrue(RouteFeasibility.isBetter(b, a));
+
+        // Same delay and size, less idleness
+        a[RouteFeasibility.SIZE] = 4;
+        a[RouteFeasibility.IDLENESS] = 1;
+        assertTrue(RouteFeasibility.isBetter(b, a));
+        assertFalse(RouteFeasibility.isBetter(b, b));
+    }
+}
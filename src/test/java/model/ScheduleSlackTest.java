@@ -0,0 +1,148 @@
+package model;
+
+import model.node.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import simulation.Simulation;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleSlackTest {
+
+    @AfterEach
+    void resetTime() {
+        Simulation.rightTW = 0;
+    }
+
+    @Test
+    void insertsAsExhaustiveSearch() {
+        Random random = new Random(3);
+        // Short travel times produce many insertions with the same delay
+        RandomRoutes routes = new RandomRoutes(random, 6, 20);
+        int nOfFeasible = 0;
+        int nOfInfeasible = 0;
+        int nOfTies = 0;
+
+        for (int instance = 0; instance < 3000; instance++) {
+            // Early times leave users of the visit with pickups ahead of time (vehicle waits in the suffix)
+            int time = 1 + random.nextInt(40);
+            Vehicle vehicle = routes.servicingVehicle(time, 1 + random.nextInt(3), 20 + random.nextInt(100));
+            if (vehicle == null) {
+                continue;
+            }
+
+            // Vehicles that did not leave their last node cannot move to a middle node
+            if (random.nextInt(4) == 0) {
+                vehicle.setMiddleNode(null);
+            }
+            User request = routes.request(time - 20 + random.nextInt(40), random.nextInt(80));
+
+            ExhaustiveInsertion expected = new ExhaustiveInsertion(vehicle, request);
+            Visit visit = vehicle.getVisitWithInsertedUser(request, time);
+
+            if (expected.best == null) {
+                assertNull(visit);
+                nOfInfeasible++;
+                continue;
+            }
+            nOfFeasible++;
+            nOfTies += expected.nOfTies > 1 ? 1 : 0;
+            assertNotNull(visit);
+            assertIterableEquals(expected.best.getSequenceVisits(), visit.getSequenceVisits());
+            assertEquals(expected.best.getDelay(), visit.getDelay());
+        }
+
+        assertTrue(nOfFeasible > 200, "feasible=" + nOfFeasible);
+        assertTrue(nOfInfeasible > 200, "infeasible=" + nOfInfeasible);
+        assertTrue(nOfTies > 20, "ties=" + nOfTies);
+    }
+
+    /**
+     * Insertion checking every leg of every (pickup, drop-off) position pair (as before schedule slacks were used).
+     */
+    private static class ExhaustiveInsertion {
+        private Visit best;
+        // Insertions with the same delay and size as the best
+        private int nOfTies;
+
+        private ExhaustiveInsertion(Vehicle vehicle, User candidateRequest) {
+            List<Node> visitsVehicle = vehicle.getVisit().getSequenceVisits();
+
+            pkcontinue:
+            for (int pkPos = 0; pkPos <= visitsVehicle.size(); pkPos++) {
+                int[] cumulativeLegPK = new int[]{vehicle.getDepartureCurrent(), vehicle.getCurrentLoad(), 0};
+                Node currentPK = vehicle.getLastVisitedNode();
+                Node middle = null;
+
+                if (pkPos == 0) {
+                    middle = vehicle.getMiddleNode();
+                    if (middle == null) {
+                        continue;
+                    }
+                    cumulativeLegPK[Vehicle.ARRIVAL] += vehicle.distMiddleNode;
+                    currentPK = middle;
+                }
+
+                for (int i = 0; i < pkPos; i++) {
+                    Node next = visitsVehicle.get(i);
+                    if (vehicle.isLegInvalid(currentPK, next, cumulativeLegPK)) {
+                        continue pkcontinue;
+                    }
+                    currentPK = next;
+                }
+
+                if (vehicle.isLegInvalid(currentPK, candidateRequest.getNodePk(), cumulativeLegPK)) {
+                    continue;
+                }
+                currentPK = candidateRequest.getNodePk();
+
+                dpcontinue:
+                for (int dpPos = pkPos; dpPos <= visitsVehicle.size(); dpPos++) {
+                    int[] cumulativeLeg = cumulativeLegPK.clone();
+                    Node current = currentPK;
+
+                    for (int i = pkPos; i < dpPos; i++) {
+                        Node next = visitsVehicle.get(i);
+                        if (vehicle.isLegInvalid(current, next, cumulativeLeg)) {
+                            continue dpcontinue;
+                        }
+                        current = next;
+                    }
+
+                    if (vehicle.isLegInvalid(current, candidateRequest.getNodeDp(), cumulativeLeg)) {
+                        continue;
+                    }
+                    current = candidateRequest.getNodeDp();
+
+                    for (int i = dpPos; i < visitsVehicle.size(); i++) {
+                        Node next = visitsVehicle.get(i);
+                        if (vehicle.isLegInvalid(current, next, cumulativeLeg)) {
+                            continue dpcontinue;
+                        }
+                        current = next;
+                    }
+
+                    LinkedList<Node> newSequence = new LinkedList<>(visitsVehicle);
+                    newSequence.add(dpPos, candidateRequest.getNodeDp());
+                    newSequence.add(pkPos, candidateRequest.getNodePk());
+                    if (pkPos == 0) {
+                        newSequence.add(0, middle);
+                    }
+                    Visit candidateVisit = new Visit(newSequence, cumulativeLeg[Vehicle.DELAY]);
+
+                    // First best is kept
+                    if (best == null || best.compareTo(candidateVisit) > 0) {
+                        best = candidateVisit;
+                        nOfTies = 1;
+                    } else if (best.compareTo(candidateVisit) == 0) {
+                        nOfTies++;
+                    }
+                }
+            }
+        }
+    }
+}
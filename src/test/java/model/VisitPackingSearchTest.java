@@ -0,0 +1,111 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitPackingSearchTest {
+
+    // Costs = (-serviced requests, delay)
+    private static double[] cost(int[] requests, int delay) {
+        return new double[]{-requests.length, delay};
+    }
+
+    @Test
+    void ejectsVehicleToServiceMoreRequests() {
+        // Vehicle 0 only services r0, vehicle 1 services r0 (greedy picks it first) or r1
+        int[] visitVehicle = {1, 1, 0};
+        int[][] visitRequests = {{0}, {1}, {0}};
+        double[][] visitCost = {cost(visitRequests[0], 1), cost(visitRequests[1], 1), cost(visitRequests[2], 5)};
+
+        VisitPackingSearch search = new VisitPackingSearch(2, 2, visitVehicle, visitRequests, visitCost, new boolean[2]);
+        int[] chosen = search.solve(Long.MAX_VALUE);
+
+        assertArrayEquals(new int[]{2, 1}, chosen);
+        assertArrayEquals(new double[]{-2, -2, 6}, search.getCost());
+    }
+
+    @Test
+    void servesMustServeRequestsFirst() {
+        // Vehicle 0 services r0 and r1, or r2 (previously assigned)
+        int[] visitVehicle = {0, 0};
+        int[][] visitRequests = {{0, 1}, {2}};
+        double[][] visitCost = {cost(visitRequests[0], 0), cost(visitRequests[1], 0)};
+
+        VisitPackingSearch search = new VisitPackingSearch(1, 3, visitVehicle, visitRequests, visitCost, new boolean[]{false, false, true});
+
+        assertArrayEquals(new int[]{1}, search.solve(Long.MAX_VALUE));
+    }
+
+    @Test
+    void findsFeasibleNearOptimalAssignments() {
+        Random random = new Random(1);
+        int nOfOptimal = 0;
+        int nOfInstances = 200;
+
+        for (int instance = 0; instance < nOfInstances; instance++) {
+            int nOfVehicles = 2 + random.nextInt(3);
+            int nOfRequests = 3 + random.nextInt(4);
+            int nOfVisits = nOfVehicles * 4;
+
+            // Every vehicle has an empty visit
+            int[] visitVehicle = new int[nOfVisits];
+            int[][] visitRequests = new int[nOfVisits][];
+            double[][] visitCost = new double[nOfVisits][];
+            for (int v = 0; v < nOfVisits; v++) {
+                visitVehicle[v] = v % nOfVehicles;
+                visitRequests[v] = v < nOfVehicles ? new int[0] : random.ints(0, nOfRequests).distinct().limit(1 + random.nextInt(3)).toArray();
+                visitCost[v] = cost(visitRequests[v], random.nextInt(10));
+            }
+
+            VisitPackingSearch search = new VisitPackingSearch(nOfVehicles, nOfRequests, visitVehicle, visitRequests, visitCost, new boolean[nOfRequests]);
+            int[] chosen = search.solve(Long.MAX_VALUE);
+
+            // One visit per vehicle, each request at most once
+            boolean[] serviced = new boolean[nOfRequests];
+            for (int u = 0; u < nOfVehicles; u++) {
+                assertEquals(u, visitVehicle[chosen[u]]);
+                for (int r : visitRequests[chosen[u]]) {
+                    assertFalse(serviced[r]);
+                    serviced[r] = true;
+                }
+            }
+
+            double[] best = bruteForce(nOfVehicles, nOfRequests, visitVehicle, visitRequests, visitCost);
+            double[] found = search.getCost();
+            assertTrue(VisitPackingSearch.compare(best, found) <= 0);
+            if (VisitPackingSearch.compare(best, found) == 0) {
+                nOfOptimal++;
+            }
+        }
+        assertTrue(nOfOptimal >= nOfInstances * 0.95, "Optimal in " + nOfOptimal + " instances");
+    }
+
+    private static double[] bruteForce(int nOfVehicles, int nOfRequests, int[] visitVehicle, int[][] visitRequests, double[][] visitCost) {
+        int nOfVisitsPerVehicle = visitVehicle.length / nOfVehicles;
+        double[] best = null;
+        int nOfCombinations = (int) Math.pow(nOfVisitsPerVehicle, nOfVehicles);
+        for (int c = 0; c < nOfCombinations; c++) {
+            boolean[] serviced = new boolean[nOfRequests];
+            double[] total = new double[visitCost[0].length + 1];
+            boolean feasible = true;
+            for (int u = 0, code = c; u < nOfVehicles; u++, code /= nOfVisitsPerVehicle) {
+                int v = (code % nOfVisitsPerVehicle) * nOfVehicles + u;
+                total[0]--;
+                for (int k = 0; k < visitCost[v].length; k++) {
+                    total[k + 1] += visitCost[v][k];
+                }
+                for (int r : visitRequests[v]) {
+                    feasible &= !serviced[r];
+                    serviced[r] = true;
+                }
+            }
+            if (feasible && (best == null || VisitPackingSearch.compare(total, best) < 0)) {
+                best = total;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,43 @@
+package model.graph;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InfeasiblePairCacheTest {
+
+    @Test
+    void keyIgnoresOrder() {
+        assertEquals(InfeasiblePairCache.key(3, 9), InfeasiblePairCache.key(9, 3));
+        assertNotEquals(InfeasiblePairCache.key(3, 9), InfeasiblePairCache.key(3, 10));
+        assertNotEquals(InfeasiblePairCache.key(1, 2), InfeasiblePairCache.key(2, 2));
+        assertEquals(((long) 7 << 32) | Integer.MAX_VALUE, InfeasiblePairCache.key(Integer.MAX_VALUE, 7));
+    }
+
+    @Test
+    void evictsPairsOnceAfterServiceLevelIsLowered() {
+        User user1 = new User(0, 300, 100, 900, 1, 1, 2, 0, 0, 0, 0);
+        User user2 = new User(0, 300, 100, 900, 1, 3, 4, 0, 0, 0, 0);
+        InfeasiblePairCache cache = new InfeasiblePairCache();
+
+        cache.startRound(0, List.of(user1, user2));
+        cache.add(user1, user2);
+        cache.startRound(30, List.of(user1, user2));
+        assertTrue(cache.contains(user1, user2));
+
+        user2.lowerServiceLevel(60);
+        cache.startRound(60, List.of(user1, user2));
+        assertFalse(cache.contains(user1, user2));
+
+        // Pair found infeasible again under the lowered service level is kept
+        cache.add(user1, user2);
+        cache.startRound(90, List.of(user1, user2));
+        assertTrue(cache.contains(user1, user2));
+
+        cache.startRound(120, List.of(user1));
+        assertFalse(cache.contains(user1, user2));
+    }
+}
@@ -0,0 +1,34 @@
+package model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void behavesLikeHashSet() {
+        Random random = new Random(1);
+        LongHashSet set = new LongHashSet(2);
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 5000; i++) {
+            // Bitmasks of a few requests (many repeated keys)
+            long key = (1L << random.nextInt(64)) | (1L << random.nextInt(64)) | (1L << random.nextInt(12));
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+
+        for (int i = 0; i < 5000; i++) {
+            long key = random.nextLong() | 1;
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package model.graph;
+
+import dao.DistanceMatrix;
+import dao.ReachabilityIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPairIndexTest {
+
+    @Test
+    void candidatesMatchPairwiseCheck() {
+        int nodes = 300;
+        int requests = 60;
+        Random random = new Random(11);
+
+        short[][] times = new short[nodes][nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                times[i][j] = (short) (i == j ? 0 : 1 + random.nextInt(900));
+            }
+        }
+        DistanceMatrix distMatrix = new DistanceMatrix(times);
+
+        int[] pickup = new int[requests];
+        int[] dropoff = new int[requests];
+        int[] departure = new int[requests];
+        int[] latest = new int[requests];
+        for (int r = 0; r < requests; r++) {
+            pickup[r] = random.nextInt(nodes);
+            dropoff[r] = random.nextInt(nodes);
+            departure[r] = 1000 + random.nextInt(60);
+            latest[r] = departure[r] + random.nextInt(200);
+        }
+
+        // Small horizon (queries beyond it scan the matrix) and large horizon
+        for (int horizon : new int[]{100, 1000}) {
+            ReachabilityIndex reachabilityIndex = ReachabilityIndex.build(distMatrix, horizon);
+            RequestPairIndex index = new RequestPairIndex(pickup, dropoff, departure, latest, distMatrix, reachabilityIndex);
+
+            for (int i = 0; i < requests; i++) {
+                BitSet expected = new BitSet();
+                for (int j = i + 1; j < requests; j++) {
+                    if (canPickupSecond(times, pickup, dropoff, departure, latest, i, j)
+                            || canPickupSecond(times, pickup, dropoff, departure, latest, j, i)) {
+                        expected.set(j);
+                    }
+                }
+                assertEquals(expected, index.getCandidates(i));
+            }
+        }
+    }
+
+    private static boolean canPickupSecond(short[][] times, int[] pickup, int[] dropoff, int[] departure, int[] latest, int a, int b) {
+        int direct = departure[a] + times[pickup[a]][pickup[b]];
+        int throughDropoff = departure[a] + times[pickup[a]][dropoff[a]] + times[dropoff[a]][pickup[b]];
+        return Math.min(direct, throughDropoff) <= latest[b];
+    }
+}
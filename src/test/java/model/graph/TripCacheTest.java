@@ -0,0 +1,85 @@
+package model.graph;
+
+import model.User;
+import model.Vehicle;
+import model.Visit;
+import model.VisitObj;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripCacheTest {
+
+    @Test
+    void dropsTripsOnceAfterServiceLevelIsLowered() {
+        Vehicle vehicle = new Vehicle(4, 1, 0);
+        User user1 = new User(0, 300, 100, 900, 1, 1, 2, 0, 0, 0, 0);
+        User user2 = new User(0, 300, 100, 900, 1, 3, 4, 0, 0, 0, 0);
+        Set<User> trip = Set.of(user1, user2);
+        TripCache cache = new TripCache();
+
+        cache.startRound(0, Set.of(vehicle), trip);
+        cache.getInfeasibleTrips(vehicle).add(trip);
+        cache.startRound(0, Set.of(vehicle), trip);
+        assertTrue(cache.getInfeasibleTrips(vehicle).contains(trip));
+
+        user1.lowerServiceLevel(60);
+        cache.startRound(0, Set.of(vehicle), trip);
+        assertFalse(cache.getInfeasibleTrips(vehicle).contains(trip));
+
+        // Trip found infeasible again under the lowered service level is kept
+        cache.getInfeasibleTrips(vehicle).add(trip);
+        cache.startRound(0, Set.of(vehicle), trip);
+        assertTrue(cache.getInfeasibleTrips(vehicle).contains(trip));
+    }
+
+    @Test
+    void reusesFeasibleTripsWhileVehiclePlanIsUnchanged() {
+        // Vehicle waits at its node until 100
+        Vehicle vehicle = new Vehicle(4, 1, 100);
+        User user1 = new User(0, 300, 100, 900, 1, 1, 2, 0, 0, 0, 0);
+        User user2 = new User(0, 300, 100, 900, 1, 3, 4, 0, 0, 0, 0);
+        Set<User> trip = Set.of(user1, user2);
+        VisitObj visit = new Visit();
+        TripCache cache = new TripCache();
+
+        cache.startRound(30, Set.of(vehicle), trip);
+        cache.getFeasibleTrips(vehicle).put(trip, visit);
+
+        // Second round with the same plan: best visit is found without checking the trip
+        cache.startRound(60, Set.of(vehicle), trip);
+        assertSame(visit, cache.getFeasibleTrips(vehicle).get(trip));
+
+        // Request no longer waiting
+        cache.startRound(90, Set.of(vehicle), Set.of(user1));
+        assertTrue(cache.getFeasibleTrips(vehicle).isEmpty());
+
+        // Plan changes
+        cache.getFeasibleTrips(vehicle).put(trip, visit);
+        vehicle.updateEarliestDeparture(200);
+        cache.startRound(120, Set.of(vehicle), trip);
+        assertTrue(cache.getFeasibleTrips(vehicle).isEmpty());
+
+        // Vehicle departs at the round time
+        cache.getFeasibleTrips(vehicle).put(trip, visit);
+        cache.startRound(200, Set.of(vehicle), trip);
+        assertTrue(cache.getFeasibleTrips(vehicle).isEmpty());
+    }
+
+    @Test
+    void doesNotKeepFeasibleTripsOfIdleVehicles() {
+        Vehicle vehicle = new Vehicle(4, 1, 0);
+        User user1 = new User(0, 300, 100, 900, 1, 1, 2, 0, 0, 0, 0);
+        Set<User> trip = Set.of(user1);
+        TripCache cache = new TripCache();
+
+        cache.startRound(30, Set.of(vehicle), trip);
+        Map<Set<User>, VisitObj> feasibleTrips = cache.getFeasibleTrips(vehicle);
+        feasibleTrips.put(trip, new Visit());
+        assertFalse(cache.getFeasibleTrips(vehicle).containsKey(trip));
+        assertEquals(0, cache.sizeFeasible());
+    }
+}
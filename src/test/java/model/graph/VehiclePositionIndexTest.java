@@ -0,0 +1,55 @@
+package model.graph;
+
+import dao.DistanceMatrix;
+import dao.ReachabilityIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehiclePositionIndexTest {
+
+    @Test
+    void candidatesMatchVehicleScan() {
+        int nodes = 300;
+        int fleet = 100;
+        Random random = new Random(5);
+
+        short[][] times = new short[nodes][nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                times[i][j] = (short) (i == j ? 0 : 1 + random.nextInt(900));
+            }
+        }
+        DistanceMatrix distMatrix = new DistanceMatrix(times);
+
+        int[] position = new int[fleet];
+        int[] departure = new int[fleet];
+        int[] hops = new int[fleet];
+        for (int v = 0; v < fleet; v++) {
+            position[v] = random.nextInt(nodes);
+            departure[v] = 1000 + random.nextInt(120);
+            hops[v] = 1 + random.nextInt(6);
+        }
+
+        // Small horizon (queries beyond it scan the matrix) and large horizon
+        for (int horizon : new int[]{100, 1000}) {
+            ReachabilityIndex reachabilityIndex = ReachabilityIndex.build(distMatrix, horizon);
+            VehiclePositionIndex index = new VehiclePositionIndex(position, departure, hops, distMatrix, reachabilityIndex);
+
+            for (int pickup = 0; pickup < nodes; pickup++) {
+                int latest = 1000 + random.nextInt(400);
+                BitSet expected = new BitSet();
+                for (int v = 0; v < fleet; v++) {
+                    if (departure[v] + times[position[v]][pickup] - hops[v] <= latest) {
+                        expected.set(v);
+                    }
+                }
+                assertEquals(expected, index.getCandidates(pickup, latest));
+            }
+            assertTrue(index.getCandidates(0, 0).isEmpty());
+        }
+    }
+}
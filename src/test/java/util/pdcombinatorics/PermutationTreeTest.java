@@ -0,0 +1,216 @@
+package util.pdcombinatorics;
+
+import dao.Dao;
+import dao.DistanceMatrix;
+import model.RandomRoutes;
+import model.RouteFeasibility;
+import model.User;
+import model.Vehicle;
+import model.node.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.Simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermutationTreeTest {
+
+    private static final int MAX_REQUESTS = 3;
+    private static final int MAX_PASSENGERS = 2;
+
+    @BeforeAll
+    static void loadPermutations(@TempDir Path dir) throws IOException {
+        // Same format as the precalculated permutation files
+        StringBuilder data = new StringBuilder();
+        for (int nOfRequests = 0; nOfRequests <= MAX_REQUESTS; nOfRequests++) {
+            for (int nOfPassengers = 0; nOfPassengers <= MAX_PASSENGERS; nOfPassengers++) {
+                List<int[]> permutations = new ArrayList<>();
+                addValidPermutations(nOfRequests, nOfPassengers, new int[2 * nOfRequests + nOfPassengers], 0, permutations);
+                data.append(String.format("%d %d %d%n", nOfRequests, nOfPassengers, permutations.size()));
+                for (int[] permutation : permutations) {
+                    StringJoiner line = new StringJoiner(" ");
+                    Arrays.stream(permutation).forEach(p -> line.add(String.valueOf(p)));
+                    data.append(line).append(System.lineSeparator());
+                }
+                data.append(System.lineSeparator());
+            }
+        }
+        Path file = dir.resolve("permutations.dat");
+        Files.writeString(file, data);
+        PDPermutations.loadPrecalculatedPermutationsPUDO(file.toString());
+    }
+
+    /**
+     * Permutations of [PU_1, ..., PU_n, DO_1, ..., DO_n, DO_(n+1), ..., DO_(n+p)] in lexicographic order, such that
+     * pickups precede their drop-offs.
+     */
+    private static void addValidPermutations(int nOfRequests, int nOfPassengers, int[] prefix, int size, List<int[]> permutations) {
+        if (size == prefix.length) {
+            permutations.add(prefix.clone());
+            return;
+        }
+        for (int p = 0; p < prefix.length; p++) {
+            boolean used = false;
+            boolean pickupUsed = p < nOfRequests || p >= 2 * nOfRequests;
+            for (int k = 0; k < size; k++) {
+                used |= prefix[k] == p;
+                pickupUsed |= prefix[k] == p - nOfRequests;
+            }
+            if (!used && pickupUsed) {
+                prefix[size] = p;
+                addValidPermutations(nOfRequests, nOfPassengers, prefix, size + 1, permutations);
+            }
+        }
+    }
+
+    @AfterEach
+    void resetTime() {
+        Simulation.rightTW = 0;
+    }
+
+    @Test
+    void sharesPrefixes() {
+        // Two requests (PU_1, PU_2, DO_1, DO_2), all valid permutations
+        int[][] permutations = {
+                {0, 1, 2, 3},
+                {0, 1, 3, 2},
+                {0, 2, 1, 3},
+                {1, 0, 2, 3},
+                {1, 0, 3, 2},
+                {1, 3, 0, 2},
+                {0, 1, 2, 3}, // Duplicate
+                null
+        };
+        PermutationTree tree = new PermutationTree(permutations);
+
+        // root + {0, 1} + {01, 02, 10, 13} + {012, 013, 021, 102, 103, 130} + 6 leaves
+        assertEquals(1 + 2 + 4 + 6 + 6, tree.size());
+        assertSame(permutations[5], tree.getPermutation(5));
+    }
+
+    @Test
+    void findsBestSequenceOfRandomTrips() {
+        Random random = new Random(11);
+        RandomRoutes routes = new RandomRoutes(random, 10, 60);
+        int nOfFeasible = 0;
+        int nOfInfeasible = 0;
+
+        for (int instance = 0; instance < 1000; instance++) {
+            int time = 30 + random.nextInt(60);
+            Vehicle vehicle = random.nextBoolean() ? routes.idleVehicle(time) : routes.servicingVehicle(time, 1 + random.nextInt(MAX_PASSENGERS), 150);
+            if (vehicle == null) {
+                continue;
+            }
+            Simulation.rightTW = time;
+
+            // Requests not yet picked up are part of the trip
+            Set<User> requests = new HashSet<>();
+            if (vehicle.isServicing()) {
+                requests.addAll(vehicle.getVisit().getRequests());
+            }
+            for (int i = random.nextInt(MAX_REQUESTS - requests.size() + 1); i > 0; i--) {
+                requests.add(routes.request(time - random.nextInt(30), 40 + random.nextInt(200)));
+            }
+            if (requests.isEmpty() && !vehicle.isServicing()) {
+                continue;
+            }
+
+            if (assertSameBestSequence(vehicle, requests) != null) {
+                nOfFeasible++;
+            } else {
+                nOfInfeasible++;
+            }
+        }
+
+        assertTrue(nOfFeasible > 100, "feasible=" + nOfFeasible);
+        assertTrue(nOfInfeasible > 100, "infeasible=" + nOfInfeasible);
+    }
+
+    @Test
+    void cutsInfeasiblePrefix() {
+        lineNetwork();
+        Vehicle vehicle = new Vehicle(4, 0, 0);
+
+        // r1 rides alone, hence every sequence starting with [PU_1, PU_2] is cut after its second leg
+        User r1 = new User(0, 100, 20, 300, 1, 1, 2, 0, 0, 0, 0);
+        User r2 = new User(0, 300, 10, 300, 1, 4, 3, 0, 0, 0, 0);
+        r1.setSharingAllowed(false);
+        r2.setSharingAllowed(true);
+
+        Node[] best = assertSameBestSequence(vehicle, Set.of(r1, r2));
+        assertArrayEquals(new Node[]{r1.getNodePk(), r1.getNodeDp(), r2.getNodePk(), r2.getNodeDp()}, best);
+    }
+
+    @Test
+    void cutsPrefixWorseThanBestSequence() {
+        lineNetwork();
+        Vehicle vehicle = new Vehicle(4, 0, 0);
+        User r1 = new User(0, 100, 20, 300, 1, 1, 2, 0, 0, 0, 0);
+        User r2 = new User(0, 300, 10, 300, 1, 4, 3, 0, 0, 0, 0);
+        r1.setSharingAllowed(true);
+        r2.setSharingAllowed(true);
+
+        // Best [PU_1, DO_1, PU_2, DO_2] has delay 0 + 40. Any sequence starting at PU_2 (arrival 40) delays DO_1
+        // by at least 20 and DO_2 by at least 30, hence the subtree is cut by the bound.
+        int[] state = RouteFeasibility.newState();
+        Node[] best = assertSameBestSequence(vehicle, Set.of(r1, r2));
+        new PDPermutations(Set.of(r1, r2), vehicle).getBestSequence(vehicle, state);
+        assertArrayEquals(new Node[]{r1.getNodePk(), r1.getNodeDp(), r2.getNodePk(), r2.getNodeDp()}, best);
+        assertEquals(40, state[RouteFeasibility.DELAY]);
+    }
+
+    /**
+     * Nodes 0, ..., 4 on a line, 10 seconds apart.
+     */
+    private static void lineNetwork() {
+        short[][] times = new short[5][5];
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                times[i][j] = (short) (10 * Math.abs(i - j));
+            }
+        }
+        Dao.getInstance().setDistMatrix(new DistanceMatrix(times));
+        Simulation.rightTW = 0;
+    }
+
+    /**
+     * Check the tree search returns the first best permutation, as checking every permutation in order.
+     *
+     * @return Best sequence, or null if no sequence is feasible
+     */
+    private static Node[] assertSameBestSequence(Vehicle vehicle, Set<User> requests) {
+        PDPermutations perms = new PDPermutations(requests, vehicle);
+
+        RouteFeasibility.Nodes nodes = new RouteFeasibility.Nodes();
+        int[] state = RouteFeasibility.newState();
+        int[] expectedState = RouteFeasibility.newState();
+        Node[] expected = null;
+        while (perms.hasNext()) {
+            Node[] sequence = perms.next();
+            if (RouteFeasibility.check(vehicle, nodes.set(sequence), state)
+                    && (expected == null || RouteFeasibility.isBetter(state, expectedState))) {
+                expected = sequence;
+                System.arraycopy(state, 0, expectedState, 0, RouteFeasibility.STATE_SIZE);
+            }
+        }
+
+        int[] bestState = RouteFeasibility.newState();
+        Node[] best = perms.getBestSequence(vehicle, bestState);
+
+        assertArrayEquals(expected, best);
+        if (expected != null) {
+            assertEquals(expectedState[RouteFeasibility.DELAY], bestState[RouteFeasibility.DELAY]);
+            assertEquals(expectedState[RouteFeasibility.SIZE], bestState[RouteFeasibility.SIZE]);
+            assertEquals(expectedState[RouteFeasibility.IDLENESS], bestState[RouteFeasibility.IDLENESS]);
+            assertEquals(expectedState[RouteFeasibility.DELAY_BONUS], bestState[RouteFeasibility.DELAY_BONUS]);
+        }
+        return best;
+    }
+}